@@ -0,0 +1,64 @@
+package at.ac.tuwien.mogda.willgraph;
+
+import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.locationtech.jts.geom.Geometry;
+import org.n52.jackson.datatype.jts.JtsModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared fixtures for the benchmarks, read from the resources the application itself imports
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * The 2118 Gemeinde outlines as imported by the RegionImporter
+     */
+    public static List<RegionEntity> gemeinden() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JtsModule());
+        try (InputStream in = resource("regions/gemeinden_999_geo.json")) {
+            List<RegionEntity> regions = new ArrayList<>();
+            for (JsonNode feature : mapper.readTree(in).get("features")) {
+                JsonNode properties = feature.get("properties");
+                regions.add(RegionEntity.builder()
+                        .name(properties.get("name").asText())
+                        .iso(properties.get("iso").asText())
+                        .geometry(mapper.treeToValue(feature.get("geometry"), Geometry.class))
+                        .build());
+            }
+            return regions;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Uniform points over the bounding box of Austria as {lat, lon} pairs
+     */
+    public static double[][] austrianPoints(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[]{46.4 + random.nextDouble() * 2.6, 9.5 + random.nextDouble() * 7.6};
+        }
+        return points;
+    }
+
+    public static InputStream resource(String name) {
+        InputStream in = BenchmarkData.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) {
+            throw new IllegalStateException("Missing classpath resource " + name);
+        }
+        return in;
+    }
+}
@@ -0,0 +1,59 @@
+package at.ac.tuwien.mogda.willgraph.bootstrap;
+
+import at.ac.tuwien.mogda.willgraph.BenchmarkData;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing and row extraction of the listing import over the bundled scraper exports, without the database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingCsvBenchmark {
+
+    @Param({"willhaben", "immoscout"})
+    private String source;
+
+    private byte[] csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = BenchmarkData.resource(source + "_output.csv")) {
+            csv = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public void parseRows(Blackhole blackhole) throws IOException {
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8);
+             CSVParser parser = new CSVParser(reader, ListingImporter.CSV_FORMAT)) {
+            for (CSVRecord record : parser) {
+                blackhole.consume(ListingImporter.parseRow(record, source));
+            }
+        }
+    }
+}
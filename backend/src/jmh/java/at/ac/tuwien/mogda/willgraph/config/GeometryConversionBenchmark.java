@@ -0,0 +1,71 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import at.ac.tuwien.mogda.willgraph.BenchmarkData;
+import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.neo4j.driver.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Region geometry (de)serialization through the Neo4j converters, on the most detailed Gemeinde outline.
+ * The converters store WKT; WKB is measured alongside as the binary alternative.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryConversionBenchmark {
+
+    private final Neo4jConfig.GeometryToValueConverter writer = new Neo4jConfig.GeometryToValueConverter();
+    private final Neo4jConfig.ValueToGeometryConverter reader = new Neo4jConfig.ValueToGeometryConverter();
+    private Geometry geometry;
+    private Value wkt;
+    private byte[] wkb;
+
+    @Setup
+    public void setUp() {
+        geometry = BenchmarkData.gemeinden().stream()
+                .map(RegionEntity::getGeometry)
+                .max(Comparator.comparingInt(Geometry::getNumPoints))
+                .orElseThrow();
+        wkt = writer.convert(geometry);
+        wkb = new WKBWriter().write(geometry);
+    }
+
+    @Benchmark
+    public Value writeWkt() {
+        return writer.convert(geometry);
+    }
+
+    @Benchmark
+    public Geometry readWkt() {
+        return reader.convert(wkt);
+    }
+
+    @Benchmark
+    public byte[] writeWkb() {
+        return new WKBWriter().write(geometry);
+    }
+
+    @Benchmark
+    public Geometry readWkb() throws ParseException {
+        return new WKBReader().read(wkb);
+    }
+}
@@ -0,0 +1,81 @@
+package at.ac.tuwien.mogda.willgraph.service.geo;
+
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a full distance matrix computed per pair with the trigonometric haversine against the
+ * structure-of-arrays kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class HaversineBenchmark {
+
+    @Param({"50", "500"})
+    private int size;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private GeoPoints points;
+    private double[] row;
+    private final HaversineKernel scalar = new ScalarHaversineKernel();
+    private final HaversineKernel vector = new VectorHaversineKernel();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[size];
+        longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            // Roughly the Vienna bounding box
+            latitudes[i] = 48.1 + random.nextDouble() * 0.2;
+            longitudes[i] = 16.2 + random.nextDouble() * 0.35;
+        }
+        points = GeoPoints.of(latitudes, longitudes);
+        row = new double[size];
+    }
+
+    @Benchmark
+    public void perPairHaversine(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                row[j] = GeoMath.haversine(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+            }
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    public void scalarKernel(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            scalar.row(points, i, points, row);
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    public void vectorKernel(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            vector.row(points, i, points, row);
+            blackhole.consume(row);
+        }
+    }
+}
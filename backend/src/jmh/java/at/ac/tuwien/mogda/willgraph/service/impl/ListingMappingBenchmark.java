@@ -0,0 +1,126 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateWithScoreDto;
+import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.entity.TransportConnection;
+import at.ac.tuwien.mogda.willgraph.service.scoring.ScalarScoreKernel;
+import at.ac.tuwien.mogda.willgraph.service.scoring.ScoreKernel;
+import at.ac.tuwien.mogda.willgraph.service.scoring.ScoreKernels;
+import at.ac.tuwien.mogda.willgraph.service.scoring.ScoringPipeline;
+import at.ac.tuwien.mogda.willgraph.service.scoring.VectorScoreKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail of the listing search after the Cypher query: entity to DTO mapping and normalization of the ranked scores
+ * through the {@link ScoringPipeline}, plus the normalization alone on the scalar and vector score kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ListingMappingBenchmark {
+
+    @Param({"50", "1000"})
+    private int size;
+
+    private List<ListingEntity> listings;
+    /**
+     * Descending, like the scores of the ranked search results
+     */
+    private double[] ranked;
+    private double[] work;
+    private final ScoringPipeline scoringPipeline = new ScoringPipeline(List.of());
+    private final ScoreKernel scalar = new ScalarScoreKernel();
+    private final ScoreKernel vector = new VectorScoreKernel();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        listings = new ArrayList<>(size);
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            Set<TransportConnection> stations = new HashSet<>();
+            for (int s = 0; s < 3; s++) {
+                stations.add(new TransportConnection((long) (i * 3 + s), 50 + random.nextDouble() * 900, 0, null, null));
+            }
+            AddressEntity address = AddressEntity.builder()
+                    .street("Hauffgasse")
+                    .houseNumber(Integer.toString(i))
+                    .city("Wien")
+                    .fullAddressString("1110 Wien, Simmering, Hauffgasse " + i)
+                    .location(new GeographicPoint2d(48.1 + random.nextDouble() * 0.2, 16.2 + random.nextDouble() * 0.35))
+                    .nearbyStations(stations)
+                    .build();
+            listings.add(ListingEntity.builder()
+                    .id("listing-" + i)
+                    .title("3 Zimmer Wohnung " + i)
+                    .price(500 + random.nextDouble() * 2000)
+                    .livingArea(30 + random.nextDouble() * 90)
+                    .roomCount(1 + random.nextInt(4))
+                    .source("willhaben")
+                    .address(address)
+                    .build());
+            scores[i] = random.nextDouble() * 500;
+        }
+        Arrays.sort(scores);
+        ranked = new double[size];
+        for (int i = 0; i < size; i++) {
+            ranked[i] = scores[size - 1 - i];
+        }
+        work = new double[size];
+    }
+
+    @Benchmark
+    public List<RealEstateWithScoreDto> mapAndNormalize() {
+        System.arraycopy(ranked, 0, work, 0, size);
+        scoringPipeline.normalizeRanked(work);
+        List<RealEstateWithScoreDto> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(new RealEstateWithScoreDto(RealEstateServiceImpl.toDto(listings.get(i)), work[i]));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double[] normalizeBestKernel() {
+        System.arraycopy(ranked, 0, work, 0, size);
+        ScoreKernels.best().normalize(work, work[size - 1], work[0]);
+        return work;
+    }
+
+    @Benchmark
+    public double[] normalizeScalarKernel() {
+        System.arraycopy(ranked, 0, work, 0, size);
+        scalar.normalize(work, work[size - 1], work[0]);
+        return work;
+    }
+
+    @Benchmark
+    public double[] normalizeVectorKernel() {
+        System.arraycopy(ranked, 0, work, 0, size);
+        vector.normalize(work, work[size - 1], work[0]);
+        return work;
+    }
+}
@@ -0,0 +1,88 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.Element;
+import at.ac.tuwien.mogda.willgraph.controller.dto.OverpassResponse;
+import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
+import at.ac.tuwien.mogda.willgraph.entity.AmenityTypeEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding an Overpass response and mapping its elements to points of interest, as done per amenity fetch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverpassMappingBenchmark {
+
+    private static final String[] AMENITIES = {"cafe", "restaurant", "pharmacy", "supermarket", "library", "bar"};
+
+    @Param({"10000"})
+    private int elements;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OverpassAmenityMapper mapper = new OverpassAmenityMapper();
+    private byte[] json;
+    private OverpassResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<Element> nodes = new ArrayList<>(elements);
+        for (int i = 0; i < elements; i++) {
+            Map<String, String> tags = new HashMap<>();
+            tags.put("amenity", AMENITIES[random.nextInt(AMENITIES.length)]);
+            tags.put("name", "Place " + i);
+            if (random.nextBoolean()) {
+                tags.put("addr:street", "Hauffgasse");
+                tags.put("addr:housenumber", Integer.toString(random.nextInt(200)));
+                tags.put("addr:postcode", "1110");
+                tags.put("addr:city", "Wien");
+            }
+            nodes.add(new Element("node", 1_000_000L + i,
+                    48.1 + random.nextDouble() * 0.2, 16.2 + random.nextDouble() * 0.35, tags));
+        }
+        json = objectMapper.writeValueAsBytes(Map.of("version", 0.6, "elements", nodes));
+        response = objectMapper.readValue(json, OverpassResponse.class);
+    }
+
+    @Benchmark
+    public OverpassResponse decode() throws IOException {
+        return objectMapper.readValue(json, OverpassResponse.class);
+    }
+
+    @Benchmark
+    public void map(Blackhole blackhole) {
+        Map<String, AmenityTypeEntity> types = new HashMap<>();
+        for (Element element : response.elements()) {
+            if (!mapper.isNodeAmenity(element)) {
+                continue;
+            }
+            AmenityTypeEntity type = types.computeIfAbsent(mapper.amenityValue(element), mapper::toAmenityType);
+            AddressEntity address = mapper.toAddress(element);
+            blackhole.consume(mapper.toPoi(element, type, address));
+        }
+    }
+}
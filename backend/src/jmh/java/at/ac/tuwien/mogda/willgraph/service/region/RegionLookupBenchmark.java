@@ -0,0 +1,87 @@
+package at.ac.tuwien.mogda.willgraph.service.region;
+
+import at.ac.tuwien.mogda.willgraph.BenchmarkData;
+import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-polygon against the real Gemeinden outlines: the linear scan used by the importers and the
+ * region scheduler versus the STR-tree of prepared geometries in {@link RegionLocator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionLookupBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private List<RegionEntity> regions;
+    private RegionLocator locator;
+    private Point[] points;
+
+    @Setup
+    public void setUp() {
+        regions = BenchmarkData.gemeinden();
+        RegionRepository repository = (RegionRepository) Proxy.newProxyInstance(RegionRepository.class.getClassLoader(),
+                new Class<?>[]{RegionRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return regions;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        locator = new RegionLocator(repository);
+        locator.allRegions();
+
+        double[][] coordinates = BenchmarkData.austrianPoints(POINTS, 42);
+        points = new Point[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i] = geometryFactory.createPoint(new Coordinate(coordinates[i][1], coordinates[i][0]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void linearScan(Blackhole blackhole) {
+        for (Point point : points) {
+            RegionEntity match = null;
+            for (RegionEntity region : regions) {
+                if (region.getGeometry() != null && region.getGeometry().contains(point)) {
+                    match = region;
+                    break;
+                }
+            }
+            blackhole.consume(match);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void indexedLocator(Blackhole blackhole) {
+        for (Point point : points) {
+            blackhole.consume(locator.regionsContaining(point.getY(), point.getX()));
+        }
+    }
+}
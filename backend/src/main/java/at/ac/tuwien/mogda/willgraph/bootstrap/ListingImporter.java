@@ -3,10 +3,15 @@ package at.ac.tuwien.mogda.willgraph.bootstrap;
 import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
 import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
 import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import at.ac.tuwien.mogda.willgraph.metrics.StageEvent;
 import at.ac.tuwien.mogda.willgraph.repository.AddressRepository;
 import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
 import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
 import at.ac.tuwien.mogda.willgraph.service.ProximityLinkingService;
+import at.ac.tuwien.mogda.willgraph.service.RegionStatisticsService;
+import at.ac.tuwien.mogda.willgraph.service.SavedSearchService;
+import at.ac.tuwien.mogda.willgraph.service.TileService;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
@@ -34,10 +39,24 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @Slf4j
 public class ListingImporter implements CommandLineRunner {
+    private static final String PIPELINE = "listing-import";
+
+    // AllowDuplicateHeaderNames is required because your Willhaben CSV has 'url' twice
+    static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setTrim(true)
+            .setAllowDuplicateHeaderNames(true)
+            .build();
+
     private final ListingRepository listingRepository;
     private final AddressRepository addressRepository;
     private final RegionRepository regionRepository;
     private final ProximityLinkingService proximityLinkingService;
+    private final TileService tileService;
+    private final RegionStatisticsService regionStatisticsService;
+    private final SavedSearchService savedSearchService;
 
     private final Map<Long, AddressEntity> addressCache = new HashMap<>(); // Key: OSM_ID
     private List<RegionEntity> cachedRegions;
@@ -51,30 +70,30 @@ public class ListingImporter implements CommandLineRunner {
         }
 
         log.info("Starting Listing Import...");
+        StageEvent regionsStage = StageEvent.begin(PIPELINE, "load-regions");
         this.cachedRegions = regionRepository.findAll();
+        regionsStage.finish(cachedRegions.size());
         log.info("Loaded {} regions into memory for spatial mapping.", cachedRegions.size());
 
         importCsv("willhaben_output.csv", "willhaben");
         importCsv("immoscout_output.csv", "immoscout");
+        StageEvent statisticsStage = StageEvent.begin(PIPELINE, "region-statistics");
+        regionStatisticsService.flush();
+        statisticsStage.finish();
+        StageEvent alertsStage = StageEvent.begin(PIPELINE, "saved-search-matches");
+        savedSearchService.flush();
+        alertsStage.finish();
         log.info("Listing Import Finished.");
 
         proximityLinkingService.waitForDataAndLink();
     }
 
     private void importCsv(String filename, String source) {
+        StageEvent stage = StageEvent.begin(PIPELINE, "import-" + source);
+        int count = 0;
         try (Reader reader = new InputStreamReader(new ClassPathResource(filename).getInputStream(), StandardCharsets.UTF_8)) {
 
-            // AllowDuplicateHeaderNames is required because your Willhaben CSV has 'url' twice
-            CSVFormat format = CSVFormat.DEFAULT.builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setIgnoreHeaderCase(true)
-                    .setTrim(true)
-                    .setAllowDuplicateHeaderNames(true)
-                    .build();
-
-            try (CSVParser parser = new CSVParser(reader, format)) {
-                int count = 0;
+            try (CSVParser parser = new CSVParser(reader, CSV_FORMAT)) {
                 for (CSVRecord record : parser) {
                     processRow(record, source);
                     count++;
@@ -83,10 +102,44 @@ public class ListingImporter implements CommandLineRunner {
             }
         } catch (Exception e) {
             log.error("Failed to import {}", filename, e);
+        } finally {
+            stage.finish(count);
         }
     }
 
     private void processRow(CSVRecord record, String source) {
+        ListingRow row = parseRow(record, source);
+        if (row.lat() == null || row.lon() == null) {
+            log.warn("Skipping row without coordinates: {}", row.title());
+            return;
+        }
+
+        // --- 2. Resolve Address (Deduplication) ---
+        // We try to find the address in Cache -> Then DB -> Then Create New
+        AddressEntity address = resolveAddress(row.osmId(), row.lat(), row.lon(), row.location());
+
+        // --- 3. Create Listing ---
+        ListingEntity listing = ListingEntity.builder()
+                .externalUrl(row.externalUrl())
+                .title(row.title())
+                .price(row.price())
+                .livingArea(row.size())
+                .roomCount(row.rooms())
+                .source(source)
+                .timestampFound(row.timestampFound().toString())
+                .address(address)
+                .build();
+
+        ListingEntity saved = listingRepository.save(listing);
+        regionStatisticsService.listingAdded(listing);
+        savedSearchService.listingAdded(saved);
+        tileService.invalidatePoint(TileLayer.LISTING, row.lat(), row.lon());
+    }
+
+    /**
+     * Pure CSV-to-values step of the import, kept free of database access so it can be benchmarked
+     */
+    static ListingRow parseRow(CSVRecord record, String source) {
         // --- 1. Extract Common Data ---
         String externalUrl = record.get("url");
         String title = record.get("title");
@@ -102,28 +155,8 @@ public class ListingImporter implements CommandLineRunner {
         Double lon = parseDouble(record, "lon");
         String locationStr = record.get("location");
 
-        if (lat == null || lon == null) {
-            log.warn("Skipping row without coordinates: {}", title);
-            return;
-        }
-
-        // --- 2. Resolve Address (Deduplication) ---
-        // We try to find the address in Cache -> Then DB -> Then Create New
-        AddressEntity address = resolveAddress(osmId, lat, lon, locationStr);
-
-        // --- 3. Create Listing ---
-        ListingEntity listing = ListingEntity.builder()
-                .externalUrl(externalUrl)
-                .title(title)
-                .price(price)
-                .livingArea(size)
-                .roomCount(rooms)
-                .source(source)
-                .timestampFound(parseDate(record, source).toString())
-                .address(address)
-                .build();
-
-        listingRepository.save(listing);
+        return new ListingRow(externalUrl, title, price, size, rooms, osmId, lat, lon, locationStr,
+                parseDate(record, source));
     }
 
     private AddressEntity resolveAddress(Long osmId, Double lat, Double lon, String rawAddress) {
@@ -179,7 +212,7 @@ public class ListingImporter implements CommandLineRunner {
     }
 
     // --- Helper Parsers ---
-    private Double parseDouble(CSVRecord record, String col) {
+    private static Double parseDouble(CSVRecord record, String col) {
         try {
             String val = record.get(col);
             return (val == null || val.isBlank()) ? null : Double.parseDouble(val);
@@ -188,7 +221,7 @@ public class ListingImporter implements CommandLineRunner {
         }
     }
 
-    private Integer parseInteger(CSVRecord record, String col) {
+    private static Integer parseInteger(CSVRecord record, String col) {
         try {
             String val = record.get(col);
             // Handle "3" or "3 Zimmer" simply
@@ -199,7 +232,7 @@ public class ListingImporter implements CommandLineRunner {
         }
     }
 
-    private Long parseLong(CSVRecord record, String col) {
+    private static Long parseLong(CSVRecord record, String col) {
         try {
             String val = record.get(col);
             return (val == null || val.isBlank()) ? null : Long.parseLong(val.split("\\.")[0]); // Handle "123.0"
@@ -208,7 +241,7 @@ public class ListingImporter implements CommandLineRunner {
         }
     }
 
-    private LocalDateTime parseDate(CSVRecord record, String source) {
+    private static LocalDateTime parseDate(CSVRecord record, String source) {
         if ("immoscout".equals(source)) {
             try {
                 // Format: 2026-01-04 19:18:19.080029
@@ -222,4 +255,7 @@ public class ListingImporter implements CommandLineRunner {
         return LocalDateTime.now(); //TODO: if willhaben has timestamp
     }
 
+    record ListingRow(String externalUrl, String title, Double price, Double size, Integer rooms, Long osmId,
+                      Double lat, Double lon, String location, LocalDateTime timestampFound) {
+    }
 }
@@ -2,6 +2,9 @@ package at.ac.tuwien.mogda.willgraph.bootstrap;
 
 import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
 import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
+import at.ac.tuwien.mogda.willgraph.service.RegionService;
+import at.ac.tuwien.mogda.willgraph.service.region.RegionGeometrySimplifier;
+import at.ac.tuwien.mogda.willgraph.service.region.RegionLocator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -27,12 +30,16 @@ import java.util.List;
 public class RegionImporter implements CommandLineRunner {
     private final RegionRepository regionRepository;
     private final ObjectMapper objectMapper;
+    private final RegionGeometrySimplifier geometrySimplifier;
+    private final RegionService regionService;
+    private final RegionLocator regionLocator;
     private final GeometryFactory geometryFactory = new GeometryFactory();
 
     @Override
     public void run(String... args) throws Exception {
         if (regionRepository.count() > 0) {
             log.info("Regions already exist. Skipping import.");
+            backfillGeometryLevels();
             return;
         }
 
@@ -63,9 +70,25 @@ public class RegionImporter implements CommandLineRunner {
             }
         }
 
+        regionService.evictRegionJsonCache();
+        regionLocator.reload();
         log.info("Region import completed.");
     }
 
+    /**
+     * Regions imported before simplified geometry levels existed get them computed once
+     */
+    private void backfillGeometryLevels() {
+        List<RegionEntity> regions = regionRepository.findAllWithoutGeometryLevels();
+        if (regions.isEmpty()) {
+            return;
+        }
+        log.info("Computing simplified geometry levels for {} regions...", regions.size());
+        regions.forEach(geometrySimplifier::applyLevels);
+        regionRepository.saveAll(regions);
+        regionService.evictRegionJsonCache();
+    }
+
     private void processFeature(JsonNode feature) throws IOException {
         // 1. Extract Properties
         JsonNode properties = feature.get("properties");
@@ -105,6 +128,7 @@ public class RegionImporter implements CommandLineRunner {
                 .geometry(multiPolygon)
                 .center(new GeographicPoint2d(jtsCentroid.getY(), jtsCentroid.getX()))
                 .build();
+        geometrySimplifier.applyLevels(region);
 
         regionRepository.save(region);
     }
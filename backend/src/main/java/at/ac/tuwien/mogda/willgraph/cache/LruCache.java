@@ -0,0 +1,201 @@
+package at.ac.tuwien.mogda.willgraph.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small size-bounded LRU cache backed by an access-ordered {@link LinkedHashMap}, with an optional
+ * time-to-live after which entries count as misses. All operations are synchronized on the cache instance.
+ * Every invalidation bumps a version, so a value loaded while its key was invalidated is not cached.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long version;
+
+    public LruCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param ttl entries older than this are dropped on access; {@code null} keeps them until evicted
+     */
+    public LruCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > LruCache.this.maxSize;
+                if (evict) {
+                    evictions++;
+                }
+                return evict;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdAt() > ttlNanos) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    /**
+     * Returns the cached value or computes and caches it. The loader runs outside the lock,
+     * so concurrent misses for the same key may compute the value twice. A value whose load
+     * overlapped an invalidation is returned but not cached, it may predate the invalidated data.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        long loadVersion;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadVersion = version;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (version == loadVersion) {
+                    put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Like {@link #computeIfAbsent} for several keys, the missing ones are loaded with a single loader call.
+     * Keys the loader has no value for are absent from the result.
+     */
+    public Map<K, V> computeAllIfAbsent(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long loadVersion;
+        synchronized (this) {
+            for (K key : keys) {
+                V cached = get(key);
+                if (cached != null) {
+                    values.put(key, cached);
+                } else {
+                    missing.add(key);
+                }
+            }
+            loadVersion = version;
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+        Map<K, V> loaded = loader.apply(missing);
+        synchronized (this) {
+            boolean current = version == loadVersion;
+            loaded.forEach((key, value) -> {
+                if (value != null) {
+                    values.put(key, value);
+                    if (current) {
+                        put(key, value);
+                    }
+                }
+            });
+        }
+        return values;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Version to pass to {@link #putIfUnchanged} for values loaded outside {@link #computeIfAbsent}; read it before
+     * the lookup that missed
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Caches the value unless the cache was invalidated since {@code loadVersion} was read
+     */
+    public synchronized void putIfUnchanged(K key, V value, long loadVersion) {
+        if (version == loadVersion) {
+            put(key, value);
+        }
+    }
+
+    public synchronized V remove(K key) {
+        version++;
+        Entry<V> removed = entries.remove(key);
+        return removed == null ? null : removed.value();
+    }
+
+    public synchronized int removeIf(Predicate<? super K> predicate) {
+        version++;
+        List<K> matching = new ArrayList<>();
+        for (K key : entries.keySet()) {
+            if (predicate.test(key)) {
+                matching.add(key);
+            }
+        }
+        matching.forEach(entries::remove);
+        return matching.size();
+    }
+
+    public synchronized void clear() {
+        version++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized long expirations() {
+        return expirations;
+    }
+
+    private record Entry<V>(V value, long createdAt) {
+    }
+}
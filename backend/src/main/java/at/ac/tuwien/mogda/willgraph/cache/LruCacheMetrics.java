@@ -0,0 +1,38 @@
+package at.ac.tuwien.mogda.willgraph.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exposes the counters of an {@link LruCache} as {@code cache.*} meters tagged with the cache name,
+ * following the naming of Micrometer's own cache binders.
+ */
+public final class LruCacheMetrics {
+
+    private LruCacheMetrics() {
+    }
+
+    public static void bind(MeterRegistry registry, String name, LruCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, LruCache::hits)
+                .tag("cache", name).tag("result", "hit")
+                .description("Cache lookups that found a value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, LruCache::misses)
+                .tag("cache", name).tag("result", "miss")
+                .description("Cache lookups that had to load the value")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, LruCache::evictions)
+                .tag("cache", name)
+                .description("Entries dropped because the cache was full")
+                .register(registry);
+        FunctionCounter.builder("cache.expirations", cache, LruCache::expirations)
+                .tag("cache", name)
+                .description("Entries dropped because they outlived the time-to-live")
+                .register(registry);
+        Gauge.builder("cache.size", cache, LruCache::size)
+                .tag("cache", name)
+                .description("Number of cached entries")
+                .register(registry);
+    }
+}
@@ -0,0 +1,82 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for the admission control of expensive searches, see
+ * {@link at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl}
+ */
+@Component
+@ConfigurationProperties(prefix = "app.admission")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Cost units running at the same time over all clients
+     */
+    private Integer globalBudget = 16;
+
+    /**
+     * Cost units one client may have running or queued; a single request never costs more than this
+     */
+    private Integer perClientBudget = 8;
+
+    /**
+     * Requests waiting for budget, further ones are shed right away
+     */
+    private Integer queueSize = 32;
+
+    private Long queueTimeoutMs = 3000L;
+
+    private Integer retryAfterSeconds = 2;
+
+    /**
+     * Listings in the searched region that make up one cost unit
+     */
+    private Integer candidatesPerCostUnit = 1000;
+
+    /**
+     * Listings assumed for the searched region until the region statistics are loaded after startup
+     */
+    private Long defaultRegionListings = 5000L;
+
+    private Double poiCostWeight = 2.0;
+
+    private Double amenityCostWeight = 0.25;
+
+    private Integer transportPathCost = 2;
+
+    /**
+     * Origin-destination cells of a transport matrix that make up one cost unit
+     */
+    private Integer matrixCellsPerCostUnit = 10_000;
+
+    /**
+     * Neo4j transaction timeouts; the server terminates the query of an abandoned request
+     */
+    private Integer searchTimeoutSeconds = 30;
+
+    private Integer transportPathTimeoutSeconds = 10;
+
+    /**
+     * Header identifying the client, only honoured on requests from a trusted proxy
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Addresses or CIDR ranges of the reverse proxies whose client header and X-Forwarded-For are trusted;
+     * requests from anywhere else are identified by their remote address
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+}
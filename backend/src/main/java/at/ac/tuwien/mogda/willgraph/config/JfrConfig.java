@@ -0,0 +1,25 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the in-process Flight Recorder stream behind /actuator/stages
+ */
+@Component
+@ConfigurationProperties(prefix = "app.jfr")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrConfig {
+
+    private Boolean streamEnabled = true;
+
+    /**
+     * How long the stream keeps recorded chunks on disk
+     */
+    private Integer maxAgeMinutes = 5;
+}
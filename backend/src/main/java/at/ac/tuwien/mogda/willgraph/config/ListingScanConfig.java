@@ -0,0 +1,25 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the scan that matches listings written by the scrapers against the saved searches
+ */
+@Component
+@ConfigurationProperties(prefix = "app.listing-scan")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingScanConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Listings read, matched and flushed per transaction; the watermark advances after each batch
+     */
+    private Integer batchSize = 500;
+}
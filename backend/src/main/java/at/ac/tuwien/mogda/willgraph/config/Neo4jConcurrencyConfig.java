@@ -0,0 +1,30 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the semaphore in front of the Neo4j driver, see {@link Neo4jSessionLimiter}
+ */
+@Component
+@ConfigurationProperties(prefix = "app.neo4j-concurrency")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Neo4jConcurrencyConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Concurrently open sessions, 0 uses {@code spring.neo4j.pool.max-connection-pool-size}
+     */
+    private Integer permits = 0;
+
+    /**
+     * Waiting longer for a permit fails the call like an exhausted connection pool would
+     */
+    private Long acquireTimeoutMs = 60000L;
+}
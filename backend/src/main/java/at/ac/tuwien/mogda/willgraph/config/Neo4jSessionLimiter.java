@@ -0,0 +1,260 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.exceptions.ClientException;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.neo4j.Neo4jProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the number of concurrently open Neo4j sessions with a fair semaphore sized to the driver's connection
+ * pool. With virtual threads (spring.threads.virtual.enabled) the servlet container no longer limits
+ * concurrency, so a burst of expensive searches would otherwise exhaust the Bolt pool and starve cheap requests
+ * until the driver's acquisition timeout. Waiting callers queue in arrival order instead.
+ * <p>
+ * Every session opened through the driver bean takes a permit until it is closed, which covers SDN
+ * repositories, the Neo4jClient and transactions alike. A thread that already holds a session (e.g. inside
+ * {@code @Transactional}) opens nested ones without a second permit, so it cannot deadlock on itself.
+ * Async and reactive sessions (the ReactiveNeo4jClient) are not bound to a thread: each takes its own permit and
+ * returns it once the publisher or stage returned by its close method terminates. On non-blocking threads they
+ * do not wait for a permit but fail right away when none is free.
+ * The wait is recorded as {@code willgraph.neo4j.permit.wait}; available permits and queued callers are gauges.
+ */
+@Component
+@Slf4j
+public class Neo4jSessionLimiter implements BeanPostProcessor, SmartInitializingSingleton {
+
+    public static final String WAIT_TIMER = "willgraph.neo4j.permit.wait";
+
+    private static final Set<String> SESSION_FACTORIES = Set.of("session", "asyncSession", "rxSession", "reactiveSession");
+
+    private final ObjectProvider<Neo4jConcurrencyConfig> config;
+    private final ObjectProvider<Neo4jProperties> neo4jProperties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ThreadLocal<int[]> heldSessions = ThreadLocal.withInitial(() -> new int[1]);
+    private Semaphore permits;
+    private long acquireTimeoutMs;
+    private volatile Timer waitTimer;
+
+    public Neo4jSessionLimiter(ObjectProvider<Neo4jConcurrencyConfig> config,
+                               ObjectProvider<Neo4jProperties> neo4jProperties,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.config = config;
+        this.neo4jProperties = neo4jProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Driver driver) || !config.getObject().getEnabled()) {
+            return bean;
+        }
+        int size = config.getObject().getPermits();
+        if (size <= 0) {
+            Neo4jProperties properties = neo4jProperties.getIfAvailable();
+            size = properties != null ? properties.getPool().getMaxConnectionPoolSize() : 100;
+        }
+        permits = new Semaphore(size, true);
+        acquireTimeoutMs = config.getObject().getAcquireTimeoutMs();
+        log.info("Limiting Neo4j to {} concurrent sessions", size);
+        return Proxy.newProxyInstance(Driver.class.getClassLoader(), new Class<?>[]{Driver.class},
+                (proxy, method, args) -> {
+                    // All session(...) overloads, including session(Class, SessionConfig), and the
+                    // asyncSession, rxSession and reactiveSession shortcuts
+                    if (!SESSION_FACTORIES.contains(method.getName())) {
+                        return invoke(driver, method, args);
+                    }
+                    if (!isBlocking(method, args)) {
+                        acquireUnbound();
+                        try {
+                            return limitedUntilClosed(invoke(driver, method, args));
+                        } catch (Throwable e) {
+                            permits.release();
+                            throw e;
+                        }
+                    }
+                    boolean acquired = acquire();
+                    try {
+                        Object session = invoke(driver, method, args);
+                        if (session instanceof Session s) {
+                            return limited(s, acquired);
+                        }
+                        release(acquired);
+                        return session;
+                    } catch (Throwable e) {
+                        release(acquired);
+                        throw e;
+                    }
+                });
+    }
+
+    private static boolean isBlocking(Method method, Object[] args) {
+        if (!method.getName().equals("session")) {
+            return false;
+        }
+        return args == null || args.length == 0 || !(args[0] instanceof Class<?> type) || type == Session.class;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (permits == null || registry == null) {
+            return;
+        }
+        Gauge.builder("willgraph.neo4j.permits.available", permits, Semaphore::availablePermits)
+                .description("Neo4j session permits not in use")
+                .register(registry);
+        Gauge.builder("willgraph.neo4j.permits.queued", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a Neo4j session permit")
+                .register(registry);
+        waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Time spent waiting for a Neo4j session permit")
+                .register(registry);
+    }
+
+    /**
+     * @return whether a permit was taken, false for sessions nested in one the thread already holds
+     */
+    private boolean acquire() throws InterruptedException {
+        int[] held = heldSessions.get();
+        if (held[0]++ > 0) {
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            if (!acquired) {
+                held[0]--;
+            }
+        }
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new ClientException("Unable to acquire a Neo4j session permit within " + acquireTimeoutMs + " ms ("
+                    + permits.getQueueLength() + " callers waiting)");
+        }
+        return true;
+    }
+
+    /**
+     * Takes a permit for an async or reactive session, which is not counted against the opening thread
+     */
+    private void acquireUnbound() throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = Schedulers.isInNonBlockingThread()
+                ? permits.tryAcquire()
+                : permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new ClientException("Unable to acquire a Neo4j session permit for an async or reactive session ("
+                    + permits.getQueueLength() + " callers waiting)");
+        }
+    }
+
+    private void release(boolean acquired) {
+        int[] held = heldSessions.get();
+        if (held[0] > 0) {
+            held[0]--;
+        }
+        if (acquired) {
+            permits.release();
+        }
+    }
+
+    private Session limited(Session session, boolean acquired) {
+        AtomicBoolean closed = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                try {
+                    return invoke(session, method, args);
+                } finally {
+                    if (closed.compareAndSet(false, true)) {
+                        release(acquired);
+                    }
+                }
+            }
+            return invoke(session, method, args);
+        };
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class}, handler);
+    }
+
+    /**
+     * Proxies an async or reactive session so its permit is released when closing it has finished, i.e. when the
+     * publisher of {@code close()} or the stage of {@code closeAsync()} terminates
+     */
+    private Object limitedUntilClosed(Object session) {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getParameterCount() != 0
+                    || !(method.getName().equals("close") || method.getName().equals("closeAsync"))) {
+                return invoke(session, method, args);
+            }
+            Object closing;
+            try {
+                closing = invoke(session, method, args);
+            } catch (Throwable e) {
+                release.run();
+                throw e;
+            }
+            return switch (closing) {
+                case CompletionStage<?> stage -> stage.whenComplete((ignored, error) -> release.run());
+                case Publisher<?> publisher -> Flux.from(publisher).doFinally(signal -> release.run());
+                case Flow.Publisher<?> publisher -> JdkFlowAdapter.publisherToFlowPublisher(
+                        JdkFlowAdapter.flowPublisherToFlux(publisher).doFinally(signal -> release.run()));
+                case null, default -> {
+                    release.run();
+                    yield closing;
+                }
+            };
+        };
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesAsSet(session).stream()
+                .filter(type -> Modifier.isPublic(type.getModifiers()))
+                .filter(type -> type.getName().startsWith("org.neo4j.driver.") && !type.getName().contains(".internal."))
+                .toArray(Class<?>[]::new);
+        return Proxy.newProxyInstance(Driver.class.getClassLoader(), interfaces, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
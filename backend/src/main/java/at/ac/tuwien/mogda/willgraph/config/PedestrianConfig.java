@@ -0,0 +1,39 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the pedestrian network used for walking distances
+ */
+@Component
+@ConfigurationProperties(prefix = "app.pedestrian")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedestrianConfig {
+
+    /**
+     * OSM XML extract with the footways, empty disables network walking distances
+     */
+    private String osmFile = "";
+
+    /**
+     * Where the preprocessed contraction hierarchy is stored and reloaded from
+     */
+    private String hierarchyFile = "data/pedestrian.ch";
+
+    /**
+     * Points further away from the network fall back to straight-line distances
+     */
+    private Double snapRadius = 250.0;
+
+    /**
+     * Walking distance queries running at the same time, each holds two arrays over the whole network;
+     * 0 means one per available processor
+     */
+    private Integer routerWorkspaces = 0;
+}
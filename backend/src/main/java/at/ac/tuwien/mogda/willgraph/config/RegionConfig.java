@@ -0,0 +1,23 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for region responses
+ */
+@Component
+@ConfigurationProperties(prefix = "app.regions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegionConfig {
+
+    /**
+     * Maximum number of pre-serialized region JSON documents (one per region and detail level)
+     */
+    private Integer jsonCacheSize = 4096;
+}
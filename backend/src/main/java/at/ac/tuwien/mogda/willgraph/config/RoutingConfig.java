@@ -0,0 +1,68 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.CommuteCriteria;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the in-memory routing features (isochrones, transit matrices)
+ */
+@Component
+@ConfigurationProperties(prefix = "app.routing")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingConfig {
+
+    private Integer matrixMaxOrigins = 200;
+    private Integer matrixMaxDestinations = 500;
+
+    /**
+     * Worker threads for matrix origins, 0 means one per available processor
+     */
+    private Integer matrixThreads = 0;
+
+    /**
+     * Upper bound for origins times destinations of a distance matrix request
+     */
+    private Integer distanceMatrixMaxCells = 250_000;
+
+    /**
+     * Stops with the same name closer than this are consolidated into one station hub
+     */
+    private Double hubRadius = 250.0;
+
+    /**
+     * Fixed part of the time to change platforms within a hub, the walk across the hub is added on top
+     */
+    private Double hubTransferBaseMinutes = 1.0;
+
+    /**
+     * Upper bound for walking radii of routing requests; the station lookup scans a grid that grows with its square
+     */
+    private Double maxWalkDistance = 3000.0;
+
+    /**
+     * Upper bound for the travel time of isochrones and commute filters; larger budgets reach the whole network
+     */
+    private Double maxCommuteMinutes = 120.0;
+
+    private Integer pathCacheSize = 10_000;
+    private Long pathCacheTtlMinutes = 60L;
+
+    /**
+     * Whether a commute filter of a search stays within the limits above; unset values are fine
+     */
+    public boolean accepts(CommuteCriteria commute) {
+        if (commute == null) {
+            return true;
+        }
+        Double minutes = commute.getMaxMinutes();
+        Double walk = commute.getMaxWalkDistance();
+        return (minutes == null || (minutes > 0 && minutes <= maxCommuteMinutes))
+                && (walk == null || (walk >= 0 && walk <= maxWalkDistance));
+    }
+}
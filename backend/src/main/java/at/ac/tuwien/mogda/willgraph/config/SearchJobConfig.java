@@ -0,0 +1,46 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for asynchronous search jobs under /api/search-jobs
+ */
+@Component
+@ConfigurationProperties(prefix = "app.search-jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchJobConfig {
+
+    private Integer workers = 2;
+
+    /**
+     * Queued jobs; further submissions are rejected with 429
+     */
+    private Integer queueCapacity = 256;
+
+    /**
+     * Jobs one admission client may have queued or running, so a single client cannot fill the queue
+     */
+    private Integer perClientPending = 16;
+
+    /**
+     * Finished jobs and their results are kept this long
+     */
+    private Integer resultTtlMinutes = 15;
+
+    /**
+     * Neo4j transaction timeout of a job, far above the one of synchronous searches
+     */
+    private Integer timeoutSeconds = 600;
+
+    /**
+     * POST /api/estate/search with {@code Prefer: respond-async} answers 202 with a job above this estimated
+     * admission cost, 0 never does
+     */
+    private Integer syncCostThreshold = 32;
+}
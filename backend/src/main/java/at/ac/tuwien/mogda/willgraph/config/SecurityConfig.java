@@ -2,6 +2,7 @@ package at.ac.tuwien.mogda.willgraph.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
@@ -23,8 +24,12 @@ public class SecurityConfig {
                 .requestMatchers("/api/**").permitAll()
                 .requestMatchers("/pois/**").permitAll()
                 .requestMatchers("/amenities/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
-                .anyRequest().authenticated());
+                .requestMatchers("/tiles/**").permitAll()
+                .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                // Metrics, slow queries (with Cypher and parameters) and stage totals are operator-only
+                .requestMatchers("/actuator/**").hasRole("ACTUATOR")
+                .anyRequest().authenticated())
+            .httpBasic(Customizer.withDefaults());
         return http.build();
     }
 
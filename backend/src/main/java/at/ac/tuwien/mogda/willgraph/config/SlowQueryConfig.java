@@ -0,0 +1,32 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the slow repository query log exposed under /actuator/slowqueries
+ */
+@Component
+@ConfigurationProperties(prefix = "app.slow-query")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQueryConfig {
+
+    private Long thresholdMs = 500L;
+
+    /**
+     * Size of the ring buffer, older entries are overwritten
+     */
+    private Integer capacity = 256;
+
+    /**
+     * Re-run read-only slow queries with PROFILE in the background and attach the db-hits summary
+     */
+    private Boolean profile = false;
+
+    private Integer maxParameterLength = 200;
+}
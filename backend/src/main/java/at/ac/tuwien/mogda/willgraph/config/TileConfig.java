@@ -0,0 +1,40 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the Mapbox Vector Tile endpoint
+ */
+@Component
+@ConfigurationProperties(prefix = "app.tiles")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TileConfig {
+
+    /**
+     * Maximum number of encoded tiles kept in the LRU cache
+     */
+    private Integer cacheSize = 4096;
+
+    /**
+     * Tile coordinate extent (4096 is the MVT default)
+     */
+    private Integer extent = 4096;
+
+    /**
+     * Extra pixels around each tile so symbols at tile borders are not clipped
+     */
+    private Integer buffer = 64;
+
+    /**
+     * Below this zoom level empty tiles are served instead of scanning whole countries
+     */
+    private Integer minZoom = 10;
+
+    private Integer maxZoom = 20;
+}
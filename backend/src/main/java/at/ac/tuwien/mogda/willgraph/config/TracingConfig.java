@@ -0,0 +1,22 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span export besides OTLP ({@code management.otlp.tracing.endpoint}). With {@code app.tracing.file-exporter}
+ * enabled every finished span is written as OTLP JSON to {@code logs/spans.jsonl} (see logback-spring.xml),
+ * which can be replayed into a collector or inspected without one.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing", name = "file-exporter", havingValue = "true")
+    public SpanExporter fileSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,38 @@
+package at.ac.tuwien.mogda.willgraph.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for recording API requests to logs/traffic.jsonl, replayed with ./gradlew replayTraffic
+ */
+@Component
+@ConfigurationProperties(prefix = "app.traffic-capture")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrafficCaptureConfig {
+
+    private Boolean enabled = false;
+
+    /**
+     * Handler patterns to record, as matched by Spring MVC (e.g. {@code /api/estate/{id}})
+     */
+    private List<String> endpoints = new ArrayList<>(List.of(
+            "/api/estate/search",
+            "/api/poi/nearby",
+            "/api/transport/nearby",
+            "/amenities/nearby",
+            "/api/poi/transport-path"));
+
+    /**
+     * Longer request bodies are not recorded, the request is still listed with its timing
+     */
+    private Integer maxBodyBytes = 65536;
+}
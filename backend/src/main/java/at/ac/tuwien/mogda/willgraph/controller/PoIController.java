@@ -1,14 +1,26 @@
 package at.ac.tuwien.mogda.willgraph.controller;
 
 import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.CoordinateDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.DistanceMatrixDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.DistanceMatrixRequestDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.PointToPointDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixRequestDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.WalkingDistanceDto;
 import at.ac.tuwien.mogda.willgraph.entity.PointOfInterestEntity;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
 import at.ac.tuwien.mogda.willgraph.service.PoIService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,7 +29,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -25,9 +40,15 @@ import java.util.List;
 @Slf4j
 public class PoIController {
     private final PoIService poiService;
+    private final RoutingConfig routingConfig;
+    private final ObjectMapper objectMapper;
+    private final AdmissionControl admissionControl;
 
-    public PoIController(PoIService poiService) {
+    public PoIController(PoIService poiService, RoutingConfig routingConfig, ObjectMapper objectMapper, AdmissionControl admissionControl) {
         this.poiService = poiService;
+        this.routingConfig = routingConfig;
+        this.objectMapper = objectMapper;
+        this.admissionControl = admissionControl;
     }
 
     @GetMapping
@@ -63,18 +84,95 @@ public class PoIController {
         return poiService.calculateDistanceBetweenPoints(fromLatitude, fromLongitude, toLatitude, toLongitude);
     }
 
+    @PostMapping("/distance-matrix")
+    public ResponseEntity<DistanceMatrixDto> calculateDistanceMatrix(@RequestBody DistanceMatrixRequestDto request) {
+        if (request.getFromLat() == null || request.getFromLon() == null
+            || request.getFromLat().length != request.getFromLon().length
+            || (request.getToLat() == null) != (request.getToLon() == null)
+            || (request.getToLat() != null && request.getToLat().length != request.getToLon().length)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        long columns = request.getToLat() == null ? request.getFromLat().length : request.getToLat().length;
+        log.info("POST /api/poi/distance-matrix rows={} columns={}", request.getFromLat().length, columns);
+        if (request.getFromLat().length * columns > routingConfig.getDistanceMatrixMaxCells()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(poiService.calculateDistanceMatrix(request));
+    }
+
     @GetMapping("/transport-path")
     public ResponseEntity<TransportPathDto> getTransportPath(
         @RequestParam("fromLat") Double fromLat,
         @RequestParam("fromLon") Double fromLon,
         @RequestParam("toLat") Double toLat,
         @RequestParam("toLon") Double toLon,
-        @RequestParam(value = "maxWalkDistance", required = false, defaultValue = "1000.0") double maxWalkDistance) {
+        @RequestParam(value = "maxWalkDistance", required = false, defaultValue = "1000.0") double maxWalkDistance,
+        HttpServletRequest request) {
+        if (maxWalkDistance < 0 || maxWalkDistance > routingConfig.getMaxWalkDistance()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
         try {
-            return ResponseEntity.status(HttpStatus.OK).body(poiService.calculateTransportPath(fromLat, fromLon, toLat, toLon, maxWalkDistance));
+            return ResponseEntity.status(HttpStatus.OK).body(poiService.calculateTransportPath(fromLat, fromLon, toLat, toLon,
+                maxWalkDistance, admissionControl.clientId(request)));
         } catch (NotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        }
+    }
+
+    /**
+     * Streams the matrix row by row so large requests do not have to be buffered in memory
+     */
+    @PostMapping("/transport-matrix")
+    public ResponseEntity<StreamingResponseBody> getTransportMatrix(@RequestBody TransportMatrixRequestDto request,
+                                                                    HttpServletRequest servletRequest) {
+        log.info("POST /api/poi/transport-matrix origins={} destinations={}",
+            request.getOrigins() == null ? 0 : request.getOrigins().size(),
+            request.getDestinations() == null ? 0 : request.getDestinations().size());
+        if (!isValid(request.getOrigins(), routingConfig.getMatrixMaxOrigins())
+            || !isValid(request.getDestinations(), routingConfig.getMatrixMaxDestinations())
+            || request.getMaxWalkDistance() == null || request.getMaxWalkDistance() < 0
+            || request.getMaxWalkDistance() > routingConfig.getMaxWalkDistance()
+            || request.getMaxMinutes() == null || request.getMaxMinutes() <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        AdmissionControl.Permit permit;
+        try {
+            permit = admissionControl.acquire(admissionControl.clientId(servletRequest),
+                admissionControl.transportMatrixCost(request.getOrigins().size(), request.getDestinations().size()));
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
         }
+
+        // The rows are computed while streaming, so the permit is held until the body is written
+        StreamingResponseBody body = out -> {
+            try (permit; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeNumberField("origins", request.getOrigins().size());
+                generator.writeNumberField("destinations", request.getDestinations().size());
+                generator.writeArrayFieldStart("rows");
+                poiService.calculateTransportMatrix(request, row -> {
+                    try {
+                        generator.writeObject(row);
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
+    private boolean isValid(List<CoordinateDto> coordinates, int maxSize) {
+        return coordinates != null && !coordinates.isEmpty() && coordinates.size() <= maxSize
+            && coordinates.stream().allMatch(c -> c != null && c.getLat() != null && c.getLng() != null);
+    }
 }
@@ -0,0 +1,112 @@
+package at.ac.tuwien.mogda.willgraph.controller;
+
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.AmenityOverviewDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateWithScoreDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.service.ReactiveSearchService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Reactive variants of the search, nearby and transport-path endpoints under /api/reactive, with the same
+ * parameters and response bodies as the blocking ones. The request thread is released while Neo4j works; with
+ * {@code Accept: application/x-ndjson} the nearby lists are streamed one element per line, pulled from Bolt as
+ * the client reads them, and a disconnecting client cancels the query.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveSearchController {
+
+    private final ReactiveSearchService reactiveSearchService;
+    private final AdmissionControl admissionControl;
+    private final RoutingConfig routingConfig;
+
+    @PostMapping("/estate/search")
+    public Mono<ResponseEntity<List<RealEstateWithScoreDto>>> searchWithFilters(@RequestBody ListingSearchFilterDto request, HttpServletRequest servletRequest) {
+        log.info("POST /api/reactive/estate/search");
+        String client = admissionControl.clientId(servletRequest);
+        return admitted(client, admissionControl.searchCost(request), reactiveSearchService.searchWithFilters(request).collectList())
+                .map(ResponseEntity::ok)
+                .onErrorResume(NotFoundException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()))
+                .onErrorResume(AdmissionRejectedException.class, ReactiveSearchController::tooManyRequests);
+    }
+
+    @GetMapping(value = "/poi/nearby", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PoIDistanceDto> findPoIsNearby(@RequestParam double lat, @RequestParam double lng, @RequestParam(defaultValue = "1000.0") double radius) {
+        log.info("GET /api/reactive/poi/nearby lat={} lng={} radius={}", lat, lng, radius);
+        return reactiveSearchService.findPoIsNearby(lat, lng, radius);
+    }
+
+    @GetMapping(value = "/transport/nearby", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StationDistanceDto> findTransportStationsNearby(@RequestParam double lat, @RequestParam double lng, @RequestParam(defaultValue = "1000.0") double radius) {
+        log.info("GET /api/reactive/transport/nearby lat={} lng={} radius={}", lat, lng, radius);
+        return reactiveSearchService.findStationsNearby(lat, lng, radius);
+    }
+
+    @GetMapping(value = "/amenities/nearby", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AmenityOverviewDto> findAmenityOverview(@RequestParam double lat, @RequestParam double lng, @RequestParam(defaultValue = "1000.0") double radius) {
+        log.info("GET /api/reactive/amenities/nearby lat={} lng={} radius={}", lat, lng, radius);
+        return reactiveSearchService.findAmenityOverview(lat, lng, radius);
+    }
+
+    @GetMapping("/poi/transport-path")
+    public Mono<ResponseEntity<TransportPathDto>> getTransportPath(
+            @RequestParam("fromLat") Double fromLat,
+            @RequestParam("fromLon") Double fromLon,
+            @RequestParam("toLat") Double toLat,
+            @RequestParam("toLon") Double toLon,
+            @RequestParam(value = "maxWalkDistance", required = false, defaultValue = "1000.0") double maxWalkDistance,
+            HttpServletRequest request) {
+        if (maxWalkDistance < 0 || maxWalkDistance > routingConfig.getMaxWalkDistance()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        String client = admissionControl.clientId(request);
+        return admitted(client, admissionControl.transportPathCost(),
+                reactiveSearchService.findTransportPath(fromLat, fromLon, toLat, toLon, maxWalkDistance))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build())
+                .onErrorResume(AdmissionRejectedException.class, ReactiveSearchController::tooManyRequests);
+    }
+
+    /**
+     * Subscribes to the query once admitted and returns the budget when it completes, fails or is cancelled.
+     * Waiting in the admission queue blocks, so it happens on a bounded elastic thread.
+     */
+    private <T> Mono<T> admitted(String client, int cost, Mono<T> query) {
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> admissionControl.acquire(client, cost)).subscribeOn(Schedulers.boundedElastic()),
+                permit -> query,
+                permit -> Mono.fromRunnable(permit::close));
+    }
+
+    private static <T> Mono<ResponseEntity<T>> tooManyRequests(AdmissionRejectedException e) {
+        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build());
+    }
+}
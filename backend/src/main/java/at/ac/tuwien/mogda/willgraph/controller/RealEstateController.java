@@ -1,14 +1,28 @@
 package at.ac.tuwien.mogda.willgraph.controller;
 
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.config.SearchJobConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.AnytimeSearchResultDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateWithScoreDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchJobDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchProgressDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.service.ReactiveSearchService;
 import at.ac.tuwien.mogda.willgraph.service.RealEstateService;
+import at.ac.tuwien.mogda.willgraph.service.SearchJobService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobPriority;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,19 +31,43 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/estate")
-@CrossOrigin(origins = "*", allowedHeaders = "*")
+@CrossOrigin(origins = "*", allowedHeaders = "*",
+        exposedHeaders = {HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER, RealEstateController.PREFERENCE_APPLIED})
 @Slf4j
 public class RealEstateController {
 
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
     private final RealEstateService realEstateService;
+    private final ReactiveSearchService reactiveSearchService;
+    private final AdmissionControl admissionControl;
+    private final SearchJobService searchJobService;
+    private final SearchJobConfig searchJobConfig;
+    private final RoutingConfig routingConfig;
 
-    public RealEstateController(RealEstateService realEstateService) {
+    public RealEstateController(RealEstateService realEstateService, ReactiveSearchService reactiveSearchService,
+                                AdmissionControl admissionControl, SearchJobService searchJobService,
+                                SearchJobConfig searchJobConfig, RoutingConfig routingConfig) {
         this.realEstateService = realEstateService;
+        this.reactiveSearchService = reactiveSearchService;
+        this.admissionControl = admissionControl;
+        this.searchJobService = searchJobService;
+        this.searchJobConfig = searchJobConfig;
+        this.routingConfig = routingConfig;
     }
 
     @GetMapping("/{id}")
@@ -61,13 +99,91 @@ public class RealEstateController {
 
     //TODO: Check which URI to use
     @PostMapping("/search")
-    public ResponseEntity<List<RealEstateWithScoreDto>> searchWithFilters(@RequestBody ListingSearchFilterDto request) {
+    public ResponseEntity<List<RealEstateWithScoreDto>> searchWithFilters(@RequestBody ListingSearchFilterDto request, HttpServletRequest servletRequest) {
         log.info("POST /api/estate/search");
         log.info("Search body = {}", request);
+        if (!routingConfig.accepts(request.getCommute())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        String client = admissionControl.clientId(servletRequest);
+        int cost = admissionControl.searchCost(request);
         try {
-            return ResponseEntity.status(HttpStatus.OK).body(realEstateService.searchWithFilters(request));
+            // Too expensive to answer within an HTTP timeout; only clients that asked for it get the job to follow
+            if (prefersAsync(servletRequest) && searchJobConfig.getSyncCostThreshold() > 0
+                    && cost > searchJobConfig.getSyncCostThreshold()) {
+                SearchJobDto job = searchJobService.submit(request, SearchJobPriority.INTERACTIVE, client);
+                return ResponseEntity.accepted()
+                        .location(SearchJobController.location(job))
+                        .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                        .build();
+            }
+            try (AdmissionControl.Permit _ = admissionControl.acquire(client, cost)) {
+                return ResponseEntity.status(HttpStatus.OK).body(realEstateService.searchWithFilters(request));
+            }
         } catch (NotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        }
+    }
+
+    /**
+     * The search as Server-Sent Events: {@code preliminary} with the amenity ranking, {@code refined} after each
+     * batch of POI scores and {@code final} with the normalized results of /search. An unknown region ends the
+     * stream with a {@code not-found} event, a request over the admission budget with a {@code rejected} event
+     * whose retry field carries the Retry-After delay.
+     */
+    @PostMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<SearchProgressDto>>> streamSearch(@RequestBody ListingSearchFilterDto request, HttpServletRequest servletRequest) {
+        log.info("POST /api/estate/search/stream");
+        if (!routingConfig.accepts(request.getCommute())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        String client = admissionControl.clientId(servletRequest);
+        int cost = admissionControl.searchCost(request);
+        // The permit is taken on subscription and returned when the stream terminates or is cancelled
+        Flux<ServerSentEvent<SearchProgressDto>> events = Flux.usingWhen(
+                        Mono.fromCallable(() -> admissionControl.acquire(client, cost)).subscribeOn(Schedulers.boundedElastic()),
+                        permit -> reactiveSearchService.searchProgressively(request)
+                                .map(progress -> ServerSentEvent.builder(progress).event(progress.getStage()).build()),
+                        permit -> Mono.fromRunnable(permit::close))
+                .onErrorResume(NotFoundException.class, e -> Flux.just(ServerSentEvent.<SearchProgressDto>builder()
+                        .event("not-found")
+                        .comment(e.getMessage())
+                        .build()))
+                .onErrorResume(AdmissionRejectedException.class, e -> Flux.just(ServerSentEvent.<SearchProgressDto>builder()
+                        .event("rejected")
+                        .retry(Duration.ofSeconds(e.getRetryAfterSeconds()))
+                        .comment(e.getMessage())
+                        .build()));
+        return ResponseEntity.status(HttpStatus.OK).body(events);
+    }
+
+    /**
+     * Best ranking found within {@code deadlineMs}; see {@link AnytimeSearchResultDto} for how complete it is
+     */
+    @PostMapping("/search/anytime")
+    public ResponseEntity<AnytimeSearchResultDto> searchAnytime(@RequestBody ListingSearchFilterDto request,
+                                                                @RequestParam(defaultValue = "300") long deadlineMs,
+                                                                HttpServletRequest servletRequest) {
+        log.info("POST /api/estate/search/anytime deadlineMs={}", deadlineMs);
+        if (deadlineMs < 0 || !routingConfig.accepts(request.getCommute())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try (AdmissionControl.Permit _ = admissionControl.acquire(admissionControl.clientId(servletRequest), admissionControl.searchCost(request))) {
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(reactiveSearchService.searchAnytime(request, Duration.ofMillis(deadlineMs)).block());
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof NotFoundException) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            throw e;
         }
     }
 
@@ -80,4 +196,14 @@ public class RealEstateController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * RFC 7240: {@code Prefer: respond-async}, possibly among other preferences or in several headers
+     */
+    private static boolean prefersAsync(HttpServletRequest request) {
+        return Collections.list(request.getHeaders(PREFER)).stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(preference -> preference.split(";", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
 }
@@ -1,11 +1,14 @@
 package at.ac.tuwien.mogda.willgraph.controller;
 
-import at.ac.tuwien.mogda.willgraph.controller.dto.RegionDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RegionStatisticsDto;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
 import at.ac.tuwien.mogda.willgraph.service.RegionService;
+import at.ac.tuwien.mogda.willgraph.service.RegionStatisticsService;
+import at.ac.tuwien.mogda.willgraph.service.region.GeometryDetail;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,20 +20,50 @@ import java.util.List;
 @Slf4j
 public class RegionController {
     private final RegionService regionService;
+    private final RegionStatisticsService regionStatisticsService;
 
+    /**
+     * Region geometries are returned at the detail matching {@code zoom} (web map zoom level)
+     * or {@code tolerance} (degrees). Without either parameter the full outline is returned.
+     */
     @GetMapping
-    public ResponseEntity<List<RegionDto>> getRegions(@RequestParam(required = false) String q,
-                                                      @RequestParam(defaultValue = "10") Integer limit) {
-        log.info("GET /regions query={} limit={}", q, limit);
-        return ResponseEntity.status(HttpStatus.OK).body(regionService.searchRegions(q, limit));
+    public ResponseEntity<byte[]> getRegions(@RequestParam(required = false) String q,
+                                             @RequestParam(defaultValue = "10") Integer limit,
+                                             @RequestParam(required = false) Integer zoom,
+                                             @RequestParam(required = false) Double tolerance) {
+        log.info("GET /regions query={} limit={} zoom={} tolerance={}", q, limit, zoom, tolerance);
+        GeometryDetail detail = GeometryDetail.resolve(zoom, tolerance);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(regionService.searchRegionsJson(q, limit, detail));
     }
 
 
     @GetMapping("/{iso}")
-    public ResponseEntity<RegionDto> getRegionById(@PathVariable String iso) {
-        log.info("GET /regions/{}", iso);
+    public ResponseEntity<byte[]> getRegionById(@PathVariable String iso,
+                                                @RequestParam(required = false) Integer zoom,
+                                                @RequestParam(required = false) Double tolerance) {
+        log.info("GET /regions/{} zoom={} tolerance={}", iso, zoom, tolerance);
         try {
-            return ResponseEntity.status(HttpStatus.OK).body(regionService.getRegionById(iso));
+            return ResponseEntity.status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(regionService.getRegionJsonById(iso, GeometryDetail.resolve(zoom, tolerance)));
+        } catch (NotFoundException _) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<RegionStatisticsDto>> getAllStatistics() {
+        log.info("GET /regions/stats");
+        return ResponseEntity.status(HttpStatus.OK).body(regionStatisticsService.getAllStatistics());
+    }
+
+    @GetMapping("/{iso}/stats")
+    public ResponseEntity<RegionStatisticsDto> getStatistics(@PathVariable String iso) {
+        log.info("GET /regions/{}/stats", iso);
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(regionStatisticsService.getStatistics(iso));
         } catch (NotFoundException _) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,94 @@
+package at.ac.tuwien.mogda.willgraph.controller;
+
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SavedSearchDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SavedSearchMatchDto;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.service.SavedSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Saved searches and the new listings matching them. Matches are recorded during imports and can be polled
+ * under /{id}/matches or pushed as Server-Sent Events from /{id}/alerts.
+ */
+@RestController
+@RequestMapping("/api/saved-searches")
+@RequiredArgsConstructor
+@Slf4j
+public class SavedSearchController {
+    private final SavedSearchService savedSearchService;
+    private final RoutingConfig routingConfig;
+
+    @PostMapping
+    public ResponseEntity<SavedSearchDto> create(@RequestBody SavedSearchDto request) {
+        log.info("POST /api/saved-searches owner={}", request.getOwner());
+        if (request.getFilter() != null && !routingConfig.accepts(request.getFilter().getCommute())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedSearchService.create(request));
+        } catch (NotFoundException _) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SavedSearchDto>> findByOwner(@RequestParam String owner) {
+        log.info("GET /api/saved-searches?owner={}", owner);
+        return ResponseEntity.status(HttpStatus.OK).body(savedSearchService.findByOwner(owner));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        log.info("DELETE /api/saved-searches/{}", id);
+        try {
+            savedSearchService.delete(id);
+            return ResponseEntity.noContent().build();
+        } catch (NotFoundException _) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * {@code since} is an ISO timestamp, e.g. the {@code matchedAt} of the last alert seen
+     */
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<List<RealEstateDto>> findMatches(@PathVariable String id,
+                                                           @RequestParam(required = false) String since,
+                                                           @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /api/saved-searches/{}/matches since={}", id, since);
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(savedSearchService.findMatches(id, since, limit));
+        } catch (NotFoundException _) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping(value = "/{id}/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<SavedSearchMatchDto>>> streamAlerts(@PathVariable String id) {
+        log.info("GET /api/saved-searches/{}/alerts", id);
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(savedSearchService.streamMatches(id)
+                    .map(match -> ServerSentEvent.builder(match).event("match").build()));
+        } catch (NotFoundException _) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package at.ac.tuwien.mogda.willgraph.controller;
+
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchJobDto;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.service.SearchJobService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobPriority;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+/**
+ * Asynchronous listing searches: POST returns 202 with the job, whose Location is polled until it is DONE
+ */
+@RestController
+@RequestMapping("/api/search-jobs")
+@CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = {HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER})
+@RequiredArgsConstructor
+@Slf4j
+public class SearchJobController {
+    private final SearchJobService searchJobService;
+    private final AdmissionControl admissionControl;
+    private final RoutingConfig routingConfig;
+
+    @PostMapping
+    public ResponseEntity<SearchJobDto> submit(@RequestBody ListingSearchFilterDto request,
+                                               @RequestParam(defaultValue = "INTERACTIVE") SearchJobPriority priority,
+                                               HttpServletRequest servletRequest) {
+        log.info("POST /api/search-jobs priority={}", priority);
+        if (!routingConfig.accepts(request.getCommute())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try {
+            SearchJobDto job = searchJobService.submit(request, priority, admissionControl.clientId(servletRequest));
+            return ResponseEntity.accepted().location(location(job)).body(job);
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SearchJobDto> get(@PathVariable String id) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(searchJobService.get(id));
+        } catch (NotFoundException _) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        log.info("DELETE /api/search-jobs/{}", id);
+        try {
+            searchJobService.cancel(id);
+            return ResponseEntity.noContent().build();
+        } catch (NotFoundException _) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    static URI location(SearchJobDto job) {
+        return URI.create("/api/search-jobs/" + job.getId());
+    }
+}
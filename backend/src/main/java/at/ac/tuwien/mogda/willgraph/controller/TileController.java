@@ -0,0 +1,52 @@
+package at.ac.tuwien.mogda.willgraph.controller;
+
+import at.ac.tuwien.mogda.willgraph.service.TileService;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileCoordinate;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/tiles")
+@RequiredArgsConstructor
+@Slf4j
+public class TileController {
+
+    private static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final TileService tileService;
+
+    @GetMapping("/{layer}/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> getTile(@PathVariable String layer,
+                                          @PathVariable int z,
+                                          @PathVariable int x,
+                                          @PathVariable int y) {
+        log.debug("GET /tiles/{}/{}/{}/{}.mvt", layer, z, x, y);
+        Optional<TileLayer> tileLayer = TileLayer.fromName(layer);
+        if (tileLayer.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        TileCoordinate tile;
+        try {
+            tile = new TileCoordinate(z, x, y);
+        } catch (IllegalArgumentException _) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        byte[] body = tileService.getTile(tileLayer.get(), tile);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MVT)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)))
+                .body(body);
+    }
+}
@@ -1,5 +1,7 @@
 package at.ac.tuwien.mogda.willgraph.controller;
 
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.IsochroneDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
 import at.ac.tuwien.mogda.willgraph.service.TransportService;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,7 @@ import java.util.List;
 public class TransportController {
 
     private final TransportService transportService;
+    private final RoutingConfig routingConfig;
 
     @GetMapping("/nearby")
     public ResponseEntity<List<StationDistanceDto>> findTransportStationsNearby(@RequestParam double lat, @RequestParam double lng, @RequestParam(defaultValue = "1000.0") double radius) {
@@ -27,5 +30,17 @@ public class TransportController {
         return ResponseEntity.status(HttpStatus.OK).body(this.transportService.findStationsByLocation(lat, lng, radius));
     }
 
+    @GetMapping("/isochrone")
+    public ResponseEntity<IsochroneDto> computeIsochrone(@RequestParam double lat,
+                                                         @RequestParam double lng,
+                                                         @RequestParam(defaultValue = "25.0") double minutes,
+                                                         @RequestParam(defaultValue = "800.0") double maxWalkDistance) {
+        log.info("GET /api/transport/isochrone lat={} lng={} minutes={} maxWalkDistance={}", lat, lng, minutes, maxWalkDistance);
+        if (minutes <= 0 || minutes > routingConfig.getMaxCommuteMinutes() || maxWalkDistance < 0 || maxWalkDistance > routingConfig.getMaxWalkDistance()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(this.transportService.computeIsochrone(lat, lng, minutes, maxWalkDistance));
+    }
+
 
 }
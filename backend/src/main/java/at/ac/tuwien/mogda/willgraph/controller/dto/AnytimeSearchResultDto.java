@@ -0,0 +1,22 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Best ranking reached within the deadline. Candidates not yet fully scored are ranked by the part of their
+ * score known so far; {@code exact} tells whether no further scoring could change the returned ranking.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnytimeSearchResultDto {
+    private List<RealEstateWithScoreDto> results;
+    private Integer scoredCandidates;
+    private Integer totalCandidates;
+    private Boolean exact;
+    private Long elapsedMs;
+}
@@ -0,0 +1,14 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.Data;
+
+/**
+ * Restricts a search to listings reachable from (lat, lng) within maxMinutes by walking and public transport
+ */
+@Data
+public class CommuteCriteria {
+    private Double lat;
+    private Double lng;
+    private Double maxMinutes;
+    private Double maxWalkDistance;
+}
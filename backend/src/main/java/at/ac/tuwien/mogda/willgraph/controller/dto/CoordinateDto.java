@@ -0,0 +1,13 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoordinateDto {
+    private Double lat;
+    private Double lng;
+}
@@ -0,0 +1,15 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DistanceMatrixDto {
+    private int rows;
+    private int columns;
+    private double[][] distanceMeters;
+    private double[][] walkingMinutes;
+}
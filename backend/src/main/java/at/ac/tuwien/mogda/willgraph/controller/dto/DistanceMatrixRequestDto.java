@@ -0,0 +1,15 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.Data;
+
+/**
+ * Points are given as parallel coordinate arrays. Without a destination set the matrix is computed
+ * between all origins.
+ */
+@Data
+public class DistanceMatrixRequestDto {
+    private double[] fromLat;
+    private double[] fromLon;
+    private double[] toLat;
+    private double[] toLon;
+}
@@ -0,0 +1,23 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.locationtech.jts.geom.Geometry;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IsochroneDto {
+    private GeographicPoint2d origin;
+    private Double budgetMinutes;
+    private Double maxWalkDistance;
+    private List<ReachableStationDto> stations;
+    // Union of walking circles around the origin and every reached station
+    private Geometry area;
+}
@@ -1,6 +1,5 @@
 package at.ac.tuwien.mogda.willgraph.controller.dto;
 
-
 import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
 import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
 import lombok.AllArgsConstructor;
@@ -8,12 +7,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
+/**
+ * Raw scoring features of a search candidate, one entry per prioritized amenity and POI in request order
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class ListingWithScore {
+public class ListingFeatures {
     ListingEntity listing;
     AddressEntity address;
-    Double score;
+    List<Double> amenityDistances;
+    List<Double> poiDistances;
+    List<Long> poiHops;
 }
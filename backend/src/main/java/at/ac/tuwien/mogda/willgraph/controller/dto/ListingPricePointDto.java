@@ -0,0 +1,20 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListingPricePointDto {
+    private String id;
+    private Double price;
+    private Double pricePerM2;
+    /**
+     * Total area, living area when the total is unknown
+     */
+    private Double area;
+    private GeographicPoint2d location;
+}
@@ -8,6 +8,7 @@ import java.util.List;
 public class ListingSearchFilterDto {
     private ListingCriteria listing;
     private TransportCriteria transport;
+    private CommuteCriteria commute;
     private List<PriorityItemDto> amenityPriorities;
     private List<PriorityItemDto> poiPriorities;
     private Double bonusScoreRegion = 0.0;
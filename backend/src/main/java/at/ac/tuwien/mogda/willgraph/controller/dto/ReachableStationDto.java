@@ -0,0 +1,20 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReachableStationDto {
+    private String id;
+    private String name;
+    private GeographicPoint2d location;
+    private Double arrivalMinutes;
+    private Integer hops;
+    private Double walkingMeters;
+}
@@ -0,0 +1,28 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegionStatisticsDto {
+    private String iso;
+    private String name;
+    private Long listingCount;
+
+    private Double averagePrice;
+    private Double medianPrice;
+    private Double priceP25;
+    private Double priceP75;
+    private Double priceP90;
+
+    private Double averagePricePerSqm;
+    private Double medianPricePerSqm;
+    private Double pricePerSqmP25;
+    private Double pricePerSqmP75;
+    private Double pricePerSqmP90;
+}
@@ -0,0 +1,18 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedSearchDto {
+    private String id;
+    private String owner;
+    private String name;
+    private ListingSearchFilterDto filter;
+    private String createdAt;
+}
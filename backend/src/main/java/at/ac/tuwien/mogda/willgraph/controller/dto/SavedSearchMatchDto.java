@@ -0,0 +1,14 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedSearchMatchDto {
+    private String savedSearchId;
+    private RealEstateDto listing;
+    private String matchedAt;
+}
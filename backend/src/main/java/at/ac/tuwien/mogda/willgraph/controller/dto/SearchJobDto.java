@@ -0,0 +1,32 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobPriority;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Status of an asynchronous search; {@code results} is set once the job is DONE, progress while it runs
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchJobDto {
+    private String id;
+    private SearchJobStatus status;
+    private SearchJobPriority priority;
+    private String stage;
+    private Integer scoredCandidates;
+    private Integer totalCandidates;
+    private List<RealEstateWithScoreDto> results;
+    private String error;
+    private String submittedAt;
+    private String startedAt;
+    private String finishedAt;
+    private String expiresAt;
+}
@@ -0,0 +1,25 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One event of the progressive search: the current top results after a stage, with raw scores until the
+ * {@code final} stage, which carries the normalized ranking of the blocking search
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchProgressDto {
+    public static final String PRELIMINARY = "preliminary";
+    public static final String REFINED = "refined";
+    public static final String FINAL = "final";
+
+    private String stage;
+    private Integer scoredCandidates;
+    private Integer totalCandidates;
+    private List<RealEstateWithScoreDto> results;
+}
@@ -0,0 +1,23 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+
+/**
+ * Flat projection shared by all vector tile layers. Fields that do not apply to a layer stay null.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TileFeatureDto {
+    private String id;
+    private String name;
+    private String category;
+    private String line;
+    private Double price;
+    private Double livingArea;
+    private Integer roomCount;
+    private GeographicPoint2d location;
+}
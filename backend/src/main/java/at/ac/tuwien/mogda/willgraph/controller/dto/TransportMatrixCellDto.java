@@ -0,0 +1,14 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransportMatrixCellDto {
+    private Double travelMinutes;
+    private Integer hops;
+    private Double walkingMeters;
+}
@@ -0,0 +1,14 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransportMatrixRequestDto {
+    private List<CoordinateDto> origins;
+    private List<CoordinateDto> destinations;
+    private Double maxWalkDistance = 1000.0;
+    // Cells slower than this stay empty
+    private Double maxMinutes = 120.0;
+}
@@ -0,0 +1,19 @@
+package at.ac.tuwien.mogda.willgraph.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One origin of a transport matrix. Rows are streamed in completion order, so the origin index is included.
+ * Unreachable destinations are null.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransportMatrixRowDto {
+    private int origin;
+    private List<TransportMatrixCellDto> cells;
+}
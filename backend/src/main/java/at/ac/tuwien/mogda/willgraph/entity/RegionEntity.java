@@ -16,5 +16,14 @@ public class RegionEntity {
     private String name;
     private GeographicPoint2d center;
     private Geometry geometry;
+    // Simplified outlines, see GeometryDetail for the tolerances
+    private Geometry geometryHigh;
+    private Geometry geometryMedium;
+    private Geometry geometryLow;
+    // Maintained by RegionStatisticsService, the sketches behind them are stored as extra node properties
+    private Long listingCount;
+    private Double averagePrice;
+    private Double medianPrice;
     private Double averagePricePerSqm;
+    private Double medianPricePerSqm;
 }
@@ -0,0 +1,40 @@
+package at.ac.tuwien.mogda.willgraph.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.neo4j.core.schema.GeneratedValue;
+import org.springframework.data.neo4j.core.schema.Id;
+import org.springframework.data.neo4j.core.schema.Node;
+import org.springframework.data.neo4j.core.support.UUIDStringGenerator;
+
+/**
+ * A stored search a user wants alerts for. The filter ranges are kept as properties for the match index,
+ * the complete request (including commute, amenity and POI criteria) as JSON.
+ * Matched listings are linked by MATCHED relationships with a {@code matchedAt} timestamp.
+ */
+@Node("SavedSearch")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchEntity {
+    @Id
+    @GeneratedValue(generatorClass = UUIDStringGenerator.class)
+    private String id;
+
+    private String owner;
+    private String name;
+
+    private String region;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minArea;
+    private Double maxArea;
+
+    private String filter;
+    private String createdAt;
+}
@@ -0,0 +1,16 @@
+package at.ac.tuwien.mogda.willgraph.exception;
+
+import lombok.Getter;
+
+/**
+ * The request was shed because its client or the server has no search budget left
+ */
+@Getter
+public class AdmissionRejectedException extends Exception {
+    private final int retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
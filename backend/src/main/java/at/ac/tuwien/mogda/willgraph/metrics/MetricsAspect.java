@@ -0,0 +1,156 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records latency and result sizes of every repository method, and latency of every service and importer call.
+ * Meters are tagged with the endpoint pattern of the surrounding HTTP request ({@code none} for background work).
+ * Histogram buckets are configured under {@code management.metrics.distribution}.
+ * Repository calls above the slow-query threshold are additionally handed to the {@link SlowQueryRecorder}.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricsAspect {
+
+    public static final String REPOSITORY_TIMER = "willgraph.repository.query";
+    public static final String REPOSITORY_RESULTS = "willgraph.repository.results";
+    public static final String SERVICE_TIMER = "willgraph.service.call";
+
+    private static final String REPOSITORY_PACKAGE = "at.ac.tuwien.mogda.willgraph.repository";
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryRecorder slowQueryRecorder;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryName(joinPoint);
+        Tags tags = Tags.of("repository", repository, "method", joinPoint.getSignature().getName(),
+                "endpoint", currentEndpoint());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        double rows = 0;
+        Throwable error = null;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = "success";
+            rows = resultSize(result);
+            DistributionSummary.builder(REPOSITORY_RESULTS)
+                    .description("Rows or entities returned by a repository method")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(rows);
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            long nanos = sample.stop(Timer.builder(REPOSITORY_TIMER)
+                    .description("Latency of Neo4j repository methods including SDN mapping")
+                    .tags(tags.and("outcome", outcome))
+                    .register(meterRegistry));
+            if (slowQueryRecorder.isSlow(nanos)) {
+                slowQueryRecorder.record(repository, ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                        joinPoint.getArgs(), nanos, rows, error);
+            }
+        }
+    }
+
+    @Around("(@within(org.springframework.stereotype.Service) && within(at.ac.tuwien.mogda.willgraph.service..*)) " +
+            "|| within(at.ac.tuwien.mogda.willgraph.bootstrap..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String endpoint = currentEndpoint();
+        String outcome = "error";
+        try {
+            Object result = joinPoint.proceed();
+            // Reactive results are timed until they complete, not until the pipeline is assembled
+            if (result instanceof Mono<?> mono) {
+                return mono.doFinally(signal -> stopService(sample, joinPoint, endpoint, outcome(signal)));
+            }
+            if (result instanceof Flux<?> flux) {
+                return flux.doFinally(signal -> stopService(sample, joinPoint, endpoint, outcome(signal)));
+            }
+            outcome = "success";
+            stopService(sample, joinPoint, endpoint, outcome);
+            return result;
+        } catch (Throwable e) {
+            stopService(sample, joinPoint, endpoint, outcome);
+            throw e;
+        }
+    }
+
+    private void stopService(Timer.Sample sample, ProceedingJoinPoint joinPoint, String endpoint, String outcome) {
+        sample.stop(Timer.builder(SERVICE_TIMER)
+                .description("Latency of service and importer methods")
+                .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case CANCEL -> "cancelled";
+            default -> "error";
+        };
+    }
+
+    /**
+     * Best matching handler pattern, e.g. {@code /api/listings/search}, so path variables do not explode the tag
+     */
+    static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "none";
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : "unmapped";
+    }
+
+    /**
+     * Inherited methods such as {@code findAll} are declared on Spring Data interfaces, so the
+     * application interface is looked up on the proxy
+     */
+    static String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+
+    static double resultSize(Object result) {
+        return switch (result) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            case Page<?> page -> page.getNumberOfElements();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import org.neo4j.driver.summary.ProfiledPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flattening of {@code PROFILE} plans shared by the slow-query log and the query budgets
+ */
+final class ProfiledPlans {
+
+    private ProfiledPlans() {
+    }
+
+    /**
+     * Every operator of the plan tree in pre-order, with the runtime suffix ({@code @neo4j}) removed
+     */
+    static List<SlowQueryRecorder.OperatorSummary> operators(ProfiledPlan plan) {
+        List<SlowQueryRecorder.OperatorSummary> operators = new ArrayList<>();
+        collect(plan, operators);
+        return operators;
+    }
+
+    static long dbHits(List<SlowQueryRecorder.OperatorSummary> operators) {
+        return operators.stream().mapToLong(SlowQueryRecorder.OperatorSummary::dbHits).sum();
+    }
+
+    private static void collect(ProfiledPlan plan, List<SlowQueryRecorder.OperatorSummary> operators) {
+        String type = plan.operatorType();
+        int runtime = type.indexOf('@');
+        operators.add(new SlowQueryRecorder.OperatorSummary(runtime >= 0 ? type.substring(0, runtime) : type,
+                plan.dbHits(), plan.records()));
+        for (ProfiledPlan child : plan.children()) {
+            collect(child, operators);
+        }
+    }
+}
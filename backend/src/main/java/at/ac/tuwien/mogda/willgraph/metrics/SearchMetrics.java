@@ -0,0 +1,104 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stage timers for the listing search, tagged with the region and the shape of the filter
+ * so latency can be split between the Cypher query, JTS filtering and scoring.
+ * Every stage is also committed as a {@link StageEvent} of the {@code search} pipeline.
+ * Only the first {@value #MAX_REGION_TAGS} regions searched get their own tag value, the rest share {@code other},
+ * so the series count stays bounded with thousands of municipalities.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchMetrics {
+
+    public static final String STAGE_TIMER = "willgraph.search.stage";
+    public static final String CANDIDATES = "willgraph.search.candidates";
+
+    private static final String PIPELINE = "search";
+    static final int MAX_REGION_TAGS = 20;
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> taggedRegions = ConcurrentHashMap.newKeySet();
+
+    public Tags shape(String region, Collection<?> amenities, Collection<?> pois, boolean commute) {
+        return Tags.of(
+                "region", regionTag(region),
+                "amenities", bucket(amenities),
+                "pois", bucket(pois),
+                "commute", Boolean.toString(commute));
+    }
+
+    public Stage start() {
+        return new Stage(Timer.start(meterRegistry), StageEvent.begin(PIPELINE, null));
+    }
+
+    /**
+     * Stops the running stage and returns a new one for the next stage
+     */
+    public Stage stage(Stage running, String stage, Tags shape) {
+        return stage(running, stage, shape, 0);
+    }
+
+    public Stage stage(Stage running, String stage, Tags shape, long rows) {
+        running.sample().stop(Timer.builder(STAGE_TIMER)
+                .description("Latency of one stage of the listing search")
+                .tags(shape)
+                .tag("stage", stage)
+                .register(meterRegistry));
+        running.event().finish(stage, rows);
+        return start();
+    }
+
+    public void candidates(String stage, Tags shape, int count) {
+        DistributionSummary.builder(CANDIDATES)
+                .description("Listings remaining after a search stage")
+                .tags(shape)
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(count);
+    }
+
+    private String regionTag(String region) {
+        if (region == null) {
+            return "none";
+        }
+        if (taggedRegions.contains(region)) {
+            return region;
+        }
+        synchronized (taggedRegions) {
+            if (taggedRegions.contains(region) || taggedRegions.size() < MAX_REGION_TAGS) {
+                taggedRegions.add(region);
+                return region;
+            }
+        }
+        return "other";
+    }
+
+    /**
+     * Keeps the tag cardinality small
+     */
+    private static String bucket(Collection<?> items) {
+        int size = items == null ? 0 : items.size();
+        if (size == 0) {
+            return "0";
+        }
+        if (size <= 2) {
+            return "1-2";
+        }
+        return size <= 5 ? "3-5" : "6+";
+    }
+
+    public record Stage(Timer.Sample sample, StageEvent event) {
+    }
+}
@@ -0,0 +1,31 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/slowqueries} lists the recorded slow repository calls, newest first;
+ * {@code DELETE} empties the buffer
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryRecorder recorder;
+
+    @ReadOperation
+    public List<SlowQueryRecorder.SlowQuery> slowQueries() {
+        return recorder.entries();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+}
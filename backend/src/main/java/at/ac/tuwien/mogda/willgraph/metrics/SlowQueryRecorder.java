@@ -0,0 +1,188 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import at.ac.tuwien.mogda.willgraph.config.SlowQueryConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the most recent repository calls slower than {@code app.slow-query.threshold-ms} in a lock-free ring
+ * buffer. Writers claim a slot with an atomic counter and never block the query thread; profiling runs on a
+ * single background thread and is dropped when it cannot keep up.
+ */
+@Component
+@Slf4j
+public class SlowQueryRecorder {
+
+    private static final Pattern WRITE_CLAUSE = Pattern.compile("\\b(CREATE|MERGE|SET|DELETE|REMOVE|DETACH|DROP|LOAD\\s+CSV)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern SECRET = Pattern.compile("(?i).*(password|secret|token).*");
+    private static final int MAX_LIST_PREVIEW = 5;
+
+    private final SlowQueryConfig config;
+    private final ObjectProvider<Driver> driver;
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor profiler = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), Thread.ofPlatform().name("slow-query-profiler").daemon().factory());
+
+    public SlowQueryRecorder(SlowQueryConfig config, ObjectProvider<Driver> driver) {
+        this.config = config;
+        this.driver = driver;
+        this.entries = new AtomicReferenceArray<>(config.getCapacity());
+    }
+
+    public boolean isSlow(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos) >= config.getThresholdMs();
+    }
+
+    public void record(String repository, Method method, Object[] args, long nanos, double rows, Throwable error) {
+        Query query = method.getAnnotation(Query.class);
+        String cypher = query != null ? query.value() : null;
+        long id = sequence.getAndIncrement();
+        SlowQuery entry = new SlowQuery(id, Instant.now(), repository, method.getName(),
+                TimeUnit.NANOSECONDS.toMillis(nanos), (long) rows, error != null ? error.getClass().getSimpleName() : null,
+                cypher, parameters(method, args), null);
+        int slot = (int) (id % entries.length());
+        entries.set(slot, entry);
+        log.atWarn()
+                .addKeyValue("repository", repository)
+                .addKeyValue("method", method.getName())
+                .addKeyValue("durationMs", entry.durationMs())
+                .addKeyValue("rows", entry.rows())
+                .log("Slow repository query");
+
+        if (config.getProfile() && cypher != null && !WRITE_CLAUSE.matcher(cypher).find()) {
+            try {
+                profiler.execute(() -> attachProfile(slot, entry, namedParameters(method, args)));
+            } catch (RejectedExecutionException e) {
+                log.debug("Profiler busy, skipping PROFILE for {}.{}", repository, method.getName());
+            }
+        }
+    }
+
+    /**
+     * Newest first
+     */
+    public List<SlowQuery> entries() {
+        List<SlowQuery> result = new ArrayList<>(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            SlowQuery entry = entries.get(i);
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        result.sort(Comparator.comparingLong(SlowQuery::id).reversed());
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+    }
+
+    private void attachProfile(int slot, SlowQuery entry, Map<String, Object> parameters) {
+        Driver neo4jDriver = driver.getIfAvailable();
+        if (neo4jDriver == null) {
+            return;
+        }
+        try (Session session = neo4jDriver.session(SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build())) {
+            ProfiledPlan plan = session.run("PROFILE " + entry.cypher(), parameters).consume().profile();
+            if (plan != null) {
+                // Only replace the entry if the slot was not reused in the meantime
+                entries.compareAndSet(slot, entry, entry.withProfile(summarize(plan)));
+            }
+        } catch (RuntimeException e) {
+            log.debug("PROFILE failed for {}.{}: {}", entry.repository(), entry.method(), e.getMessage());
+        }
+    }
+
+    private static ProfileSummary summarize(ProfiledPlan plan) {
+        List<OperatorSummary> operators = new ArrayList<>(ProfiledPlans.operators(plan));
+        long dbHits = ProfiledPlans.dbHits(operators);
+        operators.sort(Comparator.comparingLong(OperatorSummary::dbHits).reversed());
+        return new ProfileSummary(dbHits, plan.records(), operators.subList(0, Math.min(5, operators.size())));
+    }
+
+    private Map<String, Object> parameters(Method method, Object[] args) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        namedParameters(method, args).forEach((name, value) ->
+                result.put(name, SECRET.matcher(name).matches() ? "***" : sanitize(value)));
+        return result;
+    }
+
+    private static Map<String, Object> namedParameters(Method method, Object[] args) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length && i < args.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            result.put(param != null ? param.value() : parameters[i].getName(), args[i]);
+        }
+        return result;
+    }
+
+    private Object sanitize(Object value) {
+        return switch (value) {
+            case null -> null;
+            case Number number -> number;
+            case Boolean bool -> bool;
+            case Collection<?> collection -> {
+                List<Object> preview = collection.stream().limit(MAX_LIST_PREVIEW).map(this::sanitize).toList();
+                yield collection.size() > MAX_LIST_PREVIEW
+                        ? Map.of("size", collection.size(), "first", preview)
+                        : preview;
+            }
+            default -> {
+                String text = value.toString();
+                yield text.length() > config.getMaxParameterLength()
+                        ? text.substring(0, config.getMaxParameterLength()) + "..."
+                        : text;
+            }
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        profiler.shutdownNow();
+    }
+
+    public record SlowQuery(long id, Instant timestamp, String repository, String method, long durationMs, long rows,
+                            String error, String cypher, Map<String, Object> parameters, ProfileSummary profile) {
+
+        SlowQuery withProfile(ProfileSummary summary) {
+            return new SlowQuery(id, timestamp, repository, method, durationMs, rows, error, cypher, parameters, summary);
+        }
+    }
+
+    public record ProfileSummary(long dbHits, long rows, List<OperatorSummary> topOperators) {
+    }
+
+    public record OperatorSummary(String operator, long dbHits, long rows) {
+    }
+}
@@ -0,0 +1,57 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one stage of the search pipeline or an import/linking job. Visible in any JFR
+ * recording next to GC and allocation events, and aggregated live by {@link StageEventStream}.
+ * Creating and committing the event is close to free while no recording has it enabled.
+ */
+@Name(StageEvent.NAME)
+@Label("Pipeline Stage")
+@Category("Willgraph")
+@Description("Duration and row count of one stage of the search pipeline, the importers or the linking job")
+@StackTrace(false)
+public class StageEvent extends Event {
+
+    public static final String NAME = "willgraph.Stage";
+
+    @Label("Pipeline")
+    String pipeline;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Rows")
+    long rows;
+
+    public static StageEvent begin(String pipeline, String stage) {
+        StageEvent event = new StageEvent();
+        event.pipeline = pipeline;
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    public void finish() {
+        commit();
+    }
+
+    public void finish(long rows) {
+        this.rows = rows;
+        commit();
+    }
+
+    /**
+     * Names the stage when it is only known at its end, as in the chained search stages
+     */
+    void finish(String stage, long rows) {
+        this.stage = stage;
+        finish(rows);
+    }
+}
@@ -0,0 +1,31 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/stages} shows the JFR stage totals of the search pipeline, importers and linking job;
+ * {@code DELETE} resets them
+ */
+@Component
+@Endpoint(id = "stages")
+@RequiredArgsConstructor
+public class StageEventEndpoint {
+
+    private final StageEventStream stream;
+
+    @ReadOperation
+    public List<StageStats.Snapshot> stages() {
+        return stream.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        stream.reset();
+    }
+}
@@ -0,0 +1,74 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import at.ac.tuwien.mogda.willgraph.config.JfrConfig;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams {@link StageEvent}s from an in-process JFR recording and keeps running totals per pipeline and stage.
+ * Events are delivered about once per second on the stream's own thread, so request threads only pay for the
+ * event commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StageEventStream {
+
+    private final JfrConfig config;
+    private final Map<String, StageStats> stats = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public synchronized void start() {
+        if (!config.getStreamEnabled() || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(StageEvent.NAME);
+        stream.setMaxAge(Duration.ofMinutes(config.getMaxAgeMinutes()));
+        stream.onEvent(StageEvent.NAME, this::accept);
+        stream.startAsync();
+        log.info("Streaming {} events", StageEvent.NAME);
+    }
+
+    /**
+     * Slowest stages (by total time) first
+     */
+    public List<StageStats.Snapshot> snapshot() {
+        return stats.values().stream()
+                .map(StageStats::snapshot)
+                .sorted(Comparator.comparingDouble(StageStats.Snapshot::totalMs).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private void accept(RecordedEvent event) {
+        String pipeline = event.getString("pipeline");
+        String stage = event.getString("stage");
+        stats.computeIfAbsent(pipeline + "/" + stage, k -> new StageStats(pipeline, stage))
+                .add(event.getDuration().toNanos(), event.getLong("rows"));
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
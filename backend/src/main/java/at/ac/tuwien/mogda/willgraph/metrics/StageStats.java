@@ -0,0 +1,39 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+/**
+ * Running totals of one pipeline stage. Written only by the JFR stream thread, read by the actuator endpoint.
+ */
+public class StageStats {
+
+    private final String pipeline;
+    private final String stage;
+    private volatile long count;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+    private volatile long lastNanos;
+    private volatile long rows;
+
+    StageStats(String pipeline, String stage) {
+        this.pipeline = pipeline;
+        this.stage = stage;
+    }
+
+    void add(long nanos, long eventRows) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastNanos = nanos;
+        rows += eventRows;
+    }
+
+    Snapshot snapshot() {
+        long n = count;
+        long total = totalNanos;
+        return new Snapshot(pipeline, stage, n, total / 1e6, n > 0 ? total / 1e6 / n : 0.0,
+                maxNanos / 1e6, lastNanos / 1e6, rows);
+    }
+
+    public record Snapshot(String pipeline, String stage, long count, double totalMs, double meanMs,
+                           double maxMs, double lastMs, long rows) {
+    }
+}
@@ -0,0 +1,86 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Opens a child span for every service, importer and repository call, so a traced request shows where the time
+ * between the HTTP server span and the Bolt round trips goes. Repository spans carry the statement name
+ * ({@code Repository.method}) and the number of returned rows. Runs outside {@link MetricsAspect} so the
+ * span also covers the metric bookkeeping.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String statement = MetricsAspect.repositoryName(joinPoint) + "." + joinPoint.getSignature().getName();
+        Span span = tracer.spanBuilder()
+                .name("neo4j " + statement)
+                .kind(Span.Kind.CLIENT)
+                .tag("db.system", "neo4j")
+                .tag("db.statement.name", statement)
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            Object result = joinPoint.proceed();
+            span.tag("db.rows", (long) MetricsAspect.resultSize(result));
+            return result;
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    @Around("(@within(org.springframework.stereotype.Service) && within(at.ac.tuwien.mogda.willgraph.service..*)) " +
+            "|| within(at.ac.tuwien.mogda.willgraph.bootstrap..*)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Span span = tracer.nextSpan()
+                .name(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName())
+                .start();
+        boolean deferred = false;
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            Object result = joinPoint.proceed();
+            // Reactive results are traced until they complete, not until the pipeline is assembled
+            if (result instanceof Mono<?> mono) {
+                deferred = true;
+                return mono.doOnError(span::error).doFinally(signal -> end(span, signal));
+            }
+            if (result instanceof Flux<?> flux) {
+                deferred = true;
+                return flux.doOnError(span::error).doFinally(signal -> end(span, signal));
+            }
+            return result;
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            if (!deferred) {
+                span.end();
+            }
+        }
+    }
+
+    private static void end(Span span, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            span.tag("cancelled", "true");
+        }
+        span.end();
+    }
+}
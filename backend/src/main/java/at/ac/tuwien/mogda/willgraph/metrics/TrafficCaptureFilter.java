@@ -0,0 +1,146 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import at.ac.tuwien.mogda.willgraph.config.TrafficCaptureConfig;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Records the configured API requests with their timing as one JSON line each to the {@code willgraph.traffic}
+ * logger, which logback-spring.xml writes asynchronously to {@code logs/traffic.jsonl}. A line holds the start
+ * time, method, handler pattern, URI with query string, request body, status, duration and a pseudonym of the
+ * admission client, which is all TrafficReplay in the tools source set needs to drive the same mix against
+ * another backend. Pseudonyms are salted per process, so they tell clients apart within one capture without
+ * recording their addresses.
+ * <p>
+ * Only registered with {@code app.traffic-capture.enabled}; bodies are cached as the controller reads them, so
+ * recording adds no extra parsing.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "app.traffic-capture", name = "enabled", havingValue = "true")
+@Slf4j
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private static final Logger TRAFFIC = LoggerFactory.getLogger("willgraph.traffic");
+
+    private final TrafficCaptureConfig config;
+    private final ObjectMapper objectMapper;
+    private final AdmissionControl admissionControl;
+    private final Set<String> endpoints;
+    private final byte[] clientSalt = new byte[16];
+
+    public TrafficCaptureFilter(TrafficCaptureConfig config, ObjectMapper objectMapper, AdmissionControl admissionControl) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.admissionControl = admissionControl;
+        this.endpoints = new HashSet<>(config.getEndpoints());
+        new SecureRandom().nextBytes(clientSalt);
+        log.info("Recording requests to {} into logs/traffic.jsonl", endpoints);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingRequestWrapper wrapper = new ContentCachingRequestWrapper(request, config.getMaxBodyBytes());
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(wrapper, response);
+            failed = false;
+        } finally {
+            Object pattern = wrapper.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null && endpoints.contains(pattern.toString())) {
+                if (!failed && wrapper.isAsyncStarted()) {
+                    // Reactive and streaming handlers return before the response is written
+                    wrapper.getAsyncContext().addListener(new AsyncListener() {
+                        @Override
+                        public void onComplete(AsyncEvent event) {
+                            write(wrapper, pattern.toString(), startedAt, System.nanoTime() - start, response.getStatus());
+                        }
+
+                        @Override
+                        public void onTimeout(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onError(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onStartAsync(AsyncEvent event) {
+                        }
+                    });
+                } else {
+                    // Unhandled exceptions only become a 500 in the error dispatch after this filter returns
+                    write(wrapper, pattern.toString(), startedAt, System.nanoTime() - start,
+                            failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+                }
+            }
+        }
+    }
+
+    private void write(ContentCachingRequestWrapper request, String endpoint, long startedAt, long nanos, int status) {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("ts", startedAt);
+        line.put("method", request.getMethod());
+        line.put("endpoint", endpoint);
+        line.put("uri", request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI());
+        line.put("client", pseudonym(admissionControl.clientId(request)));
+        byte[] body = request.getContentAsByteArray();
+        boolean complete = body.length < config.getMaxBodyBytes() || body.length == request.getContentLengthLong();
+        if (body.length > 0 && complete) {
+            line.put("contentType", request.getContentType());
+            line.put("body", new String(body, StandardCharsets.UTF_8));
+        } else if (body.length > 0) {
+            line.put("truncated", true);
+        }
+        line.put("status", status);
+        line.put("ms", Math.round(nanos / 10_000.0) / 100.0);
+        try {
+            TRAFFIC.info(objectMapper.writeValueAsString(line));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not record request to {}", endpoint, e);
+        }
+    }
+
+    private String pseudonym(String client) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(clientSalt);
+            byte[] hash = digest.digest(client.getBytes(StandardCharsets.UTF_8));
+            return "client-" + HexFormat.of().formatHex(hash, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
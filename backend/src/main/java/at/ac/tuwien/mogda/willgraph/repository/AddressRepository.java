@@ -22,16 +22,22 @@ public interface AddressRepository extends Neo4jRepository<AddressEntity, String
             "    r.walkingDurationInMinutes = point.distance(a.location, t.location) / 80.0")
     void generatePoximityLinks(@Param("addressId") String addressId);
 
+    /**
+     * Links the addresses without any station link yet
+     *
+     * @return the number of addresses linked
+     */
     @Query("MATCH (a:Address) WHERE NOT (a)-[:CLOSE_TO_STATION]->() " +
             "MATCH (t:Transport) " +
             "WHERE point.distance(a.location, t.location) < 800 " +
             "MERGE (a)-[r:CLOSE_TO_STATION]->(t) " +
-            "SET r.distanceInMeters = point.distance(a.location, t.location), " +
-            "    r.walkingDurationInMinutes = point.distance(a.location, t.location) / 80.0")
-    void generateAllProximityLinks();
+            "ON CREATE SET r.distanceInMeters = point.distance(a.location, t.location), " +
+            "    r.walkingDurationInMinutes = point.distance(a.location, t.location) / 80.0 " +
+            "RETURN count(DISTINCT a)")
+    long generateAllProximityLinks();
 
     @Query("MATCH (t:Transport) WHERE id(t) in $transportIds " +
-            "MATCH (a:Address " +
+            "MATCH (a:Address) " +
             "WHERE point.distance(a.location, t.location) < 800 " +
             "MERGE (a)-[r:CLOSE_TO_STATION]->(t) " +
             "SET r.distanceInMeters = point.distance(a.location, t.location), " +
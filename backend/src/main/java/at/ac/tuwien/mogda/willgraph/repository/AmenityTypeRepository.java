@@ -15,7 +15,10 @@ public interface AmenityTypeRepository extends Neo4jRepository<AmenityTypeEntity
 
     Optional<AmenityTypeEntity> findByName(String name);
 
-    @Query("MATCH (p:PointOfInterest) " +
+    /**
+     * Shared with the reactive nearby endpoint
+     */
+    String AMENITY_OVERVIEW = "MATCH (p:PointOfInterest) " +
         "WHERE point.distance(p.location, point({latitude: $lat, longitude: $lon})) < $radius " +
         "MATCH (p)-[:IS_TYPE]->(a:Amenity) " +
         "WITH a, p, point.distance(p.location, point({latitude: $lat, longitude: $lon})) AS dist " +
@@ -23,6 +26,8 @@ public interface AmenityTypeRepository extends Neo4jRepository<AmenityTypeEntity
         "       count(p) AS count, " +
         "       min(dist) AS closestDistance, " +
         "       (min(dist) / 80.0) AS closestWalkingTime " +
-        "ORDER BY closestDistance ASC")
+        "ORDER BY closestDistance ASC";
+
+    @Query(AMENITY_OVERVIEW)
     List<AmenityOverviewDto> findAmenityOverview(double lat, double lon, double radius);
 }
@@ -1,6 +1,8 @@
 package at.ac.tuwien.mogda.willgraph.repository;
 
-import at.ac.tuwien.mogda.willgraph.controller.dto.ListingWithScore;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingFeatures;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingPricePointDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TileFeatureDto;
 import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,7 +29,10 @@ public interface ListingRepository extends Neo4jRepository<ListingEntity, String
 
     Page<ListingEntity> findAll(Pageable pageable);
 
-    @Query("""
+    /**
+     * Listings inside the bounding box and the price and area ranges, as {@code l} located at {@code a}
+     */
+    String LISTINGS_IN_RANGE = """
                         MATCH (l:Listing)-[:LOCATED_AT]->(a:Address)
                         WHERE a.location.x >= $minLon AND a.location.x <= $maxLon
                           AND a.location.y >= $minLat AND a.location.y <= $maxLat
@@ -35,7 +40,9 @@ public interface ListingRepository extends Neo4jRepository<ListingEntity, String
                           AND l.price <= $maxPrice\s
                           AND l.livingArea >= $minArea
                           AND l.livingArea <= $maxArea
-            
+            """;
+
+    String START_NODE_CALL = """
                         // 1. Safe Start Node Retrieval
                         CALL (a) {
                              //FAST PATH: Explicit Edge
@@ -54,64 +61,93 @@ public interface ListingRepository extends Neo4jRepository<ListingEntity, String
                              UNION
                              RETURN null AS startNode
                          }
-            
-                        // 2. AMENITY SCORE (Scoped Call)
+            """;
+
+    /**
+     * {@link #START_NODE_CALL} also yields the null fallback next to a station it found; keeps one row per listing
+     */
+    String SINGLE_START_NODE = """
+                        WITH l, a, head(collect(startNode)) AS startNode
+            """;
+
+    /**
+     * Distance to the nearest amenity of every prioritized type (1000 m when none is closer), in request order
+     */
+    String AMENITY_DISTANCES_CALL = """
                        CALL (a) {
-                             WITH a, coalesce($amenities, []) as safeAmenities
-                             WITH a, safeAmenities WHERE size(safeAmenities) = 0
-                             RETURN 0.0 AS amenityScore
-                             UNION
-                             WITH a, coalesce($amenities, []) as safeAmenities
-                             WITH a, safeAmenities WHERE size(safeAmenities) > 0
-                             UNWIND safeAmenities AS item
-                             // Use OPTIONAL MATCH to ensure row survives if no amenity found
+                             WITH a, coalesce($amenities, []) AS safeAmenities
+                             UNWIND range(0, size(safeAmenities) - 1) AS i
+                             WITH a, i, safeAmenities[i] AS item
                              OPTIONAL MATCH (poi:PointOfInterest)-[:IS_TYPE]->(t:Amenity)
                              WHERE t.name = item.name AND point.distance(a.location, poi.location) < 1000
-                             WITH item, min(point.distance(a.location, poi.location)) AS minDist
-                             RETURN sum(item.weight * (1000.0 - coalesce(minDist, 1000.0)) / 10.0) AS amenityScore
+                             WITH i, min(point.distance(a.location, poi.location)) AS minDist
+                             ORDER BY i
+                             // Aggregation without grouping keys keeps the row when there are no amenities
+                             RETURN collect(coalesce(minDist, 1000.0)) AS amenityDistances
                          }
-            
-                        // 3. POI SCORE (Scoped Call)
-                       CALL (l, a, startNode) {
-                            WITH l, a, startNode, coalesce($customPois, []) as safePois
-                            WITH l, a, startNode, safePois WHERE size(safePois) = 0
-                            RETURN 0.0 AS poiScore
-                            UNION
-                            WITH l, a, startNode, coalesce($customPois, []) as safePois
-                            WITH l, a, startNode, safePois WHERE size(safePois) > 0
-                            UNWIND safePois AS item
-                            WITH startNode, item,
-                                 point.distance(a.location, point({latitude: item.lat, longitude: item.lng})) as distGeo
-            
-                            WITH startNode, item, distGeo,
-                                 CASE WHEN distGeo < 1500 THEN (1500.0 - distGeo) / 15.0 ELSE 0.0 END AS walkScore
-            
+            """;
+
+    /**
+     * Straight-line distance to every custom POI and, for POIs out of walking range, the fewest station hub
+     * hops to reach them (-1 without a path), in request order
+     */
+    String POI_FEATURES_CALL = """
+                       CALL (a, startNode) {
+                            WITH a, startNode, coalesce($customPois, []) AS safePois
+                            UNWIND range(0, size(safePois) - 1) AS i
+                            WITH startNode, i, safePois[i] AS item,
+                                 point.distance(a.location, point({latitude: safePois[i].lat, longitude: safePois[i].lng})) AS distGeo
                             CALL (startNode, item, distGeo) {
                                 WITH startNode, item, distGeo
-                                // Only run pathfinding if conditions met
                                 WHERE distGeo >= 1500 AND startNode IS NOT NULL
-                                MATCH (s2:Transport)
+                                MATCH (startNode)-[:PLATFORM_OF]->(h1:StationHub)
+                                MATCH (s2:Transport)-[:PLATFORM_OF]->(h2:StationHub)
                                 WHERE point.distance(s2.location, point({latitude: item.lat, longitude: item.lng})) < 800
-                                MATCH p = shortestPath((startNode)-[:CONNECTED_TO*..6]-(s2))
-                                RETURN 50.0 - (length(p) * 5.0) AS rawTransScore
-                                ORDER BY length(p) ASC
+                                WITH DISTINCT h1, h2
+                                WHERE h1 <> h2
+                                MATCH p = shortestPath((h1)-[:HUB_LINK*..6]-(h2))
+                                RETURN length(p) AS hops
+                                ORDER BY hops ASC
                                 LIMIT 1
                                 UNION
-                                // This ensures we always return SOMETHING, even if WHERE above fails
-                                RETURN 0.0 AS rawTransScore
+                                RETURN null AS hops
                             }
-                            WITH item, walkScore, max(rawTransScore) as transScore
-                            RETURN sum(item.weight * (walkScore + transScore)) AS poiScore
+                            WITH i, distGeo, min(hops) AS hops
+                            ORDER BY i
+                            RETURN collect(distGeo) AS poiDistances, collect(coalesce(hops, -1)) AS poiHops
                 }
-            
-                WITH l, amenityScore, poiScore
-                WITH l, (amenityScore + poiScore) AS totalScore
-                ORDER BY totalScore DESC
-                //May want to add limit here?
+            """;
+
+    /**
+     * Listings in range with the raw features the {@code ScoringPipeline} scores, unordered. Shared with the
+     * reactive search endpoint
+     */
+    String SEARCH_LISTING_FEATURES = LISTINGS_IN_RANGE + START_NODE_CALL + SINGLE_START_NODE + AMENITY_DISTANCES_CALL + POI_FEATURES_CALL + """
+                OPTIONAL MATCH (l)-[r:LOCATED_AT]->(addr:Address)
+                RETURN DISTINCT l AS listing, r, addr AS Address, amenityDistances, poiDistances, poiHops
+            """;
+
+    /**
+     * First stage of the progressive and anytime searches: the candidates of {@link #SEARCH_LISTING_FEATURES}
+     * with their amenity features only
+     */
+    String AMENITY_FEATURE_LISTINGS = LISTINGS_IN_RANGE + AMENITY_DISTANCES_CALL + """
                 OPTIONAL MATCH (l)-[r:LOCATED_AT]->(addr:Address)
-                RETURN DISTINCT l AS listing, r, addr AS Address, totalScore as score
-            """)
-    List<ListingWithScore> searchListings(
+                RETURN DISTINCT l AS listing, r, addr AS Address, amenityDistances
+            """;
+
+    /**
+     * Second stage of the progressive and anytime searches: the POI features of the listings in {@code $ids}
+     */
+    String POI_FEATURES = """
+                UNWIND $ids AS listingId
+                MATCH (l:Listing {id: listingId})-[:LOCATED_AT]->(a:Address)
+            """ + START_NODE_CALL + SINGLE_START_NODE + POI_FEATURES_CALL + """
+                RETURN l.id AS id, poiDistances, poiHops
+            """;
+
+    @Query(SEARCH_LISTING_FEATURES)
+    List<ListingFeatures> searchListingFeatures(
             @Param("minLon") double minLon,
             @Param("minLat") double minLat,
             @Param("maxLon") double maxLon,
@@ -125,6 +161,52 @@ public interface ListingRepository extends Neo4jRepository<ListingEntity, String
             @Param("customPois") List<Map<String, Object>> customPois
     );
 
+    /**
+     * Listings matched by a saved search since the given ISO timestamp, newest first
+     */
+    @Query("MATCH (:SavedSearch {id: $savedSearchId})-[m:MATCHED]->(l:Listing)-[r:LOCATED_AT]->(a:Address) " +
+            "WHERE m.matchedAt >= $since " +
+            "RETURN l, r, a " +
+            "ORDER BY m.matchedAt DESC " +
+            "LIMIT $limit")
+    List<ListingEntity> findMatchesOfSavedSearch(@Param("savedSearchId") String savedSearchId,
+                                                 @Param("since") String since,
+                                                 @Param("limit") Integer limit);
+
+    /**
+     * Listings after the given (timestampFound, id) position in that order, the incremental scan of the
+     * ListingScanScheduler
+     */
+    @Query("MATCH (l:Listing)-[r:LOCATED_AT]->(a:Address) " +
+            "WHERE l.timestampFound >= $since " +
+            "AND (l.timestampFound > $since OR l.id > $sinceId) " +
+            "RETURN l, r, a " +
+            "ORDER BY l.timestampFound, l.id " +
+            "LIMIT $limit")
+    List<ListingEntity> findFoundAfter(@Param("since") String since,
+                                       @Param("sinceId") String sinceId,
+                                       @Param("limit") Integer limit);
+
+    @Query("MATCH (l:Listing) WHERE l.timestampFound IS NOT NULL " +
+            "RETURN l ORDER BY l.timestampFound DESC, l.id DESC LIMIT 1")
+    Optional<ListingEntity> findLastFound();
+
     @Query("MATCH (l:Listing {id: $listingId})-[:LOCATED_AT]->(a:Address) RETURN a.id")
     Optional<String> findAddressIdByListingId(@Param("listingId") String listingId);
+
+    @Query("MATCH (l:Listing)-[:LOCATED_AT]->(a:Address) " +
+            "WHERE point.withinBBox(a.location, " +
+            "      point({longitude: $minLon, latitude: $minLat}), point({longitude: $maxLon, latitude: $maxLat})) " +
+            "RETURN l.id AS id, l.title AS name, l.source AS category, " +
+            "       l.price AS price, l.livingArea AS livingArea, l.roomCount AS roomCount, a.location AS location")
+    List<TileFeatureDto> findTileFeatures(
+            @Param("minLon") double minLon,
+            @Param("minLat") double minLat,
+            @Param("maxLon") double maxLon,
+            @Param("maxLat") double maxLat);
+
+    @Query("MATCH (l:Listing)-[:LOCATED_AT]->(a:Address) " +
+            "RETURN l.id AS id, l.price AS price, l.pricePerM2 AS pricePerM2, " +
+            "       coalesce(l.totalArea, l.livingArea) AS area, a.location AS location")
+    List<ListingPricePointDto> findAllPricePoints();
 }
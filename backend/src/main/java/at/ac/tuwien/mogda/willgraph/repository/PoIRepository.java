@@ -1,6 +1,7 @@
 package at.ac.tuwien.mogda.willgraph.repository;
 
 import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TileFeatureDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
 import at.ac.tuwien.mogda.willgraph.entity.AmenityTypeEntity;
 import at.ac.tuwien.mogda.willgraph.entity.PointOfInterestEntity;
@@ -15,7 +16,10 @@ import java.util.Optional;
 @Repository
 public interface PoIRepository extends Neo4jRepository<PointOfInterestEntity, String> {
     //TODO: IF you want we can add the score here?
-    @Query("MATCH (p:PointOfInterest) " +
+    /**
+     * Shared with the reactive nearby endpoint
+     */
+    String POIS_NEARBY = "MATCH (p:PointOfInterest) " +
         "WHERE point.distance(p.location, point({latitude: $lat, longitude: $lon})) < $radiusMeters " +
         "WITH p, point.distance(p.location, point({latitude: $lat, longitude: $lon})) AS dist " +
         "OPTIONAL MATCH (p)-[:IS_TYPE]->(t) " +
@@ -25,35 +29,47 @@ public interface PoIRepository extends Neo4jRepository<PointOfInterestEntity, St
         "       dist AS distanceInMeters, " +
         "       (dist / 80.0) AS walkingDurationInMinutes, " +
         "       p.location as location " +
-        "ORDER BY dist ASC")
+        "ORDER BY dist ASC";
+
+    @Query(POIS_NEARBY)
     List<PoIDistanceDto> findPoIsNearby(double lat, double lon, double radiusMeters);
 
     List<PointOfInterestEntity> findAllByType(AmenityTypeEntity type);
 
-    @Query("WITH point({latitude: $fromLat, longitude: $fromLon}) AS startPoint, " +
+    /**
+     * Shortest route on the station hub graph, so changing platforms within a station is not a stop.
+     * Shared with the reactive transport-path endpoint
+     */
+    String SHORTEST_TRANSPORT_PATH = "WITH point({latitude: $fromLat, longitude: $fromLon}) AS startPoint, " +
         "point({latitude: $toLat, longitude: $toLon}) AS endPoint " +
         "CALL (startPoint) { " +
         "WITH startPoint " +
-        "MATCH (s1:Transport) " +
+        "MATCH (s1:Transport)-[:PLATFORM_OF]->(h1:StationHub) " +
         "WHERE point.distance(s1.location, startPoint) < $maxWalkDistance " +
-        "RETURN s1, point.distance(s1.location, startPoint) AS walkToStation " +
+        "WITH h1, min(point.distance(s1.location, startPoint)) AS walkToStation " +
+        "RETURN h1, walkToStation " +
         "ORDER BY walkToStation ASC " +
         "LIMIT 50 " +
         "} " +
         "CALL (endPoint) { " +
         "WITH endPoint " +
-        "MATCH (s2:Transport) " +
+        "MATCH (s2:Transport)-[:PLATFORM_OF]->(h2:StationHub) " +
         "WHERE point.distance(s2.location, endPoint) < $maxWalkDistance " +
-        "RETURN s2, point.distance(s2.location, endPoint) AS walkFromStation " +
+        "WITH h2, min(point.distance(s2.location, endPoint)) AS walkFromStation " +
+        "RETURN h2, walkFromStation " +
         "ORDER BY walkFromStation ASC " +
         "LIMIT 50 " +
         "} " +
-        "WITH s1, s2, walkToStation, walkFromStation " +
-        "WHERE s1 <> s2 " +
-        "MATCH p = shortestPath((s1)-[:CONNECTED_TO|WALK*..50]-(s2)) " +
-        "WITH p, s1, s2, walkToStation, walkFromStation, length(p) AS hops " +
+        "WITH h1, h2, walkToStation, walkFromStation " +
+        "WHERE h1 <> h2 " +
+        "MATCH p = shortestPath((h1)-[:HUB_LINK*..50]-(h2)) " +
+        "WITH p, walkToStation, walkFromStation, length(p) AS hops " +
         "ORDER BY hops + (walkToStation + walkFromStation) / 1000.0 " +
         "LIMIT 1 " +
+        // Pattern comprehensions need a variable as anchor, not nodes(p)[i]
+        "WITH p, walkToStation, walkFromStation, hops, " +
+        " [h IN nodes(p) | head([(t:Transport)-[:PLATFORM_OF]->(h) WHERE t.type IS NOT NULL | t.type])] AS types, " +
+        " [h IN nodes(p) | head([(t:Transport)-[:PLATFORM_OF]->(h) WHERE t.line IS NOT NULL | t.line])] AS lines " +
         "RETURN " +
         " hops as numberOfStops," +
         " walkToStation as walkToStationMeters, " +
@@ -61,29 +77,24 @@ public interface PoIRepository extends Neo4jRepository<PointOfInterestEntity, St
         " [i IN range(0, length(p)) | { " +
         "      name: coalesce((nodes(p)[i]).name, 'Unknown Station'), " +
         "      location: (nodes(p)[i]).location, " +
-        "      type: (nodes(p)[i]).type, " +
-        "      line: coalesce((nodes(p)[i]).line, null), " +
+        "      type: types[i], " +
+        "      line: lines[i], " +
         "      distanceInMeters: CASE " +
         "           WHEN i = 0 THEN 0.0 " +
-        "           ELSE " +
-        "             CASE type(relationships(p)[i-1]) " +
-        "               WHEN 'WALK' THEN (relationships(p)[i-1]).distance " +
-        "               ELSE (relationships(p)[i-1]).distanceInMeters " +
-        "             END " +
+        "           ELSE coalesce((relationships(p)[i-1]).distanceInMeters, " +
+        "                         point.distance((nodes(p)[i-1]).location, (nodes(p)[i]).location)) " +
         "      END, " +
         "      travelTimeInMinutes: CASE " +
         "           WHEN i = 0 THEN 0.0 " +
-        "           ELSE " +
-        "             CASE type(relationships(p)[i-1]) " +
-        "               WHEN 'WALK' THEN (relationships(p)[i-1]).distance / 80.0 " +
-        "               ELSE coalesce((relationships(p)[i-1]).travelTimeInMinutes, 0.0) " +
-        "             END " +
+        "           ELSE coalesce((relationships(p)[i-1]).travelTimeInMinutes, 0.0) " +
         "      END," +
         "      segmentType: CASE " +
         "           WHEN i = 0 THEN 'START' " +
-        "           ELSE toString(type(relationships(p)[i-1])) " +
+        "           ELSE coalesce((relationships(p)[i-1]).segmentType, 'CONNECTED_TO') " +
         "      END " +
-        " }] as stations ")
+        " }] as stations ";
+
+    @Query(SHORTEST_TRANSPORT_PATH)
     Optional<TransportPathDto> findShortestTransportPath(
         @Param("fromLat") double fromLat,
         @Param("fromLon") double fromLon,
@@ -91,4 +102,15 @@ public interface PoIRepository extends Neo4jRepository<PointOfInterestEntity, St
         @Param("toLon") double toLon,
         @Param("maxWalkDistance") double maxWalkDistance
     );
+
+    @Query("MATCH (p:PointOfInterest) " +
+        "WHERE point.withinBBox(p.location, " +
+        "      point({longitude: $minLon, latitude: $minLat}), point({longitude: $maxLon, latitude: $maxLat})) " +
+        "OPTIONAL MATCH (p)-[:IS_TYPE]->(t:Amenity) " +
+        "RETURN p.id AS id, p.name AS name, coalesce(t.name, 'Unknown') AS category, p.location AS location")
+    List<TileFeatureDto> findTileFeatures(
+        @Param("minLon") double minLon,
+        @Param("minLat") double minLat,
+        @Param("maxLon") double maxLon,
+        @Param("maxLat") double maxLat);
 }
@@ -20,4 +20,17 @@ public interface RegionRepository extends Neo4jRepository<RegionEntity, String>
             "RETURN r " +
             "LIMIT $limit")
     List<RegionEntity> searchByNameOrIso(@Param("query") String query, @Param("limit") Integer limit);
+
+    @Query("MATCH (r:Region) RETURN r.iso ORDER BY r.iso LIMIT $limit")
+    List<String> findIsos(@Param("limit") Integer limit);
+
+    @Query("MATCH (r:Region) " +
+            "WHERE toLower(r.name) CONTAINS toLower($query) " +
+            "OR toLower(r.iso) CONTAINS toLower($query) " +
+            "RETURN r.iso " +
+            "LIMIT $limit")
+    List<String> searchIsosByNameOrIso(@Param("query") String query, @Param("limit") Integer limit);
+
+    @Query("MATCH (r:Region) WHERE r.geometry IS NOT NULL AND r.geometryLow IS NULL RETURN r")
+    List<RegionEntity> findAllWithoutGeometryLevels();
 }
@@ -0,0 +1,28 @@
+package at.ac.tuwien.mogda.willgraph.repository;
+
+import at.ac.tuwien.mogda.willgraph.entity.SavedSearchEntity;
+import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface SavedSearchRepository extends Neo4jRepository<SavedSearchEntity, String> {
+
+    List<SavedSearchEntity> findByOwner(String owner);
+
+    /**
+     * Rows of {@code search} and {@code listing} ids; a listing matched again keeps its first timestamp
+     */
+    @Query("UNWIND $matches AS match " +
+            "MATCH (s:SavedSearch {id: match.search}), (l:Listing {id: match.listing}) " +
+            "MERGE (s)-[m:MATCHED]->(l) " +
+            "ON CREATE SET m.matchedAt = $matchedAt")
+    void recordMatches(@Param("matches") List<Map<String, Object>> matches, @Param("matchedAt") String matchedAt);
+
+    @Query("MATCH (s:SavedSearch {id: $id}) DETACH DELETE s")
+    void deleteWithMatches(@Param("id") String id);
+}
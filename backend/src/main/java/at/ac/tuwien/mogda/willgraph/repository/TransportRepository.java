@@ -1,6 +1,7 @@
 package at.ac.tuwien.mogda.willgraph.repository;
 
 import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TileFeatureDto;
 import at.ac.tuwien.mogda.willgraph.entity.TransportEntity;
 import org.neo4j.driver.types.Path;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
@@ -12,14 +13,19 @@ import java.util.List;
 
 @Repository
 public interface TransportRepository extends Neo4jRepository<TransportEntity, String> {
-    @Query("MATCH (t:Transport) " +
+    /**
+     * Shared with the reactive nearby endpoint
+     */
+    String STATIONS_NEARBY = "MATCH (t:Transport) " +
         "WHERE point.distance(t.location, point({latitude: $lat, longitude: $lon})) < $radiusMeters " +
         "WITH t, point.distance(t.location, point({latitude: $lat, longitude: $lon})) AS dist " +
         "RETURN t.name AS name, t.type AS type, t.line AS line, " +
         "       dist AS distanceInMeters, " +
         "       (dist / 80.0) AS walkingDurationInMinutes, " +
         "       t.location as location " +
-        "ORDER BY dist ASC")
+        "ORDER BY dist ASC";
+
+    @Query(STATIONS_NEARBY)
     List<StationDistanceDto> findStationsByLocation(double lat, double lon, double radiusMeters);
 
     @Query("MATCH p=shortestPath((start:Transport {id: $startId})-[*]-(end:Transport {id: $endId})) RETURN p")
@@ -36,7 +42,7 @@ public interface TransportRepository extends Neo4jRepository<TransportEntity, St
         "AND id(s1) < id(s2) " +
         "AND NOT (s1)-[:CONNECTED_TO]-(s2) " +
         "MERGE (s1)-[r:WALK]-(s2) " +
-        "SET r.distance = point.distance(s1.location, s2.location)")
+        "ON CREATE SET r.distance = point.distance(s1.location, s2.location)")
     void generateWalkEdges();
 
     @Query("MATCH (s1:Transport) " +
@@ -48,10 +54,26 @@ public interface TransportRepository extends Neo4jRepository<TransportEntity, St
         "AND id(s1) < id(s2) " +
         "AND NOT (s1)-[:CONNECTED_TO]-(s2) " +
         "MERGE (s1)-[r:WALK]-(s2) " +
-        "SET r.distance = point.distance(s1.location, s2.location)")
+        "ON CREATE SET r.distance = point.distance(s1.location, s2.location)")
     void generateWalkEdgesForBatch(@Param("batchIds") List<Long> batchIds);
 
 
     @Query("MATCH (t:Transport) RETURN id(t)")
     List<Long> getAllTransportIds();
+
+    @Query("MATCH (t:Transport) RETURN count(t)")
+    long countTransports();
+
+    @Query("MATCH ()-[r:WALK]->() RETURN count(r)")
+    long countWalkEdges();
+
+    @Query("MATCH (t:Transport) " +
+        "WHERE point.withinBBox(t.location, " +
+        "      point({longitude: $minLon, latitude: $minLat}), point({longitude: $maxLon, latitude: $maxLat})) " +
+        "RETURN t.id AS id, t.name AS name, t.type AS category, t.line AS line, t.location AS location")
+    List<TileFeatureDto> findTileFeatures(
+        @Param("minLon") double minLon,
+        @Param("minLat") double minLat,
+        @Param("maxLon") double maxLon,
+        @Param("maxLat") double maxLat);
 }
@@ -51,10 +51,17 @@ public class OverpassApiService {
   /**
    * WebClient configured with increased buffer size for large Overpass API responses
    */
-  private final WebClient webClient = WebClient.builder()
-      .baseUrl("https://overpass-api.de/api")
-      .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_BUFFER_SIZE))
-      .build();
+  private final WebClient webClient;
+
+  /**
+   * Built from Spring's builder so requests are observed (metrics and a client span per call)
+   */
+  public OverpassApiService(WebClient.Builder webClientBuilder) {
+    this.webClient = webClientBuilder
+        .baseUrl("https://overpass-api.de/api")
+        .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_BUFFER_SIZE))
+        .build();
+  }
 
   public Mono<OverpassResponse> query(Double minLat, Double minLon, Double maxLat, Double maxLon) {
     MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
@@ -1,13 +1,19 @@
 package at.ac.tuwien.mogda.willgraph.service;
 
+import at.ac.tuwien.mogda.willgraph.controller.dto.DistanceMatrixDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.DistanceMatrixRequestDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.PointToPointDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixRequestDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixRowDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.WalkingDistanceDto;
 import at.ac.tuwien.mogda.willgraph.entity.PointOfInterestEntity;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PoIService {
 
@@ -19,7 +25,21 @@ public interface PoIService {
 
     PointToPointDistanceDto calculateDistanceBetweenPoints(Double fromLat, Double fromLon, Double toLat, Double toLon);
 
+    /**
+     * Great-circle distances and walking durations between all origin and destination points
+     */
+    DistanceMatrixDto calculateDistanceMatrix(DistanceMatrixRequestDto request);
+
     List<PoIDistanceDto> findPoIsNearby(double lat, double lng, double radius);
 
-    TransportPathDto calculateTransportPath(Double fromLat, Double fromLon, Double toLat, Double toLon, double maxWalkDistance) throws NotFoundException;
+    /**
+     * Cached routes are returned without admission, only a miss takes a permit for {@code client}
+     */
+    TransportPathDto calculateTransportPath(Double fromLat, Double fromLon, Double toLat, Double toLon, double maxWalkDistance,
+                                            String client) throws NotFoundException, AdmissionRejectedException;
+
+    /**
+     * Travel times from every origin to every destination, rows are passed to the consumer as they complete
+     */
+    void calculateTransportMatrix(TransportMatrixRequestDto request, Consumer<TransportMatrixRowDto> rowConsumer);
 }
@@ -1,15 +1,25 @@
 package at.ac.tuwien.mogda.willgraph.service;
 
+import at.ac.tuwien.mogda.willgraph.metrics.StageEvent;
 import at.ac.tuwien.mogda.willgraph.repository.AddressRepository;
 import at.ac.tuwien.mogda.willgraph.repository.TransportRepository;
+import at.ac.tuwien.mogda.willgraph.service.routing.PedestrianGraphService;
+import at.ac.tuwien.mogda.willgraph.service.routing.PedestrianNetworkLoadedEvent;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransitGraphService;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -19,6 +29,10 @@ public class ProximityLinkingService {
     private final TransportRepository transportRepository;
     private final Neo4jClient neo4jClient;
     private final TransactionTemplate transactionTemplate;
+    private final TileService tileService;
+    private final TransitGraphService transitGraphService;
+    private final PedestrianGraphService pedestrianGraphService;
+    private final StationHubService stationHubService;
 
     @Async
     public void waitForDataAndLink() {
@@ -28,10 +42,16 @@ public class ProximityLinkingService {
             waitForTransportImportCompletion();
 
             log.info("Transport data detected. Generating proximity links...");
-            transactionTemplate.executeWithoutResult(status -> transportRepository.createSpatialIndex());
-            transportRepository.createSpatialIndex();
-            addressRepository.generateAllProximityLinks();
-            generateWalkEdgesSafely();
+            tileService.invalidateLayer(TileLayer.TRANSPORT);
+            stage("spatial-index", () -> {
+                transactionTemplate.executeWithoutResult(status -> transportRepository.createSpatialIndex());
+                transportRepository.createSpatialIndex();
+            });
+            stage("proximity-links", addressRepository::generateAllProximityLinks);
+            stage("walk-edges", this::generateWalkEdgesSafely);
+            stage("refine-walking", this::refineWalkingDistances);
+            stage("consolidate-hubs", stationHubService::consolidate);
+            stage("reload-graph", transitGraphService::reload);
             log.info("Proximity links generated successfully.");
 
         } catch (InterruptedException e) {
@@ -40,6 +60,55 @@ public class ProximityLinkingService {
         }
     }
 
+    /**
+     * Databases imported before station hubs existed, or filled by the bulk loader, get their hubs at startup;
+     * an import still in progress is consolidated by {@link #waitForDataAndLink()} instead
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void consolidateHubsIfMissing() {
+        try {
+            if (isImportComplete() && !stationHubService.hasHubs()) {
+                log.info("Transport data without station hubs found, consolidating...");
+                stage("consolidate-hubs", stationHubService::consolidate);
+                stage("reload-graph", transitGraphService::reload);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not consolidate station hubs at startup", e);
+        }
+    }
+
+    /**
+     * Links created before the pedestrian network finished loading keep straight-line distances, so they are
+     * refined once it is ready; an import still in progress refines in {@link #waitForDataAndLink()} instead
+     */
+    @Async
+    @EventListener(PedestrianNetworkLoadedEvent.class)
+    public void refineWhenNetworkLoaded() {
+        try {
+            if (isImportComplete()) {
+                log.info("Pedestrian network loaded, refining walking distances...");
+                stage("refine-walking", this::refineWalkingDistances);
+                stage("relink-hubs", this::refreshHubs);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not refine walking distances", e);
+        }
+    }
+
+    /**
+     * Brings the hubs and the in-memory transit graph in line with regenerated walk edges: new hub links if hubs
+     * exist, a full consolidation otherwise
+     */
+    public void refreshHubs() {
+        if (stationHubService.hasHubs()) {
+            stationHubService.relink();
+        } else {
+            stationHubService.consolidate();
+        }
+        transitGraphService.reload();
+    }
+
     public void generateProximityLinksSafely() {
         List<Long> allTransportIds = transportRepository.getAllTransportIds();
         int batchSize = 500;
@@ -62,6 +131,68 @@ public class ProximityLinkingService {
         }
     }
 
+    /**
+     * The links above are created from straight-line distances. With a pedestrian network available their
+     * distances are replaced by the walking distance along footways, one one-to-many query per station.
+     * Without one this does nothing; {@link #refineWhenNetworkLoaded()} runs it once the network is ready.
+     */
+    public void refineWalkingDistances() {
+        if (!pedestrianGraphService.isAvailable()) {
+            return;
+        }
+        List<Long> allIds = transportRepository.getAllTransportIds();
+        int batchSize = 500;
+        for (int i = 0; i < allIds.size(); i += batchSize) {
+            int end = Math.min(allIds.size(), i + batchSize);
+            List<Long> batch = allIds.subList(i, end);
+            transactionTemplate.executeWithoutResult(status -> {
+                refineLinks(batch, "MATCH (t:Transport)<-[r:CLOSE_TO_STATION]-(o:Address) WHERE id(t) IN $ids ",
+                        "SET r.distanceInMeters = row.meters, r.walkingDurationInMinutes = row.meters / 80.0");
+                refineLinks(batch, "MATCH (t:Transport)-[r:WALK]-(o:Transport) WHERE id(t) IN $ids AND id(t) < id(o) ",
+                        "SET r.distance = row.meters");
+            });
+            log.info("Refined walking distances for stations {} to {}", i, end);
+        }
+    }
+
+    private void refineLinks(List<Long> transportIds, String match, String update) {
+        Map<Long, List<Map<String, Object>>> byStation = new LinkedHashMap<>();
+        neo4jClient.query(match +
+                        "RETURN id(t) AS station, t.location.latitude AS lat, t.location.longitude AS lon, " +
+                        "       id(r) AS rel, o.location.latitude AS otherLat, o.location.longitude AS otherLon")
+                .bind(transportIds).to("ids")
+                .fetch()
+                .all()
+                .forEach(row -> byStation.computeIfAbsent((Long) row.get("station"), k -> new ArrayList<>()).add(row));
+
+        List<Map<String, Object>> updates = new ArrayList<>();
+        for (List<Map<String, Object>> rows : byStation.values()) {
+            double[] lat = new double[rows.size()];
+            double[] lon = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                lat[i] = ((Number) rows.get(i).get("otherLat")).doubleValue();
+                lon[i] = ((Number) rows.get(i).get("otherLon")).doubleValue();
+            }
+            double[] meters = pedestrianGraphService.walkingMeters(
+                    ((Number) rows.getFirst().get("lat")).doubleValue(), ((Number) rows.getFirst().get("lon")).doubleValue(), lat, lon);
+            for (int i = 0; i < rows.size(); i++) {
+                updates.add(Map.of("rel", rows.get(i).get("rel"), "meters", meters[i]));
+            }
+        }
+        neo4jClient.query("UNWIND $rows AS row MATCH ()-[r]->() WHERE id(r) = row.rel " + update)
+                .bind(updates).to("rows")
+                .run();
+    }
+
+    private static void stage(String stage, Runnable step) {
+        StageEvent event = StageEvent.begin("linking", stage);
+        try {
+            step.run();
+        } finally {
+            event.finish();
+        }
+    }
+
     private void waitForTransportImportCompletion() throws InterruptedException {
         while (!isImportComplete()) {
             Thread.sleep(3000);
@@ -0,0 +1,56 @@
+package at.ac.tuwien.mogda.willgraph.service;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.AmenityOverviewDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.AnytimeSearchResultDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateWithScoreDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchProgressDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking variants of the search, nearby and transport-path queries on the reactive Neo4j driver. Records
+ * are pulled from Bolt only as fast as the subscriber requests them, and cancelling the subscription (e.g. a
+ * disconnected client) closes the session and stops the query.
+ */
+public interface ReactiveSearchService {
+
+    /**
+     * Same results as {@link RealEstateService#searchWithFilters}; emits NotFoundException for an unknown region
+     */
+    Flux<RealEstateWithScoreDto> searchWithFilters(ListingSearchFilterDto filter);
+
+    /**
+     * The same search in stages: the candidates ranked by amenities, then refined as their transit and walking
+     * POI features arrive in batches, and finally the normalized top results
+     */
+    Flux<SearchProgressDto> searchProgressively(ListingSearchFilterDto filter);
+
+    /**
+     * With a transaction timeout other than the one of interactive searches
+     */
+    Flux<SearchProgressDto> searchProgressively(ListingSearchFilterDto filter, Duration timeout);
+
+    /**
+     * Ranks by the cheap amenity and walking scores and refines the transit scores of the most promising
+     * candidates until the deadline, measured from the call. Candidates are always loaded completely, so the
+     * deadline only bounds the refinement.
+     */
+    Mono<AnytimeSearchResultDto> searchAnytime(ListingSearchFilterDto filter, Duration deadline);
+
+    Flux<PoIDistanceDto> findPoIsNearby(double lat, double lng, double radius);
+
+    Flux<StationDistanceDto> findStationsNearby(double lat, double lng, double radius);
+
+    Flux<AmenityOverviewDto> findAmenityOverview(double lat, double lng, double radius);
+
+    /**
+     * Empty when no path is found
+     */
+    Mono<TransportPathDto> findTransportPath(double fromLat, double fromLon, double toLat, double toLon, double maxWalkDistance);
+}
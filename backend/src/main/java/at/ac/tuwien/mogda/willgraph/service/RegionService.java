@@ -1,14 +1,16 @@
 package at.ac.tuwien.mogda.willgraph.service;
 
-import at.ac.tuwien.mogda.willgraph.controller.dto.RegionDto;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
-
-import java.util.List;
+import at.ac.tuwien.mogda.willgraph.service.region.GeometryDetail;
 
 public interface RegionService {
-    List<RegionDto> getAllRegions(Integer limit);
+    /**
+     * JSON array of regions matching the query (all regions if blank) with geometry at the given detail.
+     * Each region document is serialized once per detail level and served from cache afterwards.
+     */
+    byte[] searchRegionsJson(String query, Integer limit, GeometryDetail detail);
 
-    RegionDto getRegionById(String iso) throws NotFoundException;
+    byte[] getRegionJsonById(String iso, GeometryDetail detail) throws NotFoundException;
 
-    List<RegionDto> searchRegions(String query, Integer limit);
+    void evictRegionJsonCache();
 }
@@ -0,0 +1,35 @@
+package at.ac.tuwien.mogda.willgraph.service;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.RegionStatisticsDto;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+
+import java.util.List;
+
+/**
+ * Materialized price statistics per region (Gemeinde and Bezirk), maintained incrementally
+ * as listings change so aggregate reads never scan listings.
+ */
+public interface RegionStatisticsService {
+
+    void listingAdded(ListingEntity listing);
+
+    void listingRemoved(ListingEntity listing);
+
+    void listingUpdated(ListingEntity before, ListingEntity after);
+
+    /**
+     * Persist all regions whose statistics changed since the last flush onto their Region nodes
+     */
+    void flush();
+
+    /**
+     * Recompute everything from the stored listings. Only needed once for data imported
+     * before statistics existed.
+     */
+    void rebuild();
+
+    RegionStatisticsDto getStatistics(String iso) throws NotFoundException;
+
+    List<RegionStatisticsDto> getAllStatistics();
+}
@@ -0,0 +1,46 @@
+package at.ac.tuwien.mogda.willgraph.service;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SavedSearchDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SavedSearchMatchDto;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Saved searches with alerts for new listings. Instead of re-running every search after an import, each new or
+ * changed listing is matched against an in-memory index of the stored filters (region, price and area ranges,
+ * commute area), so the cost of an import grows with the imported listings, not with the saved searches.
+ * Amenity and POI priorities only rank results and do not affect matching.
+ */
+public interface SavedSearchService {
+
+    SavedSearchDto create(SavedSearchDto savedSearch) throws NotFoundException;
+
+    List<SavedSearchDto> findByOwner(String owner);
+
+    void delete(String id) throws NotFoundException;
+
+    /**
+     * Matched listings since the given ISO timestamp (all when null), newest first
+     */
+    List<RealEstateDto> findMatches(String id, String since, int limit) throws NotFoundException;
+
+    /**
+     * Matches of one saved search as they are recorded
+     */
+    Flux<SavedSearchMatchDto> streamMatches(String id) throws NotFoundException;
+
+    /**
+     * Matches a new listing, from the ListingImporter or, for listings the scrapers wrote to Neo4j, the
+     * ListingScanScheduler. Listings without price or area are skipped, like the search query skips them.
+     */
+    void listingAdded(ListingEntity listing);
+
+    /**
+     * Record the matches collected since the last flush, called after each import batch
+     */
+    void flush();
+}
@@ -0,0 +1,28 @@
+package at.ac.tuwien.mogda.willgraph.service;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchJobDto;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobPriority;
+
+/**
+ * Listing searches run by a worker pool instead of the request thread. Interactive jobs start before bulk ones,
+ * submitting a filter that is already queued or running shares that job under a new id, and results are kept for
+ * a TTL.
+ */
+public interface SearchJobService {
+
+    /**
+     * Fails when the job queue is full or {@code client}, the admission client id of the caller, already has too
+     * many jobs queued or running
+     */
+    SearchJobDto submit(ListingSearchFilterDto filter, SearchJobPriority priority, String client) throws AdmissionRejectedException;
+
+    SearchJobDto get(String id) throws NotFoundException;
+
+    /**
+     * Cancels the caller's job id; a job shared with other submissions keeps running for them
+     */
+    void cancel(String id) throws NotFoundException;
+}
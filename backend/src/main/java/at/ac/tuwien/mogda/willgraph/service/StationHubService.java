@@ -0,0 +1,175 @@
+package at.ac.tuwien.mogda.willgraph.service;
+
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Consolidates the per-stop {@code Transport} nodes of the GTFS import into {@code StationHub} nodes.
+ * Stops with the same name within {@code app.routing.hub-radius} become platforms of one hub
+ * ({@code (:Transport)-[:PLATFORM_OF]->(:StationHub)}), and hubs are connected by {@code HUB_LINK}
+ * relationships carrying the fastest ride or walk between any of their platforms. Scoring and transport paths
+ * route on the hubs only, so they have to exist whenever stops do; see {@link ProximityLinkingService}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StationHubService {
+
+    /**
+     * Platform, track and direction suffixes that GTFS feeds append to stop names
+     */
+    private static final Pattern PLATFORM_SUFFIX = Pattern.compile(
+            "\\s*([,(-]\\s*)?(bahnsteig|bstg\\.?|steig|gleis|platform|richtung)\\b.*$");
+    private static final int BATCH_SIZE = 1000;
+
+    private final Neo4jClient neo4jClient;
+    private final TransactionTemplate transactionTemplate;
+    private final RoutingConfig routingConfig;
+
+    public void consolidate() {
+        long start = System.currentTimeMillis();
+        List<Stop> stops = neo4jClient.query("MATCH (t:Transport) WHERE t.location IS NOT NULL " +
+                        "RETURN t.id AS id, t.name AS name, t.location.latitude AS lat, t.location.longitude AS lon")
+                .fetch()
+                .all()
+                .stream()
+                .map(row -> new Stop((String) row.get("id"), (String) row.get("name"),
+                        ((Number) row.get("lat")).doubleValue(), ((Number) row.get("lon")).doubleValue()))
+                .toList();
+        List<Map<String, Object>> hubs = cluster(stops);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            neo4jClient.query("CREATE CONSTRAINT station_hub_id_unique IF NOT EXISTS FOR (h:StationHub) REQUIRE h.id IS UNIQUE").run();
+            neo4jClient.query("CREATE POINT INDEX station_hub_loc_idx IF NOT EXISTS FOR (h:StationHub) ON (h.location)").run();
+        });
+        transactionTemplate.executeWithoutResult(status -> neo4jClient.query("MATCH (h:StationHub) DETACH DELETE h").run());
+        for (int i = 0; i < hubs.size(); i += BATCH_SIZE) {
+            List<Map<String, Object>> batch = hubs.subList(i, Math.min(hubs.size(), i + BATCH_SIZE));
+            transactionTemplate.executeWithoutResult(status -> neo4jClient.query(
+                            "UNWIND $hubs AS hub " +
+                            "CREATE (h:StationHub {id: hub.id, name: hub.name, " +
+                            "       location: point({latitude: hub.lat, longitude: hub.lon}), " +
+                            "       platformCount: size(hub.platforms), transferPenaltyMinutes: hub.transferPenaltyMinutes}) " +
+                            "WITH h, hub " +
+                            "UNWIND hub.platforms AS platformId " +
+                            "MATCH (t:Transport {id: platformId}) " +
+                            "CREATE (t)-[:PLATFORM_OF]->(h)")
+                    .bind(batch).to("hubs")
+                    .run());
+        }
+        relink();
+        log.info("Consolidated {} stops into {} station hubs in {} ms", stops.size(), hubs.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Recreates the {@code HUB_LINK}s from the current rides and walk edges in one transaction, so readers never
+     * see the hubs unconnected. Each link keeps the kind and length of its fastest connection for transport paths.
+     */
+    public void relink() {
+        transactionTemplate.executeWithoutResult(status -> {
+            neo4jClient.query("MATCH (:StationHub)-[l:HUB_LINK]->(:StationHub) DELETE l").run();
+            neo4jClient.query(
+                            "MATCH (h1:StationHub)<-[:PLATFORM_OF]-(:Transport)-[r:CONNECTED_TO|WALK]-(:Transport)-[:PLATFORM_OF]->(h2:StationHub) " +
+                            "WHERE h1.id < h2.id " +
+                            "WITH h1, h2, r, CASE type(r) WHEN 'WALK' THEN r.distance / 80.0 " +
+                            "                ELSE coalesce(r.travelTimeInMinutes, 2.0) END AS minutes " +
+                            "ORDER BY minutes ASC " +
+                            "WITH h1, h2, head(collect({minutes: minutes, kind: type(r), " +
+                            "     meters: CASE type(r) WHEN 'WALK' THEN r.distance ELSE r.distanceInMeters END})) AS fastest " +
+                            "CREATE (h1)-[:HUB_LINK {travelTimeInMinutes: fastest.minutes, segmentType: fastest.kind, " +
+                            "       distanceInMeters: coalesce(fastest.meters, point.distance(h1.location, h2.location))}]->(h2)")
+                    .run();
+        });
+    }
+
+    public boolean hasHubs() {
+        return neo4jClient.query("MATCH (h:StationHub) RETURN count(h) > 0")
+                .fetchAs(Boolean.class)
+                .one()
+                .orElse(false);
+    }
+
+    private List<Map<String, Object>> cluster(List<Stop> stops) {
+        Map<String, List<Stop>> byName = new LinkedHashMap<>();
+        for (Stop stop : stops) {
+            byName.computeIfAbsent(normalize(stop), k -> new ArrayList<>()).add(stop);
+        }
+
+        double radius = routingConfig.getHubRadius();
+        List<Map<String, Object>> hubs = new ArrayList<>();
+        for (List<Stop> group : byName.values()) {
+            int[] parent = new int[group.size()];
+            for (int i = 0; i < parent.length; i++) {
+                parent[i] = i;
+                for (int j = 0; j < i; j++) {
+                    Stop a = group.get(i);
+                    Stop b = group.get(j);
+                    if (GeoMath.haversine(a.lat(), a.lon(), b.lat(), b.lon()) <= radius) {
+                        parent[find(parent, i)] = find(parent, j);
+                    }
+                }
+            }
+            Map<Integer, List<Stop>> clusters = new LinkedHashMap<>();
+            for (int i = 0; i < group.size(); i++) {
+                clusters.computeIfAbsent(find(parent, i), k -> new ArrayList<>()).add(group.get(i));
+            }
+            clusters.values().forEach(platforms -> hubs.add(hub(platforms)));
+        }
+        return hubs;
+    }
+
+    private Map<String, Object> hub(List<Stop> platforms) {
+        double lat = platforms.stream().mapToDouble(Stop::lat).average().orElse(0.0);
+        double lon = platforms.stream().mapToDouble(Stop::lon).average().orElse(0.0);
+        double meanRadius = platforms.stream().mapToDouble(p -> GeoMath.haversine(lat, lon, p.lat(), p.lon())).average().orElse(0.0);
+        String id = platforms.stream().map(Stop::id).min(String::compareTo).orElseThrow();
+
+        Map<String, Object> hub = new HashMap<>();
+        hub.put("id", "hub:" + id);
+        hub.put("name", platforms.getFirst().name() != null ? platforms.getFirst().name() : id);
+        hub.put("lat", lat);
+        hub.put("lon", lon);
+        hub.put("platforms", platforms.stream().map(Stop::id).toList());
+        // Changing platforms means crossing the hub, on average twice the mean distance to its centre
+        hub.put("transferPenaltyMinutes", platforms.size() > 1
+                ? routingConfig.getHubTransferBaseMinutes() + GeoMath.walkingMinutes(2 * meanRadius)
+                : 0.0);
+        return hub;
+    }
+
+    /**
+     * Stops without a name are never merged
+     */
+    private static String normalize(Stop stop) {
+        if (stop.name() == null || stop.name().isBlank()) {
+            return "#" + stop.id();
+        }
+        String name = stop.name().toLowerCase(Locale.ROOT).trim();
+        name = PLATFORM_SUFFIX.matcher(name).replaceFirst("");
+        return name.replaceAll("\\s+", " ");
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private record Stop(String id, String name, double lat, double lon) {
+    }
+}
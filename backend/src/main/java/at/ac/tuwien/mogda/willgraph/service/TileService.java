@@ -0,0 +1,19 @@
+package at.ac.tuwien.mogda.willgraph.service;
+
+import at.ac.tuwien.mogda.willgraph.service.tile.TileCoordinate;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
+
+public interface TileService {
+
+    /**
+     * Encoded Mapbox Vector Tile for the given layer, served from cache when possible
+     */
+    byte[] getTile(TileLayer layer, TileCoordinate tile);
+
+    /**
+     * Drop every cached tile (on all zoom levels) whose buffered extent contains the given point
+     */
+    void invalidatePoint(TileLayer layer, double lat, double lon);
+
+    void invalidateLayer(TileLayer layer);
+}
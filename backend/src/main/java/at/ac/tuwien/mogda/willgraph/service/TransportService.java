@@ -1,9 +1,16 @@
 package at.ac.tuwien.mogda.willgraph.service;
 
+import at.ac.tuwien.mogda.willgraph.controller.dto.IsochroneDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
 
 import java.util.List;
 
 public interface TransportService {
     List<StationDistanceDto> findStationsByLocation(double lat, double lng, double v);
+
+    /**
+     * Everything reachable from the point within the time budget, using one bounded multi-source
+     * Dijkstra over CONNECTED_TO and WALK edges. Stations within maxWalkDistance of the origin are the sources.
+     */
+    IsochroneDto computeIsochrone(double lat, double lng, double budgetMinutes, double maxWalkDistance);
 }
@@ -0,0 +1,330 @@
+package at.ac.tuwien.mogda.willgraph.service.admission;
+
+import at.ac.tuwien.mogda.willgraph.config.AdmissionConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RegionStatisticsDto;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
+import at.ac.tuwien.mogda.willgraph.service.RegionStatisticsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control in front of the expensive endpoints (POI-weighted searches, transport paths). Every request
+ * is given a cost estimated from its filter and runs only while its cost fits into a global budget; a client
+ * with more than its own budget running or queued is shed right away, so one user dragging POI pins cannot
+ * starve everyone else. Requests that do not fit wait in a short FIFO queue and are shed with
+ * {@link AdmissionRejectedException} (429 + Retry-After) when the queue is full or the wait times out.
+ * Cheap endpoints never pass through here.
+ * <p>
+ * The admitted queries run in read-only transactions with a timeout, so Neo4j terminates them once the
+ * client has long given up. Meters: {@code willgraph.admission.requests} (outcome, reason),
+ * {@code willgraph.admission.wait}, {@code willgraph.admission.cost} and the in-use and queued gauges.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    private final AdmissionConfig config;
+    private final RegionStatisticsService regionStatisticsService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate searchTransaction;
+    private final TransactionTemplate transportPathTransaction;
+    private final Timer waitTimer;
+    private final DistributionSummary costSummary;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private final Map<String, Integer> clientCosts = new HashMap<>();
+    private int inUse;
+
+    /**
+     * Listing counts per region name, null until first loaded
+     */
+    private volatile Map<String, Long> listingsByRegion;
+
+    public AdmissionControl(AdmissionConfig config, RegionStatisticsService regionStatisticsService,
+                            MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.config = config;
+        this.regionStatisticsService = regionStatisticsService;
+        this.meterRegistry = meterRegistry;
+        this.searchTransaction = readOnlyTransaction(transactionManager, config.getSearchTimeoutSeconds());
+        this.transportPathTransaction = readOnlyTransaction(transactionManager, config.getTransportPathTimeoutSeconds());
+        this.trustedProxies = config.getTrustedProxies().stream().map(IpAddressMatcher::new).toList();
+        this.waitTimer = Timer.builder("willgraph.admission.wait")
+                .description("Time admitted requests waited for search budget")
+                .register(meterRegistry);
+        this.costSummary = DistributionSummary.builder("willgraph.admission.cost")
+                .description("Estimated cost of requests asking for admission")
+                .register(meterRegistry);
+        Gauge.builder("willgraph.admission.in_use", this, a -> a.inUse)
+                .description("Cost units of the requests currently running")
+                .register(meterRegistry);
+        Gauge.builder("willgraph.admission.queued", queue, ArrayDeque::size)
+                .description("Requests waiting for search budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Held while the request runs, closing it hands the budget to the next queued request
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Waiter(int cost, Condition turn) {
+    }
+
+    /**
+     * Blocks until the request fits into the budgets, at most {@code queueTimeoutMs}
+     */
+    public Permit acquire(String client, int requestedCost) throws AdmissionRejectedException {
+        if (!config.getEnabled()) {
+            return () -> {
+            };
+        }
+        int cost = Math.clamp(requestedCost, 1, Math.min(config.getGlobalBudget(), config.getPerClientBudget()));
+        costSummary.record(cost);
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (clientCosts.getOrDefault(client, 0) + cost > config.getPerClientBudget()) {
+                throw shed("client-budget");
+            }
+            clientCosts.merge(client, cost, Integer::sum);
+            if (queue.isEmpty() && inUse + cost <= config.getGlobalBudget()) {
+                return admit(client, cost, start);
+            }
+            if (queue.size() >= config.getQueueSize()) {
+                releaseClient(client, cost);
+                throw shed("queue-full");
+            }
+            Waiter waiter = new Waiter(cost, lock.newCondition());
+            queue.addLast(waiter);
+            long remaining = TimeUnit.MILLISECONDS.toNanos(config.getQueueTimeoutMs());
+            try {
+                // FIFO without barging: only the head of the queue is admitted, and only once its cost fits
+                while (queue.peekFirst() != waiter || inUse + cost > config.getGlobalBudget()) {
+                    if (remaining <= 0) {
+                        leave(waiter, client);
+                        throw shed("queue-timeout");
+                    }
+                    remaining = waiter.turn().awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                leave(waiter, client);
+                Thread.currentThread().interrupt();
+                throw shed("interrupted");
+            }
+            queue.removeFirst();
+            Permit permit = admit(client, cost, start);
+            // A small head may leave room for the next one as well
+            signalHead();
+            return permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One cost unit per {@code candidatesPerCostUnit} listings in the region, multiplied by the POIs (each one
+     * shortest path traversal per candidate) and amenities (one spatial lookup per candidate) to score
+     */
+    public int searchCost(ListingSearchFilterDto filter) {
+        long candidates = filter.getListing() != null && filter.getListing().getRegion() != null
+                ? regionListings(filter.getListing().getRegion()) : 0L;
+        double candidateUnits = Math.max(1.0, (double) candidates / config.getCandidatesPerCostUnit());
+        double perCandidate = 1.0
+                + config.getPoiCostWeight() * size(filter.getPoiPriorities())
+                + config.getAmenityCostWeight() * size(filter.getAmenityPriorities());
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(candidateUnits * perCandidate));
+    }
+
+    public int transportPathCost() {
+        return config.getTransportPathCost();
+    }
+
+    /**
+     * One cost unit per {@code matrixCellsPerCostUnit} origin-destination pairs
+     */
+    public int transportMatrixCost(int origins, int destinations) {
+        return (int) Math.max(1L, Math.ceilDiv((long) origins * destinations, config.getMatrixCellsPerCostUnit()));
+    }
+
+    /**
+     * The remote address, unless the request comes from a trusted proxy: then the configured client header or
+     * the last X-Forwarded-For hop that is not a trusted proxy. Hops further left are set by the client itself,
+     * so rotating them cannot evade the per-client budget.
+     */
+    public String clientId(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (!isTrustedProxy(remote)) {
+            return remote;
+        }
+        String client = request.getHeader(config.getClientHeader());
+        if (client != null && !client.isBlank()) {
+            return client.strip();
+        }
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || forwarded.isBlank()) {
+            return remote;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].strip();
+            if (!hop.isEmpty() && !isTrustedProxy(hop)) {
+                return hop;
+            }
+        }
+        return hops[0].strip();
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Not an IP address, e.g. a forged X-Forwarded-For hop
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public TransactionTemplate searchTransaction() {
+        return searchTransaction;
+    }
+
+    public TransactionTemplate transportPathTransaction() {
+        return transportPathTransaction;
+    }
+
+    private Permit admit(String client, int cost, long start) {
+        inUse += cost;
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        count("admitted", "none");
+        return new Permit() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                lock.lock();
+                try {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+                    inUse -= cost;
+                    releaseClient(client, cost);
+                    signalHead();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    private void leave(Waiter waiter, String client) {
+        boolean wasHead = queue.peekFirst() == waiter;
+        queue.remove(waiter);
+        releaseClient(client, waiter.cost());
+        if (wasHead) {
+            signalHead();
+        }
+    }
+
+    private void releaseClient(String client, int cost) {
+        clientCosts.computeIfPresent(client, (k, current) -> current > cost ? current - cost : null);
+    }
+
+    private void signalHead() {
+        Waiter head = queue.peekFirst();
+        if (head != null) {
+            head.turn().signal();
+        }
+    }
+
+    private AdmissionRejectedException shed(String reason) {
+        count("shed", reason);
+        log.debug("Shed request: {} (in use {}, queued {})", reason, inUse, queue.size());
+        return new AdmissionRejectedException("Search capacity exhausted: " + reason, config.getRetryAfterSeconds());
+    }
+
+    private void count(String outcome, String reason) {
+        Counter.builder("willgraph.admission.requests")
+                .description("Requests admitted or shed by the admission control")
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Listing counts from the materialized region statistics, refreshed at most once a minute
+     */
+    /**
+     * Never touches the statistics service, whose first load may rebuild from every listing; until the counts
+     * are loaded the configured default is assumed
+     */
+    private long regionListings(String region) {
+        Map<String, Long> counts = listingsByRegion;
+        return counts != null ? counts.getOrDefault(region, 0L) : config.getDefaultRegionListings();
+    }
+
+    /**
+     * Loads the statistics in the background once the application is ready, so neither admission nor the first
+     * statistics request pays for a rebuild
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshListingsByRegion();
+    }
+
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void refreshListingsByRegion() {
+        try {
+            listingsByRegion = regionStatisticsService.getAllStatistics().stream()
+                    .filter(s -> s.getName() != null && s.getListingCount() != null)
+                    .collect(Collectors.toMap(RegionStatisticsDto::getName, RegionStatisticsDto::getListingCount, Long::sum));
+        } catch (RuntimeException e) {
+            log.warn("Could not load listing counts per region, keeping the previous estimate", e);
+        }
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private static TransactionTemplate readOnlyTransaction(PlatformTransactionManager transactionManager, int timeoutSeconds) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setTimeout(timeoutSeconds);
+        return template;
+    }
+}
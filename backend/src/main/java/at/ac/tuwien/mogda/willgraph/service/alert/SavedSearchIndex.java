@@ -0,0 +1,119 @@
+package at.ac.tuwien.mogda.willgraph.service.alert;
+
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Reverse index of saved searches for matching single listings against all of them (percolation).
+ * Searches are bucketed by region and by logarithmic price and area ranges; a search is entered into every
+ * price/area cell its ranges overlap, so a listing only looks at the searches of its own regions and cell and
+ * checks their exact ranges. The cost of a match is independent of the number of searches elsewhere.
+ * <p>
+ * Not thread-safe, guarded by the owning service.
+ */
+public class SavedSearchIndex {
+
+    private static final double PRICE_FIRST_BOUND = 100.0;
+    private static final double PRICE_FACTOR = 2.0;
+    private static final int PRICE_BUCKETS = 22;
+    private static final double AREA_FIRST_BOUND = 10.0;
+    private static final double AREA_FACTOR = 1.5;
+    private static final int AREA_BUCKETS = 14;
+
+    private final Map<String, List<Entry>[]> cellsByRegion = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Criteria of one saved search; null bounds are open, a null commute area accepts every location
+     */
+    public record Entry(String id, String region, Double minPrice, Double maxPrice, Double minArea, Double maxArea,
+                        PreparedGeometry commuteArea) {
+
+        boolean matches(double price, double area, Point location) {
+            return (minPrice == null || price >= minPrice) && (maxPrice == null || price <= maxPrice)
+                    && (minArea == null || area >= minArea) && (maxArea == null || area <= maxArea)
+                    && (commuteArea == null || commuteArea.contains(location));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void add(Entry entry) {
+        remove(entry.id());
+        entries.put(entry.id(), entry);
+        List<Entry>[] cells = cellsByRegion.computeIfAbsent(entry.region(), k -> new List[PRICE_BUCKETS * AREA_BUCKETS]);
+        forEachCell(entry, cell -> {
+            if (cells[cell] == null) {
+                cells[cell] = new ArrayList<>(2);
+            }
+            cells[cell].add(entry);
+        });
+    }
+
+    public void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        List<Entry>[] cells = cellsByRegion.get(entry.region());
+        forEachCell(entry, cell -> cells[cell].remove(entry));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ids of the searches on any of the regions whose ranges and commute area contain the listing
+     */
+    public List<String> match(List<String> regions, double price, double area, Point location) {
+        int cell = cell(bucket(price, PRICE_FIRST_BOUND, PRICE_FACTOR, PRICE_BUCKETS),
+                bucket(area, AREA_FIRST_BOUND, AREA_FACTOR, AREA_BUCKETS));
+        List<String> matches = new ArrayList<>();
+        for (String region : regions) {
+            List<Entry>[] cells = cellsByRegion.get(region);
+            if (cells == null || cells[cell] == null) {
+                continue;
+            }
+            for (Entry entry : cells[cell]) {
+                if (entry.matches(price, area, location)) {
+                    matches.add(entry.id());
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static void forEachCell(Entry entry, IntConsumer action) {
+        int fromPrice = entry.minPrice() == null ? 0 : bucket(entry.minPrice(), PRICE_FIRST_BOUND, PRICE_FACTOR, PRICE_BUCKETS);
+        int toPrice = entry.maxPrice() == null ? PRICE_BUCKETS - 1 : bucket(entry.maxPrice(), PRICE_FIRST_BOUND, PRICE_FACTOR, PRICE_BUCKETS);
+        int fromArea = entry.minArea() == null ? 0 : bucket(entry.minArea(), AREA_FIRST_BOUND, AREA_FACTOR, AREA_BUCKETS);
+        int toArea = entry.maxArea() == null ? AREA_BUCKETS - 1 : bucket(entry.maxArea(), AREA_FIRST_BOUND, AREA_FACTOR, AREA_BUCKETS);
+        for (int price = fromPrice; price <= toPrice; price++) {
+            for (int area = fromArea; area <= toArea; area++) {
+                action.accept(cell(price, area));
+            }
+        }
+    }
+
+    private static int cell(int priceBucket, int areaBucket) {
+        return priceBucket * AREA_BUCKETS + areaBucket;
+    }
+
+    /**
+     * Bucket 0 holds values below {@code firstBound}, bucket i values in [firstBound * factor^(i-1), firstBound * factor^i),
+     * the last one everything above
+     */
+    static int bucket(double value, double firstBound, double factor, int buckets) {
+        if (!(value >= firstBound)) {
+            return 0;
+        }
+        int bucket = 1 + (int) Math.floor(Math.log(value / firstBound) / Math.log(factor));
+        return Math.min(bucket, buckets - 1);
+    }
+}
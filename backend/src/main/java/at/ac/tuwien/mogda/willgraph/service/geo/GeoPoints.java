@@ -0,0 +1,66 @@
+package at.ac.tuwien.mogda.willgraph.service.geo;
+
+/**
+ * Structure-of-arrays point set on the unit sphere. Every point is stored once as a 3D unit vector so the
+ * distance kernels only need subtractions and multiply-adds per pair instead of trigonometry. The degrees are
+ * kept as well for the scalar path, which uses {@link at.ac.tuwien.mogda.willgraph.service.routing.GeoMath#haversine}.
+ */
+public final class GeoPoints {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    private GeoPoints(double[] latitudes, double[] longitudes, double[] x, double[] y, double[] z) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public static GeoPoints of(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays differ in length");
+        }
+        int n = latitudes.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            double cosLat = Math.cos(lat);
+            x[i] = cosLat * Math.cos(lon);
+            y[i] = cosLat * Math.sin(lon);
+            z[i] = Math.sin(lat);
+        }
+        return new GeoPoints(latitudes, longitudes, x, y, z);
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    double[] latitudes() {
+        return latitudes;
+    }
+
+    double[] longitudes() {
+        return longitudes;
+    }
+
+    double[] x() {
+        return x;
+    }
+
+    double[] y() {
+        return y;
+    }
+
+    double[] z() {
+        return z;
+    }
+}
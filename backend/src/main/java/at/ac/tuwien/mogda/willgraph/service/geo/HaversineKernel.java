@@ -0,0 +1,15 @@
+package at.ac.tuwien.mogda.willgraph.service.geo;
+
+/**
+ * Computes one row of a great-circle distance matrix. The distance is derived from the chord between
+ * the unit vectors, {@code 2R * asin(chord / 2)}, which equals the haversine formula.
+ */
+public interface HaversineKernel {
+
+    /**
+     * Writes the distance in metres from {@code from[row]} to every point of {@code to} into {@code out}
+     */
+    void row(GeoPoints from, int row, GeoPoints to, double[] out);
+
+    String name();
+}
@@ -0,0 +1,34 @@
+package at.ac.tuwien.mogda.willgraph.service.geo;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the fastest available {@link HaversineKernel}. The Vector API is still incubating, so the JVM
+ * has to be started with {@code --add-modules jdk.incubator.vector}; otherwise the scalar loop is used.
+ */
+@Slf4j
+public final class HaversineKernels {
+
+    private static final HaversineKernel BEST = select();
+
+    private HaversineKernels() {
+    }
+
+    public static HaversineKernel best() {
+        return BEST;
+    }
+
+    private static HaversineKernel select() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                HaversineKernel kernel = new VectorHaversineKernel();
+                log.info("Using {} haversine kernel", kernel.name());
+                return kernel;
+            } catch (LinkageError e) {
+                log.warn("Vector API present but not usable, falling back to scalar haversine kernel", e);
+            }
+        }
+        log.info("jdk.incubator.vector not available, using scalar haversine kernel");
+        return new ScalarHaversineKernel();
+    }
+}
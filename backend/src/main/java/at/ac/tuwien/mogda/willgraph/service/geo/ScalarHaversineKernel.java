@@ -0,0 +1,32 @@
+package at.ac.tuwien.mogda.willgraph.service.geo;
+
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+
+/**
+ * Plain loop over {@link GeoMath#haversine}, used when the Vector API module is not available
+ */
+public final class ScalarHaversineKernel implements HaversineKernel {
+
+    @Override
+    public void row(GeoPoints from, int row, GeoPoints to, double[] out) {
+        tail(from, row, to, 0, out);
+    }
+
+    /**
+     * Distances from {@code from[row]} to the points of {@code to} starting at {@code start}
+     */
+    static void tail(GeoPoints from, int row, GeoPoints to, int start, double[] out) {
+        double lat = from.latitudes()[row];
+        double lon = from.longitudes()[row];
+        double[] toLat = to.latitudes();
+        double[] toLon = to.longitudes();
+        for (int j = start; j < toLat.length; j++) {
+            out[j] = GeoMath.haversine(lat, lon, toLat[j], toLon[j]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
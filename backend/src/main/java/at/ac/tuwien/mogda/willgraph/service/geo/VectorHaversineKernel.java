@@ -0,0 +1,47 @@
+package at.ac.tuwien.mogda.willgraph.service.geo;
+
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of {@link ScalarHaversineKernel} on the incubating Vector API. Only loaded through
+ * {@link HaversineKernels} when {@code jdk.incubator.vector} is part of the boot layer.
+ */
+public final class VectorHaversineKernel implements HaversineKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DIAMETER_METERS = 2.0 * GeoMath.EARTH_RADIUS_METERS;
+
+    @Override
+    public void row(GeoPoints from, int row, GeoPoints to, double[] out) {
+        double ax = from.x()[row];
+        double ay = from.y()[row];
+        double az = from.z()[row];
+        double[] bx = to.x();
+        double[] by = to.y();
+        double[] bz = to.z();
+
+        int j = 0;
+        int upper = SPECIES.loopBound(bx.length);
+        for (; j < upper; j += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, bx, j).sub(ax);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, by, j).sub(ay);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, bz, j).sub(az);
+            DoubleVector chordSquared = dx.mul(dx).add(dy.fma(dy, dz.mul(dz)));
+            chordSquared.sqrt()
+                    .mul(0.5)
+                    .min(1.0)
+                    .lanewise(VectorOperators.ASIN)
+                    .mul(DIAMETER_METERS)
+                    .intoArray(out, j);
+        }
+        ScalarHaversineKernel.tail(from, row, to, j, out);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x64";
+    }
+}
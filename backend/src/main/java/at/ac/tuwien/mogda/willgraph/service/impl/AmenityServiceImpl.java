@@ -8,6 +8,8 @@ import at.ac.tuwien.mogda.willgraph.repository.AmenityTypeRepository;
 import at.ac.tuwien.mogda.willgraph.repository.PoIRepository;
 import at.ac.tuwien.mogda.willgraph.service.AmenityService;
 import at.ac.tuwien.mogda.willgraph.service.OverpassApiService;
+import at.ac.tuwien.mogda.willgraph.service.TileService;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,7 @@ public class AmenityServiceImpl implements AmenityService {
     private final PoIRepository poiRepo;
     // Cache for pre-fetched amenities
     private final OverpassAmenityMapper mapper;
+    private final TileService tileService;
 
     @Override
     public Set<String> getSupportedAmenityTypes() {
@@ -51,7 +54,9 @@ public class AmenityServiceImpl implements AmenityService {
             })
             .toList();
 
-        return poiRepo.saveAll(pois);
+        List<PointOfInterestEntity> saved = poiRepo.saveAll(pois);
+        saved.forEach(poi -> tileService.invalidatePoint(TileLayer.POI, poi.getLocation().getLatitude(), poi.getLocation().getLongitude()));
+        return saved;
     }
 
     @Override
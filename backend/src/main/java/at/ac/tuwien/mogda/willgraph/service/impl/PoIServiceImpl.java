@@ -1,22 +1,36 @@
 package at.ac.tuwien.mogda.willgraph.service.impl;
 
+import at.ac.tuwien.mogda.willgraph.controller.dto.DistanceMatrixDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.DistanceMatrixRequestDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.PointToPointDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixRequestDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixRowDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.WalkingDistanceDto;
 import at.ac.tuwien.mogda.willgraph.entity.AmenityTypeEntity;
 import at.ac.tuwien.mogda.willgraph.entity.PointOfInterestEntity;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
 import at.ac.tuwien.mogda.willgraph.repository.AddressRepository;
 import at.ac.tuwien.mogda.willgraph.repository.AmenityTypeRepository;
 import at.ac.tuwien.mogda.willgraph.repository.PoIRepository;
 import at.ac.tuwien.mogda.willgraph.service.PoIService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import at.ac.tuwien.mogda.willgraph.service.geo.GeoPoints;
+import at.ac.tuwien.mogda.willgraph.service.geo.HaversineKernel;
+import at.ac.tuwien.mogda.willgraph.service.geo.HaversineKernels;
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+import at.ac.tuwien.mogda.willgraph.service.routing.PedestrianGraphService;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransportPathCache;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransitMatrixCalculator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.neo4j.types.GeographicPoint2d;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +41,10 @@ public class PoIServiceImpl implements PoIService {
     private final PoIRepository poiRepository;
     private final AddressRepository addressRepository;
     private final AmenityTypeRepository amenityTypeRepository;
+    private final TransitMatrixCalculator transitMatrixCalculator;
+    private final PedestrianGraphService pedestrianGraphService;
+    private final TransportPathCache transportPathCache;
+    private final AdmissionControl admissionControl;
 
     @Override
     public List<PointOfInterestEntity> findAllOfType(String type) {
@@ -72,7 +90,8 @@ public class PoIServiceImpl implements PoIService {
             throw new IllegalStateException("POI has no location defined");
         }
 
-        double distanceInMeters = calculateHaversineDistance(
+        // Along footways when a pedestrian network is loaded, straight-line otherwise
+        double distanceInMeters = pedestrianGraphService.walkingMeters(
             poiLocation.getLatitude(), poiLocation.getLongitude(),
             targetLatitude, targetLongitude
         );
@@ -91,7 +110,7 @@ public class PoIServiceImpl implements PoIService {
 
     @Override
     public PointToPointDistanceDto calculateDistanceBetweenPoints(Double fromLat, Double fromLon, Double toLat, Double toLon) {
-        double distanceInMeters = calculateHaversineDistance(fromLat, fromLon, toLat, toLon);
+        double distanceInMeters = GeoMath.haversine(fromLat, fromLon, toLat, toLon);
         double walkingDurationInMinutes = distanceInMeters / WALKING_SPEED_METERS_PER_MINUTE;
 
         return PointToPointDistanceDto.builder()
@@ -110,35 +129,43 @@ public class PoIServiceImpl implements PoIService {
     }
 
     @Override
-    public TransportPathDto calculateTransportPath(Double fromLat, Double fromLon, Double toLat, Double toLon, double maxWalkDistance) throws NotFoundException {
-        return poiRepository.findShortestTransportPath(fromLat, fromLon, toLat, toLon, maxWalkDistance)
+    public TransportPathDto calculateTransportPath(Double fromLat, Double fromLon, Double toLat, Double toLon, double maxWalkDistance,
+                                                   String client) throws NotFoundException, AdmissionRejectedException {
+        return transportPathCache.find(fromLat, fromLon, toLat, toLon, maxWalkDistance, () -> {
+                try (AdmissionControl.Permit _ = admissionControl.acquire(client, admissionControl.transportPathCost())) {
+                    return admissionControl.transportPathTransaction().execute(
+                        status -> poiRepository.findShortestTransportPath(fromLat, fromLon, toLat, toLon, maxWalkDistance));
+                }
+            })
             .orElseThrow(() -> new NotFoundException(
                 "No transport path found (locations might be too far from a station or not connected)"
             ));
     }
 
-    /**
-     * Calculate distance between two points using Haversine formula.
-     *
-     * @param lat1 Latitude of point 1
-     * @param lon1 Longitude of point 1
-     * @param lat2 Latitude of point 2
-     * @param lon2 Longitude of point 2
-     * @return Distance in meters
-     */
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final double EARTH_RADIUS_METERS = 6371000.0;
-
-        double lat1Rad = Math.toRadians(lat1);
-        double lat2Rad = Math.toRadians(lat2);
-        double deltaLat = Math.toRadians(lat2 - lat1);
-        double deltaLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
-            + Math.cos(lat1Rad) * Math.cos(lat2Rad)
-            * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS_METERS * c;
+    @Override
+    public DistanceMatrixDto calculateDistanceMatrix(DistanceMatrixRequestDto request) {
+        GeoPoints from = GeoPoints.of(request.getFromLat(), request.getFromLon());
+        GeoPoints to = request.getToLat() == null ? from : GeoPoints.of(request.getToLat(), request.getToLon());
+        HaversineKernel kernel = HaversineKernels.best();
+
+        double[][] distances = new double[from.size()][];
+        double[][] walkingMinutes = new double[from.size()][];
+        for (int i = 0; i < from.size(); i++) {
+            double[] row = new double[to.size()];
+            kernel.row(from, i, to, row);
+            double[] minutes = new double[to.size()];
+            for (int j = 0; j < row.length; j++) {
+                minutes[j] = row[j] / WALKING_SPEED_METERS_PER_MINUTE;
+            }
+            distances[i] = row;
+            walkingMinutes[i] = minutes;
+        }
+        return new DistanceMatrixDto(from.size(), to.size(), distances, walkingMinutes);
+    }
+
+    @Override
+    public void calculateTransportMatrix(TransportMatrixRequestDto request, Consumer<TransportMatrixRowDto> rowConsumer) {
+        this.transitMatrixCalculator.compute(request.getOrigins(), request.getDestinations(),
+            request.getMaxWalkDistance(), request.getMaxMinutes(), rowConsumer);
     }
 }
@@ -0,0 +1,542 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.config.AdmissionConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.AmenityOverviewDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.AnytimeSearchResultDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.CommuteCriteria;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingCriteria;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingFeatures;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.PoIDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateWithScoreDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchProgressDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
+import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.repository.AmenityTypeRepository;
+import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
+import at.ac.tuwien.mogda.willgraph.repository.PoIRepository;
+import at.ac.tuwien.mogda.willgraph.repository.TransportRepository;
+import at.ac.tuwien.mogda.willgraph.service.ReactiveSearchService;
+import at.ac.tuwien.mogda.willgraph.service.TransportService;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransportPathCache;
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+import at.ac.tuwien.mogda.willgraph.service.scoring.ScoringPipeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.TypeSystem;
+import org.springframework.data.neo4j.core.ReactiveNeo4jClient;
+import org.springframework.data.neo4j.core.mapping.Neo4jMappingContext;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs the repository queries through the ReactiveNeo4jClient and maps records with the same mapping functions
+ * SDN uses for the imperative repositories, so both variants return identical DTOs.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveSearchServiceImpl implements ReactiveSearchService {
+
+    private static final int MAX_RESULTS = 50;
+
+    /**
+     * Listings whose POI features are loaded per query of the progressive search
+     */
+    private static final int POI_BATCH_SIZE = 200;
+
+    /**
+     * Smaller batches for the anytime search, so the deadline cuts off less finished work
+     */
+    private static final int ANYTIME_BATCH_SIZE = 50;
+
+    /**
+     * {@link ListingRepository#POI_FEATURES_CALL} only routes by transit to POIs at least this far away. The margin
+     * covers the difference between our and Neo4j's earth radius, POIs that close to the limit count as far.
+     */
+    private static final double TRANSIT_RADIUS = 1500.0;
+    private static final double TRANSIT_RADIUS_MARGIN = 10.0;
+    /**
+     * Transit routes run between two different station hubs
+     */
+    private static final long MIN_TRANSIT_HOPS = 1;
+
+    private final ReactiveNeo4jClient neo4jClient;
+    private final Neo4jMappingContext mappingContext;
+    private final TransportService transportService;
+    private final TransportPathCache transportPathCache;
+    private final ScoringPipeline scoringPipeline;
+    private final AdmissionConfig admissionConfig;
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Override
+    public Flux<RealEstateWithScoreDto> searchWithFilters(ListingSearchFilterDto filter) {
+        return regionGeometry(filter.getListing().getRegion())
+                .zipWith(commuteArea(filter.getCommute()))
+                .flatMap(regionAndCommute -> {
+                    Geometry region = regionAndCommute.getT1();
+                    Map<String, Object> parameters = searchParameters(filter, region.getEnvelopeInternal());
+                    return candidates(ListingRepository.SEARCH_LISTING_FEATURES, parameters, region, regionAndCommute.getT2().orElse(null))
+                            .collectList()
+                            .map(candidates -> top(scored(candidates, parameters)));
+                })
+                // Cancelling rolls back the reactive transaction, which terminates the query in Neo4j
+                .timeout(Duration.ofSeconds(admissionConfig.getSearchTimeoutSeconds()))
+                .flatMapIterable(results -> {
+                    normalize(results);
+                    return results;
+                });
+    }
+
+    @Override
+    public Flux<SearchProgressDto> searchProgressively(ListingSearchFilterDto filter) {
+        return searchProgressively(filter, Duration.ofSeconds(admissionConfig.getSearchTimeoutSeconds()));
+    }
+
+    @Override
+    public Flux<SearchProgressDto> searchProgressively(ListingSearchFilterDto filter, Duration timeout) {
+        return regionGeometry(filter.getListing().getRegion())
+                .zipWith(commuteArea(filter.getCommute()))
+                .flatMapMany(regionAndCommute -> {
+                    Geometry region = regionAndCommute.getT1();
+                    Map<String, Object> parameters = searchParameters(filter, region.getEnvelopeInternal());
+                    return candidates(ListingRepository.AMENITY_FEATURE_LISTINGS, parameters, region, regionAndCommute.getT2().orElse(null))
+                            .collectList()
+                            .flatMapMany(candidates -> refine(candidates, parameters));
+                })
+                .timeout(timeout);
+    }
+
+    /**
+     * Emits the ranking by the amenity features, then loads the POI features batch by batch in that order, so the
+     * listings most likely to rank high are refined first, and finally the normalized top results
+     */
+    private Flux<SearchProgressDto> refine(List<ListingFeatures> features, Map<String, Object> parameters) {
+        List<RealEstateWithScoreDto> candidates = scored(features, parameters);
+        int total = candidates.size();
+        if (pois(parameters).isEmpty()) {
+            return Flux.just(finalRanking(candidates, total));
+        }
+        // Indices into both lists, by descending amenity score
+        Integer[] ranking = new Integer[total];
+        Arrays.setAll(ranking, i -> i);
+        Arrays.sort(ranking, Comparator.comparingDouble((Integer i) -> candidates.get(i).getScore()).reversed());
+        List<Integer> order = Arrays.asList(ranking);
+        AtomicInteger scored = new AtomicInteger();
+        return Flux.just(progress(SearchProgressDto.PRELIMINARY, 0, total, candidates))
+                .concatWith(Flux.fromIterable(batches(order, POI_BATCH_SIZE))
+                        .concatMap(batch -> {
+                            List<ListingFeatures> batchFeatures = batch.stream().map(features::get).toList();
+                            return loadPoiFeatures(batchFeatures, parameters)
+                                    .then(Mono.fromSupplier(() -> {
+                                        double[] scores = score(batchFeatures, parameters);
+                                        for (int i = 0; i < scores.length; i++) {
+                                            candidates.get(batch.get(i)).setScore(scores[i]);
+                                        }
+                                        return progress(SearchProgressDto.REFINED, scored.addAndGet(batch.size()), total, candidates);
+                                    }));
+                        }))
+                .concatWith(Mono.fromSupplier(() -> finalRanking(candidates, total)));
+    }
+
+    private static <T> List<List<T>> batches(List<T> items, int size) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            batches.add(items.subList(i, Math.min(items.size(), i + size)));
+        }
+        return batches;
+    }
+
+    @Override
+    public Mono<AnytimeSearchResultDto> searchAnytime(ListingSearchFilterDto filter, Duration deadline) {
+        long start = System.nanoTime();
+        return regionGeometry(filter.getListing().getRegion())
+                .zipWith(commuteArea(filter.getCommute()))
+                .flatMap(regionAndCommute -> {
+                    Geometry region = regionAndCommute.getT1();
+                    Map<String, Object> parameters = searchParameters(filter, region.getEnvelopeInternal());
+                    return candidates(ListingRepository.AMENITY_FEATURE_LISTINGS, parameters, region, regionAndCommute.getT2().orElse(null))
+                            .collectList()
+                            .map(candidates -> bounded(candidates, parameters))
+                            .flatMap(candidates -> refineUntil(candidates, parameters, start + deadline.toNanos()));
+                })
+                .map(candidates -> anytimeResult(candidates, start))
+                .timeout(Duration.ofSeconds(admissionConfig.getSearchTimeoutSeconds()));
+    }
+
+    /**
+     * Loads the POI features in batches by descending upper bound, until the deadline or until the top results
+     * can no longer be overtaken by any unrefined candidate
+     */
+    private Mono<List<BoundedCandidate>> refineUntil(List<BoundedCandidate> candidates, Map<String, Object> parameters, long deadlineNanos) {
+        List<BoundedCandidate> open = candidates.stream()
+                .filter(c -> !c.exact)
+                .sorted(Comparator.comparingDouble((BoundedCandidate c) -> c.upperBound).reversed())
+                .toList();
+        long remaining = deadlineNanos - System.nanoTime();
+        if (open.isEmpty() || remaining <= 0 || settled(candidates)) {
+            return Mono.just(candidates);
+        }
+        return Flux.fromIterable(batches(open, ANYTIME_BATCH_SIZE))
+                .concatMap(batch -> {
+                    List<ListingFeatures> batchFeatures = batch.stream().map(c -> c.features).toList();
+                    return loadPoiFeatures(batchFeatures, parameters)
+                            .then(Mono.fromSupplier(() -> {
+                                double[] scores = score(batchFeatures, parameters);
+                                // The deadline may complete the search on the timer thread while a batch is applied
+                                synchronized (candidates) {
+                                    for (int i = 0; i < scores.length; i++) {
+                                        batch.get(i).refine(scores[i]);
+                                    }
+                                }
+                                return batch;
+                            }));
+                })
+                .takeUntil(batch -> settled(candidates))
+                // Cancels the batch in flight at the deadline
+                .take(Duration.ofNanos(remaining))
+                .then(Mono.fromSupplier(() -> candidates));
+    }
+
+    /**
+     * Whether the best {@value #MAX_RESULTS} fully scored candidates all reach the upper bound of every open one
+     */
+    private static boolean settled(List<BoundedCandidate> candidates) {
+        double bestOpen = candidates.stream().filter(c -> !c.exact).mapToDouble(c -> c.upperBound).max().orElse(Double.NEGATIVE_INFINITY);
+        if (bestOpen == Double.NEGATIVE_INFINITY) {
+            return true;
+        }
+        double[] exactScores = candidates.stream().filter(c -> c.exact).mapToDouble(c -> c.result.getScore())
+                .boxed().sorted(Comparator.reverseOrder()).limit(MAX_RESULTS).mapToDouble(Double::doubleValue).toArray();
+        return exactScores.length == Math.min(MAX_RESULTS, candidates.size()) && exactScores[exactScores.length - 1] >= bestOpen;
+    }
+
+    private AnytimeSearchResultDto anytimeResult(List<BoundedCandidate> candidates, long start) {
+        synchronized (candidates) {
+            List<RealEstateWithScoreDto> results = top(candidates.stream().map(c -> c.result).toList());
+            normalize(results);
+            int scored = (int) candidates.stream().filter(c -> c.exact).count();
+            return new AnytimeSearchResultDto(results, scored, candidates.size(), settled(candidates),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Scores every candidate twice with straight-line POI distances: without transit for the lower bound, and
+     * with the distance shortened by the margin and the fewest possible hops for the upper bound of POIs beyond
+     * the transit radius. Candidates without such POIs need no transit routing and are exact right away.
+     */
+    private List<BoundedCandidate> bounded(List<ListingFeatures> candidates, Map<String, Object> parameters) {
+        List<Map<String, Object>> pois = pois(parameters);
+        List<ListingFeatures> lower = new ArrayList<>(candidates.size());
+        List<ListingFeatures> upper = new ArrayList<>(candidates.size());
+        boolean[] exact = new boolean[candidates.size()];
+        for (int c = 0; c < candidates.size(); c++) {
+            ListingFeatures candidate = candidates.get(c);
+            var location = candidate.getListing().getAddress().getLocation();
+            List<Double> distances = new ArrayList<>(pois.size());
+            List<Double> bestDistances = new ArrayList<>(pois.size());
+            List<Long> bestHops = new ArrayList<>(pois.size());
+            exact[c] = true;
+            for (Map<String, Object> poi : pois) {
+                double distance = GeoMath.haversine(location.getLatitude(), location.getLongitude(),
+                        ((Number) poi.get("lat")).doubleValue(), ((Number) poi.get("lng")).doubleValue());
+                boolean far = distance >= TRANSIT_RADIUS - TRANSIT_RADIUS_MARGIN;
+                exact[c] &= !far;
+                distances.add(distance);
+                bestDistances.add(far ? Math.max(0.0, distance - TRANSIT_RADIUS_MARGIN) : distance);
+                bestHops.add(far ? MIN_TRANSIT_HOPS : -1L);
+            }
+            lower.add(ListingFeatures.builder().amenityDistances(candidate.getAmenityDistances()).poiDistances(distances).build());
+            upper.add(ListingFeatures.builder().amenityDistances(candidate.getAmenityDistances())
+                    .poiDistances(bestDistances).poiHops(bestHops).build());
+        }
+        double[] lowerScores = score(lower, parameters);
+        double[] upperScores = score(upper, parameters);
+        List<BoundedCandidate> bounded = new ArrayList<>(candidates.size());
+        for (int c = 0; c < candidates.size(); c++) {
+            ListingFeatures candidate = candidates.get(c);
+            RealEstateWithScoreDto result = new RealEstateWithScoreDto(RealEstateServiceImpl.toDto(candidate.getListing()), lowerScores[c]);
+            bounded.add(new BoundedCandidate(candidate, result, exact[c] ? lowerScores[c] : upperScores[c], exact[c]));
+        }
+        return bounded;
+    }
+
+    /**
+     * Ranked by its lower bound until refined
+     */
+    private static final class BoundedCandidate {
+        private final ListingFeatures features;
+        private final RealEstateWithScoreDto result;
+        private double upperBound;
+        private boolean exact;
+
+        private BoundedCandidate(ListingFeatures features, RealEstateWithScoreDto result, double upperBound, boolean exact) {
+            this.features = features;
+            this.result = result;
+            this.upperBound = upperBound;
+            this.exact = exact;
+        }
+
+        void refine(double score) {
+            result.setScore(score);
+            upperBound = score;
+            exact = true;
+        }
+    }
+
+    /**
+     * Current top results by raw score; copies, since the candidates are still being refined
+     */
+    private static SearchProgressDto progress(String stage, int scored, int total, List<RealEstateWithScoreDto> candidates) {
+        return new SearchProgressDto(stage, scored, total, top(candidates));
+    }
+
+    private SearchProgressDto finalRanking(List<RealEstateWithScoreDto> candidates, int total) {
+        List<RealEstateWithScoreDto> results = top(candidates);
+        normalize(results);
+        return new SearchProgressDto(SearchProgressDto.FINAL, total, total, results);
+    }
+
+    private static List<RealEstateWithScoreDto> top(List<RealEstateWithScoreDto> candidates) {
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(RealEstateWithScoreDto::getScore).reversed())
+                .limit(MAX_RESULTS)
+                .map(c -> new RealEstateWithScoreDto(c.getListing(), c.getScore()))
+                .toList();
+    }
+
+    /**
+     * Scales the scores of results from {@link #top} in place, which are already sorted by descending score
+     */
+    private void normalize(List<RealEstateWithScoreDto> results) {
+        double[] ranked = results.stream().mapToDouble(RealEstateWithScoreDto::getScore).toArray();
+        scoringPipeline.normalizeRanked(ranked);
+        for (int i = 0; i < ranked.length; i++) {
+            results.get(i).setScore(ranked[i]);
+        }
+    }
+
+    /**
+     * Raw score of every candidate by the {@link ScoringPipeline}; features that are not loaded yet score nothing
+     */
+    private double[] score(List<ListingFeatures> candidates, Map<String, Object> parameters) {
+        return scoringPipeline.score(RealEstateServiceImpl.featureBatch(candidates, amenities(parameters), pois(parameters)));
+    }
+
+    private List<RealEstateWithScoreDto> scored(List<ListingFeatures> candidates, Map<String, Object> parameters) {
+        double[] scores = score(candidates, parameters);
+        List<RealEstateWithScoreDto> results = new ArrayList<>(candidates.size());
+        for (int i = 0; i < scores.length; i++) {
+            results.add(new RealEstateWithScoreDto(RealEstateServiceImpl.toDto(candidates.get(i).getListing()), scores[i]));
+        }
+        return results;
+    }
+
+    /**
+     * The isochrone is computed on the in-memory transit graph, which may first have to be loaded, so it runs on
+     * a bounded elastic thread instead of the driver's; empty when the search has no commute criteria
+     */
+    private Mono<Optional<PreparedGeometry>> commuteArea(CommuteCriteria commute) {
+        return Mono.fromCallable(() -> Optional.ofNullable(RealEstateServiceImpl.commuteArea(commute, transportService)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Listings of a search query with their features, unordered, that lie inside the region and commute area
+     */
+    private Flux<ListingFeatures> candidates(String query, Map<String, Object> parameters, Geometry region, PreparedGeometry commuteArea) {
+        BiFunction<TypeSystem, MapAccessor, ListingEntity> listingMapping = mapping(ListingEntity.class);
+        BiFunction<TypeSystem, MapAccessor, AddressEntity> addressMapping = mapping(AddressEntity.class);
+        return neo4jClient.query(query)
+                .bindAll(parameters)
+                .fetchAs(ListingFeatures.class)
+                .mappedBy((typeSystem, record) -> {
+                    ListingEntity listing = listingMapping.apply(typeSystem, record.get("listing"));
+                    if (!record.get("Address").isNull()) {
+                        listing.setAddress(addressMapping.apply(typeSystem, record.get("Address")));
+                    }
+                    return ListingFeatures.builder()
+                            .listing(listing)
+                            .address(listing.getAddress())
+                            .amenityDistances(values(record.get("amenityDistances"), Value::asDouble))
+                            .poiDistances(values(record.get("poiDistances"), Value::asDouble))
+                            .poiHops(values(record.get("poiHops"), Value::asLong))
+                            .build();
+                })
+                .all()
+                .filter(candidate -> contains(region, commuteArea, candidate.getListing()));
+    }
+
+    /**
+     * Sets the POI features of the candidates; listings the query does not return keep none
+     */
+    private Mono<Void> loadPoiFeatures(List<ListingFeatures> candidates, Map<String, Object> parameters) {
+        Map<String, Object> batchParameters = new HashMap<>(parameters);
+        batchParameters.put("ids", candidates.stream().map(c -> c.getListing().getId()).toList());
+        return neo4jClient.query(ListingRepository.POI_FEATURES)
+                .bindAll(batchParameters)
+                .fetchAs(PoiFeatures.class)
+                .mappedBy((typeSystem, record) -> new PoiFeatures(record.get("id").asString(),
+                        values(record.get("poiDistances"), Value::asDouble), values(record.get("poiHops"), Value::asLong)))
+                .all()
+                .collectMap(PoiFeatures::id)
+                .doOnNext(loaded -> candidates.forEach(candidate -> {
+                    PoiFeatures features = loaded.get(candidate.getListing().getId());
+                    if (features != null) {
+                        candidate.setPoiDistances(features.distances());
+                        candidate.setPoiHops(features.hops());
+                    }
+                }))
+                .then();
+    }
+
+    /**
+     * Null for columns the query does not return
+     */
+    private static <T> List<T> values(Value value, Function<Value, T> mapping) {
+        return value.isNull() ? null : value.asList(mapping);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> amenities(Map<String, Object> parameters) {
+        return (List<Map<String, Object>>) parameters.get("amenities");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> pois(Map<String, Object> parameters) {
+        return (List<Map<String, Object>>) parameters.get("customPois");
+    }
+
+    private static Map<String, Object> searchParameters(ListingSearchFilterDto filter, Envelope envelope) {
+        ListingCriteria criteria = filter.getListing();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("minLon", envelope.getMinX());
+        parameters.put("minLat", envelope.getMinY());
+        parameters.put("maxLon", envelope.getMaxX());
+        parameters.put("maxLat", envelope.getMaxY());
+        parameters.put("minPrice", criteria.getMinPrice() != null ? criteria.getMinPrice() : 0.0);
+        parameters.put("maxPrice", criteria.getMaxPrice() != null ? criteria.getMaxPrice() : Double.MAX_VALUE);
+        parameters.put("minArea", criteria.getMinArea() != null ? criteria.getMinArea() : 0.0);
+        parameters.put("maxArea", criteria.getMaxArea() != null ? criteria.getMaxArea() : Double.MAX_VALUE);
+        parameters.put("maxDistTransport", filter.getTransport() != null ? filter.getTransport().getMaxDistanceToStation() : 1000.0);
+        parameters.put("amenities", RealEstateServiceImpl.getWeightedAmenities(filter.getAmenityPriorities()));
+        parameters.put("customPois", RealEstateServiceImpl.getWeightedPois(filter.getPoiPriorities()));
+        return parameters;
+    }
+
+    @Override
+    public Flux<PoIDistanceDto> findPoIsNearby(double lat, double lng, double radius) {
+        return neo4jClient.query(PoIRepository.POIS_NEARBY)
+                .bindAll(Map.of("lat", lat, "lon", lng, "radiusMeters", radius))
+                .fetchAs(PoIDistanceDto.class)
+                .mappedBy(mapping(PoIDistanceDto.class)::apply)
+                .all();
+    }
+
+    @Override
+    public Flux<StationDistanceDto> findStationsNearby(double lat, double lng, double radius) {
+        return neo4jClient.query(TransportRepository.STATIONS_NEARBY)
+                .bindAll(Map.of("lat", lat, "lon", lng, "radiusMeters", radius))
+                .fetchAs(StationDistanceDto.class)
+                .mappedBy(mapping(StationDistanceDto.class)::apply)
+                .all();
+    }
+
+    @Override
+    public Flux<AmenityOverviewDto> findAmenityOverview(double lat, double lng, double radius) {
+        return neo4jClient.query(AmenityTypeRepository.AMENITY_OVERVIEW)
+                .bindAll(Map.of("lat", lat, "lon", lng, "radius", radius))
+                .fetchAs(AmenityOverviewDto.class)
+                .mappedBy(mapping(AmenityOverviewDto.class)::apply)
+                .all();
+    }
+
+    @Override
+    public Mono<TransportPathDto> findTransportPath(double fromLat, double fromLon, double toLat, double toLon, double maxWalkDistance) {
+        // Shares the route cache of the blocking endpoint, only misses reach Neo4j
+        return transportPathCache.findAsync(fromLat, fromLon, toLat, toLon, maxWalkDistance,
+                shortestTransportPath(fromLat, fromLon, toLat, toLon, maxWalkDistance));
+    }
+
+    private Mono<TransportPathDto> shortestTransportPath(double fromLat, double fromLon, double toLat, double toLon, double maxWalkDistance) {
+        return neo4jClient.query(PoIRepository.SHORTEST_TRANSPORT_PATH)
+                .bindAll(Map.of("fromLat", fromLat, "fromLon", fromLon, "toLat", toLat, "toLon", toLon,
+                        "maxWalkDistance", maxWalkDistance))
+                .fetchAs(TransportPathDto.class)
+                .mappedBy((typeSystem, record) -> {
+                    BiFunction<TypeSystem, MapAccessor, StationDistanceDto> station = mapping(StationDistanceDto.class);
+                    return TransportPathDto.builder()
+                            .numberOfStops(record.get("numberOfStops").asInt())
+                            .walkToStationMeters(record.get("walkToStationMeters").asDouble())
+                            .walkFromStationMeters(record.get("walkFromStationMeters").asDouble())
+                            .stations(record.get("stations").asList(value -> station.apply(typeSystem, value)))
+                            .build();
+                })
+                .one()
+                .timeout(Duration.ofSeconds(admissionConfig.getTransportPathTimeoutSeconds()));
+    }
+
+    private Mono<Geometry> regionGeometry(String name) {
+        return neo4jClient.query("MATCH (r:Region {name: $name}) RETURN r.geometry AS geometry LIMIT 1")
+                .bind(name).to("name")
+                .fetchAs(Geometry.class)
+                .mappedBy((typeSystem, record) -> {
+                    try {
+                        return new WKTReader().read(record.get("geometry").asString());
+                    } catch (ParseException e) {
+                        throw new IllegalArgumentException("Failed to parse WKT of region " + name, e);
+                    }
+                })
+                .one()
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Region " + name + " not found")));
+    }
+
+    private boolean contains(Geometry region, PreparedGeometry commuteArea, ListingEntity listing) {
+        if (listing.getAddress() == null) {
+            return false;
+        }
+        var location = listing.getAddress().getLocation();
+        var point = geometryFactory.createPoint(new Coordinate(location.getLongitude(), location.getLatitude()));
+        return region.contains(point) && (commuteArea == null || commuteArea.contains(point));
+    }
+
+    /**
+     * DTOs are not entities; registering them on first use lets the entity converter map record columns onto
+     * their properties, including points and nested maps
+     */
+    private <T> BiFunction<TypeSystem, MapAccessor, T> mapping(Class<T> type) {
+        mappingContext.getPersistentEntity(type);
+        return mappingContext.getRequiredMappingFunctionFor(type);
+    }
+
+    private record PoiFeatures(String id, List<Double> distances, List<Long> hops) {
+    }
+}
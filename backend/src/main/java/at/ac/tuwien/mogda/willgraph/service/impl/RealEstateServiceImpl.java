@@ -5,32 +5,49 @@ import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
 import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
 import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.metrics.SearchMetrics;
 import at.ac.tuwien.mogda.willgraph.repository.AddressRepository;
 import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
 import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
 import at.ac.tuwien.mogda.willgraph.service.RealEstateService;
+import at.ac.tuwien.mogda.willgraph.service.TransportService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import at.ac.tuwien.mogda.willgraph.service.scoring.CandidateBatch;
+import at.ac.tuwien.mogda.willgraph.service.scoring.ScoringPipeline;
+import io.micrometer.core.instrument.Tags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class RealEstateServiceImpl implements RealEstateService {
 
+    private static final double DEFAULT_COMMUTE_WALK_DISTANCE = 800.0;
+    private static final int MAX_RESULTS = 50;
+
     private final ListingRepository listingRepository;
     private final AddressRepository addressRepository;
     private final RegionRepository regionRepository;
+    private final TransportService transportService;
+    private final SearchMetrics searchMetrics;
+    private final AdmissionControl admissionControl;
+    private final ScoringPipeline scoringPipeline;
     private final GeometryFactory geometryFactory = new GeometryFactory();
 
     public List<RealEstateDto> findRealEstatesInRegion(String regionName, String iso) throws NotFoundException {
@@ -57,7 +74,7 @@ public class RealEstateServiceImpl implements RealEstateService {
                     var jtsPoint = geometryFactory.createPoint(new Coordinate(neoPoint.getLongitude(), neoPoint.getLatitude()));
                     return regionPolygon.contains(jtsPoint);
                 })
-                .map(this::toDto)
+                .map(RealEstateServiceImpl::toDto)
                 .toList();
     }
 
@@ -65,7 +82,7 @@ public class RealEstateServiceImpl implements RealEstateService {
     public List<RealEstateDto> findAll() {
         return this.listingRepository.findAll(PageRequest.of(0, 10)).getContent()
                 .stream()
-                .map(this::toDto)
+                .map(RealEstateServiceImpl::toDto)
                 .toList();
     }
 
@@ -82,12 +99,18 @@ public class RealEstateServiceImpl implements RealEstateService {
         List<Map<String, Object>> weightedAmenities = getWeightedAmenities(filter.getAmenityPriorities());
         List<Map<String, Object>> weightedPois = getWeightedPois(filter.getPoiPriorities());
         ListingCriteria listingCriteria = filter.getListing();
+        Tags shape = searchMetrics.shape(listingCriteria.getRegion(), weightedAmenities, weightedPois, filter.getCommute() != null);
+        SearchMetrics.Stage stage = searchMetrics.start();
         RegionEntity region = this.regionRepository.findByName(listingCriteria.getRegion()).orElseThrow(
                 () -> new NotFoundException("Region " + listingCriteria.getRegion() + " not found")
         );
         Geometry regionPolygon = region.getGeometry();
         Envelope envelope = regionPolygon.getEnvelopeInternal();
-        List<ListingWithScore> candidates = listingRepository.searchListings(
+        stage = searchMetrics.stage(stage, "region", shape);
+        PreparedGeometry commuteArea = commuteArea(filter.getCommute(), transportService);
+        stage = searchMetrics.stage(stage, "commute", shape);
+        // Read-only with a timeout, Neo4j terminates the query when a search runs away
+        List<ListingFeatures> candidates = admissionControl.searchTransaction().execute(status -> listingRepository.searchListingFeatures(
                 envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY(),
                 listingCriteria.getMinPrice() != null ? listingCriteria.getMinPrice() : 0.0,
                 listingCriteria.getMaxPrice() != null ? listingCriteria.getMaxPrice() : Double.MAX_VALUE,
@@ -96,44 +119,50 @@ public class RealEstateServiceImpl implements RealEstateService {
                 filter.getTransport() != null ? filter.getTransport().getMaxDistanceToStation() : 1000.0,
                 weightedAmenities,
                 weightedPois
-        );
+        ));
+        stage = searchMetrics.stage(stage, "query", shape, candidates.size());
+        searchMetrics.candidates("query", shape, candidates.size());
 
-        List<RealEstateWithScoreDto> realEstateWithScoreDtos = candidates.stream()
-                .peek(candidate -> {
-                    ListingEntity l = candidate.getListing();
-                    if (candidate.getAddress() != null) {
-                        log.info("Address={}", candidate.getAddress());
-                        l.setAddress(candidate.getAddress());
-                    }
-                })
-                .filter(candidate -> {
-                    ListingEntity listing = candidate.getListing();
-                    var neoPoint = listing.getAddress().getLocation();
-                    var jtsPoint = geometryFactory.createPoint(new Coordinate(neoPoint.getLongitude(), neoPoint.getLatitude()));
-                    return regionPolygon.contains(jtsPoint);
-                })
-                .limit(50)
-                .map(result -> new RealEstateWithScoreDto(toDto(result.getListing()), result.getScore()))
-                .toList();
-        log.info("Score={}", realEstateWithScoreDtos.getFirst().getScore());
-        double minScore = realEstateWithScoreDtos.stream().mapToDouble(RealEstateWithScoreDto::getScore).min().orElse(0.0);
-        double maxScore = realEstateWithScoreDtos.stream().mapToDouble(RealEstateWithScoreDto::getScore).max().orElse(0.0);
-
-        // If all scores are equal (or list empty), assign 1.0 to every item to indicate equal relative score.
-        if (!realEstateWithScoreDtos.isEmpty()) {
-            double range = maxScore - minScore;
-            for (RealEstateWithScoreDto dto : realEstateWithScoreDtos) {
-                Double rawScore = dto.getScore();
-                double value = rawScore != null ? rawScore : 0.0;
-                double normalized;
-                if (range <= 0.0) {
-                    normalized = 1.0;
-                } else {
-                    normalized = (value - minScore) / range;
-                }
-                dto.setScore(normalized);
+        double[] scores = scoringPipeline.score(featureBatch(candidates, weightedAmenities, weightedPois));
+        stage = searchMetrics.stage(stage, "score", shape, candidates.size());
+
+        Integer[] ranking = new Integer[candidates.size()];
+        Arrays.setAll(ranking, i -> i);
+        Arrays.sort(ranking, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<ListingEntity> results = new ArrayList<>();
+        List<Double> resultScores = new ArrayList<>();
+        for (int i = 0; i < ranking.length && results.size() < MAX_RESULTS; i++) {
+            ListingFeatures candidate = candidates.get(ranking[i]);
+            ListingEntity listing = candidate.getListing();
+            if (candidate.getAddress() != null) {
+                listing.setAddress(candidate.getAddress());
             }
+            var neoPoint = listing.getAddress().getLocation();
+            var jtsPoint = geometryFactory.createPoint(new Coordinate(neoPoint.getLongitude(), neoPoint.getLatitude()));
+            if (regionPolygon.contains(jtsPoint) && (commuteArea == null || commuteArea.contains(jtsPoint))) {
+                results.add(listing);
+                resultScores.add(scores[ranking[i]]);
+            }
+        }
+        stage = searchMetrics.stage(stage, "filter", shape, results.size());
+        searchMetrics.candidates("filter", shape, results.size());
+        double[] ranked = resultScores.stream().mapToDouble(Double::doubleValue).toArray();
+        // One line per search instead of one per candidate
+        log.atInfo()
+                .addKeyValue("region", listingCriteria.getRegion())
+                .addKeyValue("candidates", candidates.size())
+                .addKeyValue("results", results.size())
+                .addKeyValue("minScore", ranked.length > 0 ? ranked[ranked.length - 1] : 0.0)
+                .addKeyValue("maxScore", ranked.length > 0 ? ranked[0] : 0.0)
+                .log("Listing search");
+
+        // Scaled in place, raw scores are not needed past the log line
+        scoringPipeline.normalizeRanked(ranked);
+        List<RealEstateWithScoreDto> realEstateWithScoreDtos = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            realEstateWithScoreDtos.add(new RealEstateWithScoreDto(toDto(results.get(i)), ranked[i]));
         }
+        searchMetrics.stage(stage, "normalize", shape, realEstateWithScoreDtos.size());
 
         return realEstateWithScoreDtos;
     }
@@ -144,7 +173,54 @@ public class RealEstateServiceImpl implements RealEstateService {
         return toDto(listing);
     }
 
-    private List<Map<String, Object>> getWeightedAmenities(List<PriorityItemDto> amenitiesPriority) {
+    /**
+     * One isochrone per search; membership in its area is the commute filter for every candidate
+     */
+    static PreparedGeometry commuteArea(CommuteCriteria commute, TransportService transportService) {
+        if (commute == null || commute.getLat() == null || commute.getLng() == null || commute.getMaxMinutes() == null) {
+            return null;
+        }
+        double maxWalk = commute.getMaxWalkDistance() != null ? commute.getMaxWalkDistance() : DEFAULT_COMMUTE_WALK_DISTANCE;
+        IsochroneDto isochrone = transportService.computeIsochrone(commute.getLat(), commute.getLng(), commute.getMaxMinutes(), maxWalk);
+        return PreparedGeometryFactory.prepare(isochrone.getArea());
+    }
+
+    /**
+     * Transposes the per-candidate feature lists of the query into one column per prioritized amenity and POI
+     */
+    static CandidateBatch featureBatch(List<ListingFeatures> candidates, List<Map<String, Object>> weightedAmenities,
+                                       List<Map<String, Object>> weightedPois) {
+        CandidateBatch batch = new CandidateBatch(candidates.size());
+        for (int item = 0; item < weightedAmenities.size(); item++) {
+            batch.add(CandidateBatch.AMENITY_DISTANCE, weight(weightedAmenities.get(item)),
+                    column(candidates, ListingFeatures::getAmenityDistances, item));
+        }
+        for (int item = 0; item < weightedPois.size(); item++) {
+            double weight = weight(weightedPois.get(item));
+            batch.add(CandidateBatch.POI_DISTANCE, weight, column(candidates, ListingFeatures::getPoiDistances, item));
+            batch.add(CandidateBatch.POI_TRANSIT_HOPS, weight, column(candidates, ListingFeatures::getPoiHops, item));
+        }
+        return batch;
+    }
+
+    /**
+     * Missing and negative values (no transit path) become infinite, which scores nothing
+     */
+    private static double[] column(List<ListingFeatures> candidates, Function<ListingFeatures, List<? extends Number>> feature, int item) {
+        double[] values = new double[candidates.size()];
+        for (int i = 0; i < values.length; i++) {
+            List<? extends Number> features = feature.apply(candidates.get(i));
+            Number value = features != null && item < features.size() ? features.get(item) : null;
+            values[i] = value != null && value.doubleValue() >= 0.0 ? value.doubleValue() : Double.POSITIVE_INFINITY;
+        }
+        return values;
+    }
+
+    private static double weight(Map<String, Object> item) {
+        return ((Number) item.get("weight")).doubleValue();
+    }
+
+    static List<Map<String, Object>> getWeightedAmenities(List<PriorityItemDto> amenitiesPriority) {
         List<Map<String, Object>> weightedAmenities = new ArrayList<>();
         if (amenitiesPriority == null || amenitiesPriority.isEmpty()) {
             return Collections.emptyList();
@@ -161,7 +237,7 @@ public class RealEstateServiceImpl implements RealEstateService {
         return weightedAmenities;
     }
 
-    private List<Map<String, Object>> getWeightedPois(List<PriorityItemDto> poisPriority) {
+    static List<Map<String, Object>> getWeightedPois(List<PriorityItemDto> poisPriority) {
         List<Map<String, Object>> weightedPois = new ArrayList<>();
         if (poisPriority == null || poisPriority.isEmpty()) {
             return Collections.emptyList();
@@ -184,7 +260,7 @@ public class RealEstateServiceImpl implements RealEstateService {
         return Math.max(0.5, 2.0 - (index * 0.5));
     }
 
-    private RealEstateDto toDto(ListingEntity listing) {
+    static RealEstateDto toDto(ListingEntity listing) {
         AddressEntity address = listing.getAddress();
         Double totalArea = listing.getTotalArea() != null ? listing.getTotalArea() : listing.getLivingArea();
         RealEstateDto dto = RealEstateDto.builder()
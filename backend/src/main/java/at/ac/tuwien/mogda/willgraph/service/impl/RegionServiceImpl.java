@@ -1,59 +1,112 @@
 package at.ac.tuwien.mogda.willgraph.service.impl;
 
+import at.ac.tuwien.mogda.willgraph.cache.LruCache;
+import at.ac.tuwien.mogda.willgraph.config.RegionConfig;
 import at.ac.tuwien.mogda.willgraph.controller.dto.RegionDto;
 import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
 import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
 import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
 import at.ac.tuwien.mogda.willgraph.service.RegionService;
-import lombok.RequiredArgsConstructor;
+import at.ac.tuwien.mogda.willgraph.service.region.GeometryDetail;
+import at.ac.tuwien.mogda.willgraph.service.region.RegionGeometrySimplifier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class RegionServiceImpl implements RegionService {
 
     private final RegionRepository regionRepository;
+    private final ObjectMapper objectMapper;
+    private final LruCache<RegionJsonKey, byte[]> regionJsonCache;
 
-    @Override
-    public List<RegionDto> getAllRegions(Integer limit) {
-        return regionRepository.findAll(PageRequest.of(0, limit))
-                .getContent()
-                .stream()
-                .map(this::toDto)
-                .toList();
+    public RegionServiceImpl(RegionRepository regionRepository, ObjectMapper objectMapper, RegionConfig regionConfig) {
+        this.regionRepository = regionRepository;
+        this.objectMapper = objectMapper;
+        this.regionJsonCache = new LruCache<>(regionConfig.getJsonCacheSize());
     }
 
     @Override
-    public RegionDto getRegionById(String iso) throws NotFoundException {
-        return toDto(regionRepository.findById(iso)
-                .orElseThrow(() -> new NotFoundException("Region with iso: " + iso + " not found!")));
+    public byte[] searchRegionsJson(String query, Integer limit, GeometryDetail detail) {
+        List<String> isos = (query == null || query.isBlank())
+                ? regionRepository.findIsos(limit)
+                : regionRepository.searchIsosByNameOrIso(query.trim(), limit);
+
+        Map<RegionJsonKey, byte[]> cached = regionJsonCache.computeAllIfAbsent(
+                isos.stream().map(iso -> new RegionJsonKey(iso, detail)).toList(),
+                missing -> loadRegionJson(missing, detail));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean first = true;
+        for (String iso : isos) {
+            byte[] json = cached.get(new RegionJsonKey(iso, detail));
+            if (json == null) {
+                continue;
+            }
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(json);
+            first = false;
+        }
+        out.write(']');
+        return out.toByteArray();
     }
 
     @Override
-    public List<RegionDto> searchRegions(String query, Integer limit) {
-        if (query == null || query.isBlank()) {
-            return getAllRegions(limit);
+    public byte[] getRegionJsonById(String iso, GeometryDetail detail) throws NotFoundException {
+        byte[] json = cachedRegionJson(iso, detail);
+        if (json == null) {
+            throw new NotFoundException("Region with iso: " + iso + " not found!");
         }
+        return json;
+    }
 
-        return regionRepository.searchByNameOrIso(query.trim(), limit)
-                .stream()
-                .map(this::toDto)
-                .toList();
+    @Override
+    public void evictRegionJsonCache() {
+        regionJsonCache.clear();
     }
 
+    private byte[] cachedRegionJson(String iso, GeometryDetail detail) {
+        return regionJsonCache.computeIfAbsent(new RegionJsonKey(iso, detail),
+                key -> regionRepository.findById(iso).map(region -> serialize(toDto(region, detail))).orElse(null));
+    }
 
-    private RegionDto toDto(RegionEntity region) {
+    /**
+     * Cold regions of a list request are loaded with one query instead of one per region
+     */
+    private Map<RegionJsonKey, byte[]> loadRegionJson(List<RegionJsonKey> missing, GeometryDetail detail) {
+        Map<RegionJsonKey, byte[]> loaded = new HashMap<>();
+        for (RegionEntity region : regionRepository.findAllById(missing.stream().map(RegionJsonKey::iso).toList())) {
+            loaded.put(new RegionJsonKey(region.getIso(), detail), serialize(toDto(region, detail)));
+        }
+        return loaded;
+    }
+
+    private byte[] serialize(RegionDto dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize region " + dto.getIso(), e);
+        }
+    }
+
+    private RegionDto toDto(RegionEntity region, GeometryDetail detail) {
         return RegionDto.builder()
                 .name(region.getName())
                 .iso(region.getIso())
-                .geometry(region.getGeometry())
+                .geometry(RegionGeometrySimplifier.select(region, detail))
                 .center(region.getCenter()).build();
     }
 
-
+    private record RegionJsonKey(String iso, GeometryDetail detail) {
+    }
 }
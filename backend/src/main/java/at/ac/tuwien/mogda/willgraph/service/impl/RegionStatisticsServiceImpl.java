@@ -0,0 +1,242 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingPricePointDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RegionStatisticsDto;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
+import at.ac.tuwien.mogda.willgraph.service.RegionStatisticsService;
+import at.ac.tuwien.mogda.willgraph.service.region.QuantileSketch;
+import at.ac.tuwien.mogda.willgraph.service.region.RegionLocator;
+import at.ac.tuwien.mogda.willgraph.service.region.RegionStatistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RegionStatisticsServiceImpl implements RegionStatisticsService {
+
+    private final Neo4jClient neo4jClient;
+    private final ListingRepository listingRepository;
+    private final RegionLocator regionLocator;
+
+    private final Map<String, RegionStatistics> statistics = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    private boolean loaded;
+
+    @Override
+    public synchronized void listingAdded(ListingEntity listing) {
+        // A rebuild reads the listing from the database, it must not be added a second time
+        if (ensureLoaded()) {
+            return;
+        }
+        apply(location(listing), listing.getPrice(), pricePerSqm(listing), true);
+    }
+
+    @Override
+    public synchronized void listingRemoved(ListingEntity listing) {
+        if (ensureLoaded()) {
+            return;
+        }
+        apply(location(listing), listing.getPrice(), pricePerSqm(listing), false);
+    }
+
+    @Override
+    public synchronized void listingUpdated(ListingEntity before, ListingEntity after) {
+        if (ensureLoaded()) {
+            return;
+        }
+        listingRemoved(before);
+        listingAdded(after);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        for (String iso : dirty) {
+            RegionStatistics stats = statistics.get(iso);
+            neo4jClient.query("MATCH (r:Region {iso: $iso}) SET r += $stats")
+                    .bind(iso).to("iso")
+                    .bind(toProperties(stats)).to("stats")
+                    .run();
+        }
+        log.info("Persisted price statistics for {} regions.", dirty.size());
+        dirty.clear();
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        statistics.clear();
+        List<ListingPricePointDto> listings = listingRepository.findAllPricePoints();
+        for (ListingPricePointDto listing : listings) {
+            apply(listing.getLocation(), listing.getPrice(),
+                    pricePerSqm(listing.getPrice(), listing.getPricePerM2(), listing.getArea()), true);
+        }
+        // Regions without listings are reset as well, so stale values do not survive a rebuild
+        regionLocator.allRegions().forEach(region -> {
+            statistics.computeIfAbsent(region.iso(), RegionStatistics::new);
+            dirty.add(region.iso());
+        });
+        loaded = true;
+        log.info("Rebuilt region price statistics from {} listings.", listings.size());
+        flush();
+    }
+
+    @Override
+    public synchronized RegionStatisticsDto getStatistics(String iso) throws NotFoundException {
+        ensureLoaded();
+        RegionLocator.RegionRef region = regionLocator.allRegions().stream()
+                .filter(r -> r.iso().equals(iso))
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Region with iso: " + iso + " not found!"));
+        return toDto(region, statistics.getOrDefault(iso, new RegionStatistics(iso)));
+    }
+
+    @Override
+    public synchronized List<RegionStatisticsDto> getAllStatistics() {
+        ensureLoaded();
+        return regionLocator.allRegions().stream()
+                .sorted(Comparator.comparing(RegionLocator.RegionRef::iso))
+                .map(region -> toDto(region, statistics.getOrDefault(region.iso(), new RegionStatistics(region.iso()))))
+                .toList();
+    }
+
+    private void apply(GeographicPoint2d location, Double price, Double pricePerSqm, boolean add) {
+        if (location == null) {
+            return;
+        }
+        for (RegionLocator.RegionRef region : regionLocator.regionsContaining(location.getLatitude(), location.getLongitude())) {
+            RegionStatistics stats = statistics.computeIfAbsent(region.iso(), RegionStatistics::new);
+            if (add) {
+                stats.add(price, pricePerSqm);
+            } else {
+                stats.remove(price, pricePerSqm);
+            }
+            dirty.add(region.iso());
+        }
+    }
+
+    /**
+     * Loads the persisted aggregates once. If listings exist but no region carries statistics yet,
+     * a full rebuild is done instead, which already reflects every saved change.
+     *
+     * @return whether a rebuild was done
+     */
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return false;
+        }
+        Collection<Map<String, Object>> rows = neo4jClient.query(
+                        "MATCH (r:Region) WHERE r.statsListingCount IS NOT NULL " +
+                                "RETURN r.iso AS iso, r.statsListingCount AS listingCount, r.priceSum AS priceSum, " +
+                                "       r.pricePerSqmCount AS pricePerSqmCount, r.pricePerSqmSum AS pricePerSqmSum, " +
+                                "       r.priceSketchIndexes AS priceSketchIndexes, r.priceSketchCounts AS priceSketchCounts, " +
+                                "       r.pricePerSqmSketchIndexes AS pricePerSqmSketchIndexes, " +
+                                "       r.pricePerSqmSketchCounts AS pricePerSqmSketchCounts")
+                .fetch()
+                .all();
+        if (rows.isEmpty() && listingRepository.count() > 0) {
+            rebuild();
+            return true;
+        }
+        for (Map<String, Object> row : rows) {
+            String iso = (String) row.get("iso");
+            statistics.put(iso, new RegionStatistics(
+                    iso,
+                    number(row.get("listingCount")).longValue(),
+                    number(row.get("priceSum")).doubleValue(),
+                    number(row.get("pricePerSqmCount")).longValue(),
+                    number(row.get("pricePerSqmSum")).doubleValue(),
+                    QuantileSketch.restore(numbers(row.get("priceSketchIndexes")), numbers(row.get("priceSketchCounts"))),
+                    QuantileSketch.restore(numbers(row.get("pricePerSqmSketchIndexes")), numbers(row.get("pricePerSqmSketchCounts")))
+            ));
+        }
+        loaded = true;
+        log.info("Loaded price statistics for {} regions.", statistics.size());
+        return false;
+    }
+
+    private Map<String, Object> toProperties(RegionStatistics stats) {
+        Map<String, Object> properties = new HashMap<>();
+        // Mapped summary values may be overwritten by cascading entity saves, the state is kept separately
+        properties.put("statsListingCount", stats.getListingCount());
+        properties.put("listingCount", stats.getListingCount());
+        properties.put("priceSum", stats.getPriceSum());
+        properties.put("pricePerSqmCount", stats.getPricePerSqmCount());
+        properties.put("pricePerSqmSum", stats.getPricePerSqmSum());
+        properties.put("averagePrice", stats.averagePrice());
+        properties.put("medianPrice", stats.getPriceSketch().quantile(0.5));
+        properties.put("averagePricePerSqm", stats.averagePricePerSqm());
+        properties.put("medianPricePerSqm", stats.getPricePerSqmSketch().quantile(0.5));
+        properties.put("priceSketchIndexes", stats.getPriceSketch().indexes());
+        properties.put("priceSketchCounts", stats.getPriceSketch().counts());
+        properties.put("pricePerSqmSketchIndexes", stats.getPricePerSqmSketch().indexes());
+        properties.put("pricePerSqmSketchCounts", stats.getPricePerSqmSketch().counts());
+        return properties;
+    }
+
+    private RegionStatisticsDto toDto(RegionLocator.RegionRef region, RegionStatistics stats) {
+        QuantileSketch price = stats.getPriceSketch();
+        QuantileSketch perSqm = stats.getPricePerSqmSketch();
+        return RegionStatisticsDto.builder()
+                .iso(region.iso())
+                .name(region.name())
+                .listingCount(stats.getListingCount())
+                .averagePrice(stats.averagePrice())
+                .medianPrice(price.quantile(0.5))
+                .priceP25(price.quantile(0.25))
+                .priceP75(price.quantile(0.75))
+                .priceP90(price.quantile(0.9))
+                .averagePricePerSqm(stats.averagePricePerSqm())
+                .medianPricePerSqm(perSqm.quantile(0.5))
+                .pricePerSqmP25(perSqm.quantile(0.25))
+                .pricePerSqmP75(perSqm.quantile(0.75))
+                .pricePerSqmP90(perSqm.quantile(0.9))
+                .build();
+    }
+
+    private GeographicPoint2d location(ListingEntity listing) {
+        return listing.getAddress() != null ? listing.getAddress().getLocation() : null;
+    }
+
+    /**
+     * Same area rule as {@link ListingRepository#findAllPricePoints()}, so a removal subtracts what was added
+     */
+    private Double pricePerSqm(ListingEntity listing) {
+        return pricePerSqm(listing.getPrice(), listing.getPricePerM2(),
+                listing.getTotalArea() != null ? listing.getTotalArea() : listing.getLivingArea());
+    }
+
+    private static Double pricePerSqm(Double price, Double pricePerM2, Double area) {
+        if (pricePerM2 != null) {
+            return pricePerM2;
+        }
+        if (price == null || area == null || area <= 0) {
+            return null;
+        }
+        return price / area;
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number n ? n : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Number> numbers(Object value) {
+        return value instanceof List<?> list ? (List<Number>) list : List.of();
+    }
+}
@@ -0,0 +1,197 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingCriteria;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SavedSearchDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SavedSearchMatchDto;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.entity.SavedSearchEntity;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
+import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
+import at.ac.tuwien.mogda.willgraph.repository.SavedSearchRepository;
+import at.ac.tuwien.mogda.willgraph.service.SavedSearchService;
+import at.ac.tuwien.mogda.willgraph.service.TransportService;
+import at.ac.tuwien.mogda.willgraph.service.alert.SavedSearchIndex;
+import at.ac.tuwien.mogda.willgraph.service.region.RegionLocator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SavedSearchServiceImpl implements SavedSearchService {
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final ListingRepository listingRepository;
+    private final RegionRepository regionRepository;
+    private final RegionLocator regionLocator;
+    private final TransportService transportService;
+    private final ObjectMapper objectMapper;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final SavedSearchIndex index = new SavedSearchIndex();
+    private final List<PendingMatch> pending = new ArrayList<>();
+    private final Sinks.Many<SavedSearchMatchDto> matches = Sinks.many().multicast().directBestEffort();
+    private boolean loaded;
+
+    private record PendingMatch(String savedSearchId, ListingEntity listing) {
+    }
+
+    @Override
+    public synchronized SavedSearchDto create(SavedSearchDto savedSearch) throws NotFoundException {
+        ListingSearchFilterDto filter = savedSearch.getFilter();
+        ListingCriteria criteria = filter != null ? filter.getListing() : null;
+        if (criteria == null || criteria.getRegion() == null || regionRepository.findByName(criteria.getRegion()).isEmpty()) {
+            throw new NotFoundException("Region " + (criteria != null ? criteria.getRegion() : null) + " not found");
+        }
+        ensureLoaded();
+        SavedSearchEntity entity = savedSearchRepository.save(SavedSearchEntity.builder()
+                .owner(savedSearch.getOwner())
+                .name(savedSearch.getName())
+                .region(criteria.getRegion())
+                .minPrice(criteria.getMinPrice())
+                .maxPrice(criteria.getMaxPrice())
+                .minArea(criteria.getMinArea())
+                .maxArea(criteria.getMaxArea())
+                .filter(toJson(filter))
+                .createdAt(LocalDateTime.now().toString())
+                .build());
+        index.add(entry(entity, filter));
+        return toDto(entity);
+    }
+
+    @Override
+    public List<SavedSearchDto> findByOwner(String owner) {
+        return savedSearchRepository.findByOwner(owner).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    @Override
+    public synchronized void delete(String id) throws NotFoundException {
+        requireExists(id);
+        savedSearchRepository.deleteWithMatches(id);
+        index.remove(id);
+    }
+
+    @Override
+    public List<RealEstateDto> findMatches(String id, String since, int limit) throws NotFoundException {
+        requireExists(id);
+        return listingRepository.findMatchesOfSavedSearch(id, since != null ? since : "", limit).stream()
+                .map(RealEstateServiceImpl::toDto)
+                .toList();
+    }
+
+    @Override
+    public Flux<SavedSearchMatchDto> streamMatches(String id) throws NotFoundException {
+        requireExists(id);
+        return matches.asFlux().filter(match -> id.equals(match.getSavedSearchId()));
+    }
+
+    @Override
+    public synchronized void listingAdded(ListingEntity listing) {
+        ensureLoaded();
+        // The search query compares l.price and l.livingArea, so a listing without them is never a search result
+        if (index.size() == 0 || listing.getId() == null || listing.getPrice() == null || listing.getLivingArea() == null
+                || listing.getAddress() == null || listing.getAddress().getLocation() == null) {
+            return;
+        }
+        GeographicPoint2d location = listing.getAddress().getLocation();
+        List<String> regions = regionLocator.regionsContaining(location.getLatitude(), location.getLongitude()).stream()
+                .map(RegionLocator.RegionRef::name)
+                .toList();
+        if (regions.isEmpty()) {
+            return;
+        }
+        Point point = geometryFactory.createPoint(new Coordinate(location.getLongitude(), location.getLatitude()));
+        for (String savedSearchId : index.match(regions, listing.getPrice(), listing.getLivingArea(), point)) {
+            pending.add(new PendingMatch(savedSearchId, listing));
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        String matchedAt = LocalDateTime.now().toString();
+        List<Map<String, Object>> rows = pending.stream()
+                .map(match -> Map.<String, Object>of("search", match.savedSearchId(), "listing", match.listing().getId()))
+                .toList();
+        savedSearchRepository.recordMatches(rows, matchedAt);
+        for (PendingMatch match : pending) {
+            matches.tryEmitNext(new SavedSearchMatchDto(match.savedSearchId(), RealEstateServiceImpl.toDto(match.listing()), matchedAt));
+        }
+        log.info("Recorded {} saved search matches", pending.size());
+        pending.clear();
+    }
+
+    private void requireExists(String id) throws NotFoundException {
+        if (!savedSearchRepository.existsById(id)) {
+            throw new NotFoundException("Saved search " + id + " not found");
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        for (SavedSearchEntity entity : savedSearchRepository.findAll()) {
+            index.add(entry(entity, fromJson(entity.getFilter())));
+        }
+        loaded = true;
+        log.info("Indexed {} saved searches", index.size());
+    }
+
+    private SavedSearchIndex.Entry entry(SavedSearchEntity entity, ListingSearchFilterDto filter) {
+        return new SavedSearchIndex.Entry(entity.getId(), entity.getRegion(),
+                entity.getMinPrice(), entity.getMaxPrice(), entity.getMinArea(), entity.getMaxArea(),
+                filter != null ? RealEstateServiceImpl.commuteArea(filter.getCommute(), transportService) : null);
+    }
+
+    private SavedSearchDto toDto(SavedSearchEntity entity) {
+        return SavedSearchDto.builder()
+                .id(entity.getId())
+                .owner(entity.getOwner())
+                .name(entity.getName())
+                .filter(fromJson(entity.getFilter()))
+                .createdAt(entity.getCreatedAt())
+                .build();
+    }
+
+    private String toJson(ListingSearchFilterDto filter) {
+        try {
+            return objectMapper.writeValueAsString(filter);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize search filter", e);
+        }
+    }
+
+    private ListingSearchFilterDto fromJson(String filter) {
+        if (filter == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(filter, ListingSearchFilterDto.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable saved search filter: {}", e.getMessage());
+            return null;
+        }
+    }
+}
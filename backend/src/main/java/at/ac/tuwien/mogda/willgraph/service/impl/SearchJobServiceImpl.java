@@ -0,0 +1,323 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.config.AdmissionConfig;
+import at.ac.tuwien.mogda.willgraph.config.SearchJobConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchJobDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchProgressDto;
+import at.ac.tuwien.mogda.willgraph.exception.AdmissionRejectedException;
+import at.ac.tuwien.mogda.willgraph.exception.NotFoundException;
+import at.ac.tuwien.mogda.willgraph.service.ReactiveSearchService;
+import at.ac.tuwien.mogda.willgraph.service.SearchJobService;
+import at.ac.tuwien.mogda.willgraph.service.admission.AdmissionControl;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJob;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobPriority;
+import at.ac.tuwien.mogda.willgraph.service.job.SearchJobStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jobs run the progressive search on a fixed pool of workers fed from a priority queue. All workers share one
+ * admission client, so jobs together never take more than a client's budget from interactive searches; a worker
+ * whose job is shed waits and asks again. Every submission gets its own handle; identical pending filters share
+ * one job, which is only cancelled once all of its handles are. Finished jobs are evicted once their TTL has passed.
+ */
+@Service
+@Slf4j
+public class SearchJobServiceImpl implements SearchJobService {
+
+    static final String ADMISSION_CLIENT = "search-jobs";
+
+    private final SearchJobConfig config;
+    private final AdmissionConfig admissionConfig;
+    private final AdmissionControl admissionControl;
+    private final ReactiveSearchService reactiveSearchService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Handle> handles = new ConcurrentHashMap<>();
+    private final Map<String, SearchJob> pendingByKey = new ConcurrentHashMap<>();
+    private final Map<String, QueuedJob> queued = new ConcurrentHashMap<>();
+    private final Map<SearchJob, List<Handle>> liveHandles = new HashMap<>();
+    private final Map<String, Integer> pendingByClient = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SearchJobServiceImpl(SearchJobConfig config, AdmissionConfig admissionConfig, AdmissionControl admissionControl,
+                                ReactiveSearchService reactiveSearchService, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.config = config;
+        this.admissionConfig = admissionConfig;
+        this.admissionControl = admissionControl;
+        this.reactiveSearchService = reactiveSearchService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        // Only Comparable runnables are passed to execute(), submit() would wrap them in a FutureTask
+        this.executor = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), Thread.ofPlatform().name("search-job-", 0).daemon().factory());
+        Gauge.builder("willgraph.search_jobs.queued", executor, e -> e.getQueue().size())
+                .description("Search jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("willgraph.search_jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Search jobs being executed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One submitter's view of a possibly shared job. It counts towards its client's pending jobs until the job
+     * finishes or the handle is cancelled.
+     */
+    private static final class Handle {
+        private final String id = UUID.randomUUID().toString();
+        private final SearchJob job;
+        private final String client;
+        private final Instant submittedAt = Instant.now();
+        private volatile Instant cancelledAt;
+        private boolean pending = true;
+
+        private Handle(SearchJob job, String client) {
+            this.job = job;
+            this.client = client;
+        }
+
+        private Instant finishedAt() {
+            return cancelledAt != null ? cancelledAt : job.getFinishedAt();
+        }
+    }
+
+    /**
+     * Orders the executor queue by priority, then by submission
+     */
+    private record QueuedJob(SearchJob job, SearchJobPriority priority, long sequence, Runnable task)
+            implements Runnable, Comparable<QueuedJob> {
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    @Override
+    public synchronized SearchJobDto submit(ListingSearchFilterDto filter, SearchJobPriority priority, String client) throws AdmissionRejectedException {
+        if (pendingByClient.getOrDefault(client, 0) >= config.getPerClientPending()) {
+            count("rejected");
+            throw new AdmissionRejectedException("Too many pending search jobs", admissionConfig.getRetryAfterSeconds());
+        }
+        String key = key(filter);
+        SearchJob pending = pendingByKey.get(key);
+        if (pending != null && !pending.getStatus().isFinished()) {
+            prioritize(pending, priority);
+            count("deduplicated");
+            return toDto(attach(pending, client));
+        }
+        if (executor.getQueue().size() >= config.getQueueCapacity()) {
+            count("rejected");
+            throw new AdmissionRejectedException("Search job queue is full", admissionConfig.getRetryAfterSeconds());
+        }
+        SearchJob job = new SearchJob(UUID.randomUUID().toString(), key, filter, admissionControl.searchCost(filter), priority);
+        pendingByKey.put(key, job);
+        Handle handle = attach(job, client);
+        enqueue(job, priority);
+        count("queued");
+        return toDto(handle);
+    }
+
+    @Override
+    public SearchJobDto get(String id) throws NotFoundException {
+        return toDto(find(id));
+    }
+
+    /**
+     * Cancels this submitter's handle; the job itself only once no other handle shares it
+     */
+    @Override
+    public synchronized void cancel(String id) throws NotFoundException {
+        Handle handle = find(id);
+        SearchJob job = handle.job;
+        if (handle.cancelledAt != null || job.getStatus().isFinished()) {
+            return;
+        }
+        handle.cancelledAt = Instant.now();
+        releaseClient(handle);
+        List<Handle> live = liveHandles.get(job);
+        if (live != null) {
+            live.remove(handle);
+            if (!live.isEmpty()) {
+                return;
+            }
+        }
+        QueuedJob entry = queued.remove(job.getId());
+        if (entry != null) {
+            executor.remove(entry);
+        }
+        job.cancel();
+        release(job);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(config.getResultTtlMinutes()));
+        handles.values().removeIf(handle -> handle.finishedAt() != null && handle.finishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * An interactive submission of a queued bulk job moves it ahead
+     */
+    private void prioritize(SearchJob job, SearchJobPriority priority) {
+        if (priority.compareTo(job.getPriority()) >= 0) {
+            return;
+        }
+        QueuedJob entry = queued.get(job.getId());
+        if (entry != null && executor.remove(entry)) {
+            enqueue(job, priority);
+        }
+        job.prioritize(priority);
+    }
+
+    private void enqueue(SearchJob job, SearchJobPriority priority) {
+        QueuedJob entry = new QueuedJob(job, priority, sequence.incrementAndGet(), () -> run(job));
+        queued.put(job.getId(), entry);
+        executor.execute(entry);
+    }
+
+    private void run(SearchJob job) {
+        queued.remove(job.getId());
+        if (!job.start()) {
+            release(job);
+            return;
+        }
+        try (AdmissionControl.Permit _ = admit(job)) {
+            SearchProgressDto last = reactiveSearchService
+                    .searchProgressively(job.getFilter(), Duration.ofSeconds(config.getTimeoutSeconds()))
+                    .doOnNext(job::progress)
+                    .blockLast();
+            job.complete(last != null ? last.getResults() : List.of());
+        } catch (InterruptedException _) {
+            // Cancelled while waiting for admission
+        } catch (Exception e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (!Thread.currentThread().isInterrupted()) {
+                log.warn("Search job {} failed: {}", job.getId(), cause.getMessage());
+            }
+            job.fail(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        } finally {
+            release(job);
+            Thread.interrupted();
+        }
+    }
+
+    private Handle attach(SearchJob job, String client) {
+        Handle handle = new Handle(job, client);
+        handles.put(handle.id, handle);
+        liveHandles.computeIfAbsent(job, _ -> new ArrayList<>()).add(handle);
+        pendingByClient.merge(client, 1, Integer::sum);
+        return handle;
+    }
+
+    /**
+     * Ends the job's claim on its filter key and its handles' claims on their clients' pending jobs; called once
+     * the job has finished or was cancelled, repeated calls are no-ops
+     */
+    private synchronized void release(SearchJob job) {
+        pendingByKey.remove(job.getKey(), job);
+        List<Handle> live = liveHandles.remove(job);
+        if (live != null) {
+            live.forEach(this::releaseClient);
+        }
+    }
+
+    private void releaseClient(Handle handle) {
+        if (handle.pending) {
+            handle.pending = false;
+            pendingByClient.computeIfPresent(handle.client, (_, pending) -> pending > 1 ? pending - 1 : null);
+        }
+    }
+
+    private AdmissionControl.Permit admit(SearchJob job) throws InterruptedException {
+        while (true) {
+            try {
+                return admissionControl.acquire(ADMISSION_CLIENT, job.getCost());
+            } catch (AdmissionRejectedException e) {
+                Thread.sleep(Duration.ofSeconds(e.getRetryAfterSeconds()));
+            }
+        }
+    }
+
+    private Handle find(String id) throws NotFoundException {
+        Handle handle = handles.get(id);
+        if (handle == null) {
+            throw new NotFoundException("Search job " + id + " not found or expired");
+        }
+        return handle;
+    }
+
+    private String key(ListingSearchFilterDto filter) {
+        try {
+            return objectMapper.writeValueAsString(filter);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize search filter", e);
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("willgraph.search_jobs.submitted")
+                .description("Submitted search jobs by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private SearchJobDto toDto(Handle handle) {
+        SearchJob job = handle.job;
+        SearchProgressDto progress = job.getProgress();
+        // A handle cancelled while others keep the job running reports its own cancellation
+        SearchJobStatus status = handle.cancelledAt != null ? SearchJobStatus.CANCELLED : job.getStatus();
+        Instant finishedAt = handle.finishedAt();
+        return SearchJobDto.builder()
+                .id(handle.id)
+                .status(status)
+                .priority(job.getPriority())
+                .stage(progress != null ? progress.getStage() : null)
+                .scoredCandidates(progress != null ? progress.getScoredCandidates() : null)
+                .totalCandidates(progress != null ? progress.getTotalCandidates() : null)
+                .results(status == SearchJobStatus.DONE ? job.getResults() : null)
+                .error(job.getError())
+                .submittedAt(handle.submittedAt.toString())
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt().toString() : null)
+                .finishedAt(finishedAt != null ? finishedAt.toString() : null)
+                .expiresAt(finishedAt != null
+                        ? finishedAt.plus(Duration.ofMinutes(config.getResultTtlMinutes())).toString() : null)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package at.ac.tuwien.mogda.willgraph.service.impl;
+
+import at.ac.tuwien.mogda.willgraph.cache.LruCache;
+import at.ac.tuwien.mogda.willgraph.config.TileConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TileFeatureDto;
+import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
+import at.ac.tuwien.mogda.willgraph.repository.PoIRepository;
+import at.ac.tuwien.mogda.willgraph.repository.TransportRepository;
+import at.ac.tuwien.mogda.willgraph.service.TileService;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileCoordinate;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
+import at.ac.tuwien.mogda.willgraph.service.tile.VectorTileEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class TileServiceImpl implements TileService {
+
+    private final ListingRepository listingRepository;
+    private final PoIRepository poiRepository;
+    private final TransportRepository transportRepository;
+    private final TileConfig tileConfig;
+    private final LruCache<TileKey, byte[]> cache;
+
+    public TileServiceImpl(ListingRepository listingRepository,
+                           PoIRepository poiRepository,
+                           TransportRepository transportRepository,
+                           TileConfig tileConfig) {
+        this.listingRepository = listingRepository;
+        this.poiRepository = poiRepository;
+        this.transportRepository = transportRepository;
+        this.tileConfig = tileConfig;
+        this.cache = new LruCache<>(tileConfig.getCacheSize());
+    }
+
+    @Override
+    public byte[] getTile(TileLayer layer, TileCoordinate tile) {
+        if (tile.z() < tileConfig.getMinZoom() || tile.z() > tileConfig.getMaxZoom()) {
+            return new byte[0];
+        }
+        return cache.computeIfAbsent(new TileKey(layer, tile.z(), tile.x(), tile.y()), key -> encode(layer, tile));
+    }
+
+    @Override
+    public void invalidatePoint(TileLayer layer, double lat, double lon) {
+        double bufferFraction = bufferFraction();
+        for (int z = tileConfig.getMinZoom(); z <= tileConfig.getMaxZoom(); z++) {
+            double tileX = TileCoordinate.lonToTileX(lon, z);
+            double tileY = TileCoordinate.latToTileY(lat, z);
+            int minX = (int) Math.floor(tileX - bufferFraction);
+            int maxX = (int) Math.floor(tileX + bufferFraction);
+            int minY = (int) Math.floor(tileY - bufferFraction);
+            int maxY = (int) Math.floor(tileY + bufferFraction);
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    cache.remove(new TileKey(layer, z, x, y));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateLayer(TileLayer layer) {
+        int removed = cache.removeIf(key -> key.layer() == layer);
+        log.debug("Invalidated {} cached {} tiles", removed, layer.layerName());
+    }
+
+    private byte[] encode(TileLayer layer, TileCoordinate tile) {
+        double[] bounds = tile.bounds(bufferFraction());
+        List<TileFeatureDto> features = switch (layer) {
+            case TRANSPORT -> transportRepository.findTileFeatures(bounds[0], bounds[1], bounds[2], bounds[3]);
+            case POI -> poiRepository.findTileFeatures(bounds[0], bounds[1], bounds[2], bounds[3]);
+            case LISTING -> listingRepository.findTileFeatures(bounds[0], bounds[1], bounds[2], bounds[3]);
+        };
+
+        int extent = tileConfig.getExtent();
+        VectorTileEncoder encoder = new VectorTileEncoder(extent);
+        for (TileFeatureDto feature : features) {
+            if (feature.getLocation() == null) {
+                continue;
+            }
+            int x = (int) Math.round((TileCoordinate.lonToTileX(feature.getLocation().getLongitude(), tile.z()) - tile.x()) * extent);
+            int y = (int) Math.round((TileCoordinate.latToTileY(feature.getLocation().getLatitude(), tile.z()) - tile.y()) * extent);
+            encoder.addPoint(layer.layerName(), null, x, y, attributes(feature));
+        }
+        log.debug("Encoded {} tile {}/{}/{} with {} features", layer.layerName(), tile.z(), tile.x(), tile.y(), features.size());
+        return encoder.encode();
+    }
+
+    private Map<String, Object> attributes(TileFeatureDto feature) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("id", feature.getId());
+        attributes.put("name", feature.getName());
+        attributes.put("category", feature.getCategory());
+        attributes.put("line", feature.getLine());
+        attributes.put("price", feature.getPrice());
+        attributes.put("livingArea", feature.getLivingArea());
+        attributes.put("roomCount", feature.getRoomCount());
+        return attributes;
+    }
+
+    private double bufferFraction() {
+        return tileConfig.getBuffer() / (double) tileConfig.getExtent();
+    }
+
+    private record TileKey(TileLayer layer, int z, int x, int y) {
+    }
+}
@@ -1,23 +1,109 @@
 package at.ac.tuwien.mogda.willgraph.service.impl;
 
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.IsochroneDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.ReachableStationDto;
 import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
 import at.ac.tuwien.mogda.willgraph.repository.TransportRepository;
 import at.ac.tuwien.mogda.willgraph.service.TransportService;
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransitGraph;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransitGraphService;
+import at.ac.tuwien.mogda.willgraph.service.routing.TransitRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TransportServiceImpl implements TransportService {
+    /**
+     * Vertices used to approximate each walking circle of the isochrone area
+     */
+    private static final int CIRCLE_SEGMENTS = 24;
+    /**
+     * Remaining walking radii below this are not worth a circle
+     */
+    private static final double MIN_CIRCLE_RADIUS_METERS = 25.0;
+
     private final TransportRepository transportRepository;
+    private final TransitGraphService transitGraphService;
+    private final RoutingConfig routingConfig;
+    private final GeometryFactory geometryFactory = new GeometryFactory();
 
 
     @Override
     public List<StationDistanceDto> findStationsByLocation(double lat, double lng, double v) {
         return this.transportRepository.findStationsByLocation(lat, lng, v);
     }
+
+    @Override
+    public IsochroneDto computeIsochrone(double lat, double lng, double budgetMinutes, double requestedWalkDistance) {
+        // Requests are validated by the controllers, this keeps internal callers within the grid bound too
+        double maxWalkDistance = Math.min(requestedWalkDistance, routingConfig.getMaxWalkDistance());
+        TransitGraph graph = transitGraphService.graph();
+
+        List<TransitRouter.Source> sources = new ArrayList<>();
+        graph.forEachNearby(lat, lng, maxWalkDistance,
+                (node, meters) -> sources.add(new TransitRouter.Source(node, GeoMath.walkingMinutes(meters), meters)));
+        TransitRouter.SearchResult result = TransitRouter.search(graph, sources, budgetMinutes);
+
+        List<ReachableStationDto> stations = new ArrayList<>();
+        List<Geometry> circles = new ArrayList<>();
+        circles.add(circle(lat, lng, Math.min(budgetMinutes * GeoMath.WALKING_SPEED_METERS_PER_MINUTE, maxWalkDistance)));
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (!result.reached(node)) {
+                continue;
+            }
+            double arrival = result.minutes()[node];
+            stations.add(ReachableStationDto.builder()
+                    .id(graph.id(node))
+                    .name(graph.name(node))
+                    .location(new GeographicPoint2d(graph.lat(node), graph.lon(node)))
+                    .arrivalMinutes(arrival)
+                    .hops(result.hops()[node])
+                    .walkingMeters((double) result.walkMeters()[node])
+                    .build());
+            double radius = Math.min((budgetMinutes - arrival) * GeoMath.WALKING_SPEED_METERS_PER_MINUTE, maxWalkDistance);
+            if (radius >= MIN_CIRCLE_RADIUS_METERS) {
+                circles.add(circle(graph.lat(node), graph.lon(node), radius));
+            }
+        }
+        stations.sort(Comparator.comparingDouble(ReachableStationDto::getArrivalMinutes));
+        log.debug("Isochrone from {},{} ({} min): {} sources, {} stations settled",
+                lat, lng, budgetMinutes, sources.size(), result.settledCount());
+
+        return IsochroneDto.builder()
+                .origin(new GeographicPoint2d(lat, lng))
+                .budgetMinutes(budgetMinutes)
+                .maxWalkDistance(maxWalkDistance)
+                .stations(stations)
+                .area(UnaryUnionOp.union(circles, geometryFactory))
+                .build();
+    }
+
+    /**
+     * Polygon approximating a circle in lon/lat, scaled by the local metres per degree
+     */
+    private Geometry circle(double lat, double lon, double radiusMeters) {
+        double dLat = radiusMeters / GeoMath.METERS_PER_DEGREE_LAT;
+        double dLon = radiusMeters / GeoMath.metersPerDegreeLon(lat);
+        Coordinate[] ring = new Coordinate[CIRCLE_SEGMENTS + 1];
+        for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+            double angle = 2 * Math.PI * i / CIRCLE_SEGMENTS;
+            ring[i] = new Coordinate(lon + dLon * Math.cos(angle), lat + dLat * Math.sin(angle));
+        }
+        ring[CIRCLE_SEGMENTS] = ring[0];
+        return geometryFactory.createPolygon(ring);
+    }
 }
@@ -0,0 +1,93 @@
+package at.ac.tuwien.mogda.willgraph.service.job;
+
+import at.ac.tuwien.mogda.willgraph.controller.dto.ListingSearchFilterDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.RealEstateWithScoreDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.SearchProgressDto;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State of one asynchronous search, written by its worker and read by pollers
+ */
+@Getter
+public class SearchJob {
+    private final String id;
+    /**
+     * Identical filters share one pending job
+     */
+    private final String key;
+    private final ListingSearchFilterDto filter;
+    private final int cost;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile SearchJobPriority priority;
+    private volatile SearchJobStatus status = SearchJobStatus.QUEUED;
+    private volatile SearchProgressDto progress;
+    private volatile List<RealEstateWithScoreDto> results;
+    private volatile String error;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Thread worker;
+
+    public SearchJob(String id, String key, ListingSearchFilterDto filter, int cost, SearchJobPriority priority) {
+        this.id = id;
+        this.key = key;
+        this.filter = filter;
+        this.cost = cost;
+        this.priority = priority;
+    }
+
+    public synchronized boolean start() {
+        if (status != SearchJobStatus.QUEUED) {
+            return false;
+        }
+        status = SearchJobStatus.RUNNING;
+        startedAt = Instant.now();
+        worker = Thread.currentThread();
+        return true;
+    }
+
+    public void progress(SearchProgressDto progress) {
+        this.progress = progress;
+    }
+
+    public synchronized void complete(List<RealEstateWithScoreDto> results) {
+        if (status == SearchJobStatus.RUNNING) {
+            this.results = results;
+            finish(SearchJobStatus.DONE);
+        }
+    }
+
+    public synchronized void fail(String error) {
+        if (status == SearchJobStatus.RUNNING) {
+            this.error = error;
+            finish(SearchJobStatus.FAILED);
+        }
+    }
+
+    /**
+     * A running job is interrupted, which cancels its query
+     */
+    public synchronized void cancel() {
+        if (status.isFinished()) {
+            return;
+        }
+        Thread running = worker;
+        finish(SearchJobStatus.CANCELLED);
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    public void prioritize(SearchJobPriority priority) {
+        this.priority = priority;
+    }
+
+    private void finish(SearchJobStatus status) {
+        this.status = status;
+        this.finishedAt = Instant.now();
+        this.worker = null;
+    }
+}
@@ -0,0 +1,9 @@
+package at.ac.tuwien.mogda.willgraph.service.job;
+
+/**
+ * Order in which queued search jobs are started; jobs of the same priority run in submission order
+ */
+public enum SearchJobPriority {
+    INTERACTIVE,
+    BULK
+}
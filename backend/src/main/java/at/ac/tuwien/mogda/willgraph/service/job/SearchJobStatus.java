@@ -0,0 +1,13 @@
+package at.ac.tuwien.mogda.willgraph.service.job;
+
+public enum SearchJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED || this == CANCELLED;
+    }
+}
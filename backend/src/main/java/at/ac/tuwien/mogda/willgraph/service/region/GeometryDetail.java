@@ -0,0 +1,62 @@
+package at.ac.tuwien.mogda.willgraph.service.region;
+
+/**
+ * Pre-computed levels of detail for region outlines.
+ * Tolerances are in degrees and used with topology-preserving simplification.
+ */
+public enum GeometryDetail {
+    FULL(0.0, 13),
+    HIGH(0.0005, 10),
+    MEDIUM(0.002, 7),
+    LOW(0.01, 0);
+
+    private final double tolerance;
+    private final int minZoom;
+
+    GeometryDetail(double tolerance, int minZoom) {
+        this.tolerance = tolerance;
+        this.minZoom = minZoom;
+    }
+
+    public double tolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Coarsest level that still looks exact at the given web map zoom
+     */
+    public static GeometryDetail forZoom(int zoom) {
+        for (GeometryDetail detail : values()) {
+            if (zoom >= detail.minZoom) {
+                return detail;
+            }
+        }
+        return LOW;
+    }
+
+    /**
+     * Coarsest level whose tolerance does not exceed the requested one
+     */
+    public static GeometryDetail forTolerance(double tolerance) {
+        GeometryDetail result = FULL;
+        for (GeometryDetail detail : values()) {
+            if (detail.tolerance <= tolerance) {
+                result = detail;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the request parameters of the region endpoints, zoom wins over tolerance
+     */
+    public static GeometryDetail resolve(Integer zoom, Double tolerance) {
+        if (zoom != null) {
+            return forZoom(zoom);
+        }
+        if (tolerance != null) {
+            return forTolerance(tolerance);
+        }
+        return FULL;
+    }
+}
@@ -0,0 +1,132 @@
+package at.ac.tuwien.mogda.willgraph.service.region;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Log-bucketed quantile sketch (DDSketch style) with a bounded relative error.
+ * Unlike sampling sketches it supports removals, which keeps region statistics
+ * maintainable when listings change or disappear.
+ */
+public class QuantileSketch {
+
+    private static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        adjust(value, 1);
+    }
+
+    /**
+     * Removes a value previously added. Removing values that were never added is ignored.
+     */
+    public void remove(double value) {
+        adjust(value, -1);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param q quantile in [0, 1]
+     * @return estimated value, or null when the sketch is empty
+     */
+    public Double quantile(double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(Math.max(0.0, Math.min(1.0, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+        long seen = zeroCount;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return 2 * Math.pow(gamma, bucket.getKey()) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, buckets.lastKey()) / (gamma + 1);
+    }
+
+    /**
+     * Bucket indexes, with the zero bucket encoded as {@link Integer#MIN_VALUE}. Parallel to {@link #counts()}.
+     */
+    public List<Integer> indexes() {
+        List<Integer> indexes = new ArrayList<>(buckets.size() + 1);
+        if (zeroCount > 0) {
+            indexes.add(Integer.MIN_VALUE);
+        }
+        indexes.addAll(buckets.keySet());
+        return indexes;
+    }
+
+    public List<Long> counts() {
+        List<Long> counts = new ArrayList<>(buckets.size() + 1);
+        if (zeroCount > 0) {
+            counts.add(zeroCount);
+        }
+        counts.addAll(buckets.values());
+        return counts;
+    }
+
+    public static QuantileSketch restore(List<? extends Number> indexes, List<? extends Number> counts) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (indexes == null || counts == null) {
+            return sketch;
+        }
+        for (int i = 0; i < Math.min(indexes.size(), counts.size()); i++) {
+            int index = indexes.get(i).intValue();
+            long bucketCount = counts.get(i).longValue();
+            if (index == Integer.MIN_VALUE) {
+                sketch.zeroCount += bucketCount;
+            } else {
+                sketch.buckets.merge(index, bucketCount, Long::sum);
+            }
+            sketch.count += bucketCount;
+        }
+        return sketch;
+    }
+
+    private void adjust(double value, long delta) {
+        if (Double.isNaN(value) || value < 0) {
+            return;
+        }
+        if (value == 0) {
+            if (zeroCount + delta < 0) {
+                return;
+            }
+            zeroCount += delta;
+            count += delta;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        long current = buckets.getOrDefault(index, 0L);
+        if (current + delta < 0) {
+            return;
+        }
+        if (current + delta == 0) {
+            buckets.remove(index);
+        } else {
+            buckets.put(index, current + delta);
+        }
+        count += delta;
+    }
+}
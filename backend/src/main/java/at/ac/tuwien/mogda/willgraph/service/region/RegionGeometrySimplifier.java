@@ -0,0 +1,39 @@
+package at.ac.tuwien.mogda.willgraph.service.region;
+
+import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the simplified geometry levels stored next to the full region outline.
+ */
+@Component
+public class RegionGeometrySimplifier {
+
+    public void applyLevels(RegionEntity region) {
+        Geometry full = region.getGeometry();
+        if (full == null) {
+            return;
+        }
+        region.setGeometryHigh(simplify(full, GeometryDetail.HIGH));
+        region.setGeometryMedium(simplify(full, GeometryDetail.MEDIUM));
+        region.setGeometryLow(simplify(full, GeometryDetail.LOW));
+    }
+
+    public static Geometry select(RegionEntity region, GeometryDetail detail) {
+        Geometry selected = switch (detail) {
+            case FULL -> region.getGeometry();
+            case HIGH -> region.getGeometryHigh();
+            case MEDIUM -> region.getGeometryMedium();
+            case LOW -> region.getGeometryLow();
+        };
+        // Regions imported before levels existed fall back to the full outline
+        return selected != null ? selected : region.getGeometry();
+    }
+
+    private Geometry simplify(Geometry geometry, GeometryDetail detail) {
+        Geometry simplified = TopologyPreservingSimplifier.simplify(geometry, detail.tolerance());
+        return simplified.isEmpty() ? geometry : simplified;
+    }
+}
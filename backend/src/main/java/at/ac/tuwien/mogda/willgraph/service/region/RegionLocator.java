@@ -0,0 +1,94 @@
+package at.ac.tuwien.mogda.willgraph.service.region;
+
+import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory spatial index over all region outlines (Gemeinden and Bezirke).
+ * Loaded lazily on first use; {@link #reload()} after the region set changed.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RegionLocator {
+
+    private final RegionRepository regionRepository;
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private volatile Index index;
+
+    /**
+     * All regions whose outline contains the point, e.g. its Gemeinde and its Bezirk
+     */
+    public List<RegionRef> regionsContaining(double lat, double lon) {
+        Index current = index();
+        Point point = geometryFactory.createPoint(new Coordinate(lon, lat));
+        List<RegionRef> result = new ArrayList<>(2);
+        for (Object candidate : current.tree().query(point.getEnvelopeInternal())) {
+            IndexedRegion region = (IndexedRegion) candidate;
+            if (region.geometry().contains(point)) {
+                result.add(region.ref());
+            }
+        }
+        return result;
+    }
+
+    public List<RegionRef> allRegions() {
+        return index().regions();
+    }
+
+    public synchronized void reload() {
+        index = null;
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (index == null) {
+                index = load();
+            }
+            return index;
+        }
+    }
+
+    private Index load() {
+        List<RegionEntity> regions = regionRepository.findAll();
+        STRtree tree = new STRtree();
+        List<RegionRef> refs = new ArrayList<>(regions.size());
+        for (RegionEntity region : regions) {
+            if (region.getGeometry() == null) {
+                continue;
+            }
+            RegionRef ref = new RegionRef(region.getIso(), region.getName());
+            refs.add(ref);
+            tree.insert(region.getGeometry().getEnvelopeInternal(),
+                    new IndexedRegion(ref, PreparedGeometryFactory.prepare(region.getGeometry())));
+        }
+        tree.build();
+        log.info("Indexed {} region outlines for point lookups.", refs.size());
+        return new Index(tree, List.copyOf(refs));
+    }
+
+    public record RegionRef(String iso, String name) {
+    }
+
+    private record IndexedRegion(RegionRef ref, PreparedGeometry geometry) {
+    }
+
+    private record Index(STRtree tree, List<RegionRef> regions) {
+    }
+}
@@ -0,0 +1,70 @@
+package at.ac.tuwien.mogda.willgraph.service.region;
+
+import lombok.Getter;
+
+/**
+ * Incrementally maintained price aggregates of a single region.
+ */
+@Getter
+public class RegionStatistics {
+
+    private final String iso;
+    private long listingCount;
+    private double priceSum;
+    private long pricePerSqmCount;
+    private double pricePerSqmSum;
+    private final QuantileSketch priceSketch;
+    private final QuantileSketch pricePerSqmSketch;
+
+    public RegionStatistics(String iso) {
+        this(iso, 0, 0.0, 0, 0.0, new QuantileSketch(), new QuantileSketch());
+    }
+
+    public RegionStatistics(String iso, long listingCount, double priceSum, long pricePerSqmCount, double pricePerSqmSum,
+                            QuantileSketch priceSketch, QuantileSketch pricePerSqmSketch) {
+        this.iso = iso;
+        this.listingCount = listingCount;
+        this.priceSum = priceSum;
+        this.pricePerSqmCount = pricePerSqmCount;
+        this.pricePerSqmSum = pricePerSqmSum;
+        this.priceSketch = priceSketch;
+        this.pricePerSqmSketch = pricePerSqmSketch;
+    }
+
+    public void add(Double price, Double pricePerSqm) {
+        apply(price, pricePerSqm, 1);
+    }
+
+    public void remove(Double price, Double pricePerSqm) {
+        apply(price, pricePerSqm, -1);
+    }
+
+    public Double averagePrice() {
+        return priceSketch.count() == 0 ? null : priceSum / priceSketch.count();
+    }
+
+    public Double averagePricePerSqm() {
+        return pricePerSqmCount == 0 ? null : pricePerSqmSum / pricePerSqmCount;
+    }
+
+    private void apply(Double price, Double pricePerSqm, int sign) {
+        listingCount = Math.max(0, listingCount + sign);
+        if (price != null) {
+            priceSum += sign * price;
+            if (sign > 0) {
+                priceSketch.add(price);
+            } else {
+                priceSketch.remove(price);
+            }
+        }
+        if (pricePerSqm != null) {
+            pricePerSqmCount = Math.max(0, pricePerSqmCount + sign);
+            pricePerSqmSum += sign * pricePerSqm;
+            if (sign > 0) {
+                pricePerSqmSketch.add(pricePerSqm);
+            } else {
+                pricePerSqmSketch.remove(pricePerSqm);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Preprocesses an undirected walkway network into a {@link PedestrianGraph}. Nodes are contracted in order
+ * of edge difference plus contracted neighbours with lazy updates; a shortcut is only added when a bounded
+ * witness search finds no equally short path around the contracted node.
+ */
+@Slf4j
+public final class ContractionHierarchyBuilder {
+
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+
+    private final int nodeCount;
+    private final int[][] neighbours;
+    private final float[][] weights;
+    private final int[] degree;
+    private final boolean[] contracted;
+    private final int[] contractedNeighbours;
+
+    private final float[] witnessDist;
+    private final int[] touched;
+    private int touchedCount;
+    private final LongHeap witnessHeap = new LongHeap(64);
+
+    private ContractionHierarchyBuilder(int nodeCount) {
+        this.nodeCount = nodeCount;
+        this.neighbours = new int[nodeCount][];
+        this.weights = new float[nodeCount][];
+        this.degree = new int[nodeCount];
+        this.contracted = new boolean[nodeCount];
+        this.contractedNeighbours = new int[nodeCount];
+        this.witnessDist = new float[nodeCount];
+        this.touched = new int[nodeCount];
+        Arrays.fill(witnessDist, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param sourceStamp stored with the graph to detect a changed OSM extract
+     */
+    public static PedestrianGraph build(OsmWalkwayReader.WalkwayNetwork network, long sourceStamp) {
+        long start = System.currentTimeMillis();
+        int[] component = largestComponent(network);
+        int nodeCount = 0;
+        for (int node = 0; node < component.length; node++) {
+            if (component[node] >= 0) {
+                component[node] = nodeCount++;
+            }
+        }
+        double[] lat = new double[nodeCount];
+        double[] lon = new double[nodeCount];
+        for (int node = 0; node < component.length; node++) {
+            if (component[node] >= 0) {
+                lat[component[node]] = network.lat()[node];
+                lon[component[node]] = network.lon()[node];
+            }
+        }
+
+        ContractionHierarchyBuilder builder = new ContractionHierarchyBuilder(nodeCount);
+        for (int e = 0; e < network.edgeFrom().length; e++) {
+            int a = component[network.edgeFrom()[e]];
+            int b = component[network.edgeTo()[e]];
+            if (a >= 0 && b >= 0) {
+                builder.addOrImprove(a, b, network.meters()[e]);
+                builder.addOrImprove(b, a, network.meters()[e]);
+            }
+        }
+        PedestrianGraph graph = builder.contract(sourceStamp, lat, lon);
+        log.info("Built pedestrian contraction hierarchy with {} nodes and {} upward edges in {} ms",
+                graph.nodeCount(), graph.edgeCount(), System.currentTimeMillis() - start);
+        return graph;
+    }
+
+    private PedestrianGraph contract(long sourceStamp, double[] lat, double[] lon) {
+        LongHeap queue = new LongHeap(Math.max(16, nodeCount));
+        for (int node = 0; node < nodeCount; node++) {
+            queue.push(priorityEntry(priority(node), node));
+        }
+
+        int[] upOffsets = new int[nodeCount + 1];
+        int[][] upTargets = new int[nodeCount][];
+        float[][] upMeters = new float[nodeCount][];
+        while (!queue.isEmpty()) {
+            int node = (int) queue.pop();
+            if (contracted[node]) {
+                continue;
+            }
+            int priority = priority(node);
+            if (!queue.isEmpty() && priority > (int) (queue.peek() >> 32)) {
+                queue.push(priorityEntry(priority, node));
+                continue;
+            }
+
+            contractNode(node, true);
+            contracted[node] = true;
+            int up = 0;
+            int[] targets = new int[degree[node]];
+            float[] meters = new float[degree[node]];
+            for (int i = 0; i < degree[node]; i++) {
+                int neighbour = neighbours[node][i];
+                if (!contracted[neighbour]) {
+                    targets[up] = neighbour;
+                    meters[up++] = weights[node][i];
+                }
+            }
+            upTargets[node] = Arrays.copyOf(targets, up);
+            upMeters[node] = Arrays.copyOf(meters, up);
+            neighbours[node] = null;
+            weights[node] = null;
+
+            for (int target : upTargets[node]) {
+                contractedNeighbours[target]++;
+            }
+        }
+
+        for (int node = 0; node < nodeCount; node++) {
+            upOffsets[node + 1] = upOffsets[node] + upTargets[node].length;
+        }
+        int[] targets = new int[upOffsets[nodeCount]];
+        float[] meters = new float[upOffsets[nodeCount]];
+        for (int node = 0; node < nodeCount; node++) {
+            System.arraycopy(upTargets[node], 0, targets, upOffsets[node], upTargets[node].length);
+            System.arraycopy(upMeters[node], 0, meters, upOffsets[node], upMeters[node].length);
+        }
+        return new PedestrianGraph(sourceStamp, lat, lon, upOffsets, targets, meters);
+    }
+
+    private int priority(int node) {
+        int remaining = 0;
+        for (int i = 0; i < degree[node]; i++) {
+            if (!contracted[neighbours[node][i]]) {
+                remaining++;
+            }
+        }
+        return contractNode(node, false) - remaining + contractedNeighbours[node];
+    }
+
+    /**
+     * Counts, and with {@code apply} inserts, the shortcuts needed to remove the node
+     */
+    private int contractNode(int node, boolean apply) {
+        if (degree[node] == 0) {
+            return 0;
+        }
+        int count = 0;
+        int[] adjacent = Arrays.copyOf(neighbours[node], degree[node]);
+        float[] adjacentMeters = Arrays.copyOf(weights[node], degree[node]);
+        for (int i = 0; i < adjacent.length; i++) {
+            int from = adjacent[i];
+            if (contracted[from]) {
+                continue;
+            }
+            float maxVia = 0;
+            for (int j = i + 1; j < adjacent.length; j++) {
+                if (!contracted[adjacent[j]]) {
+                    maxVia = Math.max(maxVia, adjacentMeters[i] + adjacentMeters[j]);
+                }
+            }
+            if (maxVia == 0) {
+                continue;
+            }
+            witnessSearch(from, node, maxVia);
+            for (int j = i + 1; j < adjacent.length; j++) {
+                int to = adjacent[j];
+                float via = adjacentMeters[i] + adjacentMeters[j];
+                if (contracted[to] || witnessDist[to] <= via) {
+                    continue;
+                }
+                count++;
+                if (apply) {
+                    addOrImprove(from, to, via);
+                    addOrImprove(to, from, via);
+                }
+            }
+            resetWitness();
+        }
+        return count;
+    }
+
+    private void witnessSearch(int source, int excluded, float maxMeters) {
+        witnessHeap.clear();
+        touch(source, 0f);
+        witnessHeap.push(LongHeap.encode(0f, source));
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            long entry = witnessHeap.pop();
+            int node = LongHeap.node(entry);
+            float cost = LongHeap.cost(entry);
+            if (cost > witnessDist[node]) {
+                continue;
+            }
+            if (cost > maxMeters) {
+                break;
+            }
+            settled++;
+            for (int i = 0; i < degree[node]; i++) {
+                int next = neighbours[node][i];
+                if (next == excluded || contracted[next]) {
+                    continue;
+                }
+                float candidate = cost + weights[node][i];
+                if (candidate < witnessDist[next]) {
+                    touch(next, candidate);
+                    witnessHeap.push(LongHeap.encode(candidate, next));
+                }
+            }
+        }
+    }
+
+    private void touch(int node, float meters) {
+        if (witnessDist[node] == Float.POSITIVE_INFINITY) {
+            touched[touchedCount++] = node;
+        }
+        witnessDist[node] = meters;
+    }
+
+    private void resetWitness() {
+        for (int i = 0; i < touchedCount; i++) {
+            witnessDist[touched[i]] = Float.POSITIVE_INFINITY;
+        }
+        touchedCount = 0;
+    }
+
+    private void addOrImprove(int from, int to, float meters) {
+        if (from == to) {
+            return;
+        }
+        for (int i = 0; i < degree[from]; i++) {
+            if (neighbours[from][i] == to) {
+                weights[from][i] = Math.min(weights[from][i], meters);
+                return;
+            }
+        }
+        if (neighbours[from] == null) {
+            neighbours[from] = new int[4];
+            weights[from] = new float[4];
+        } else if (degree[from] == neighbours[from].length) {
+            neighbours[from] = Arrays.copyOf(neighbours[from], degree[from] * 2);
+            weights[from] = Arrays.copyOf(weights[from], degree[from] * 2);
+        }
+        neighbours[from][degree[from]] = to;
+        weights[from][degree[from]++] = meters;
+    }
+
+    private static long priorityEntry(int priority, int node) {
+        return ((long) priority << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Maps every node of the largest connected component to zero and all others to -1, so snapping never
+     * lands on an isolated fragment such as a courtyard path
+     */
+    private static int[] largestComponent(OsmWalkwayReader.WalkwayNetwork network) {
+        int n = network.lat().length;
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        for (int e = 0; e < network.edgeFrom().length; e++) {
+            int a = find(parent, network.edgeFrom()[e]);
+            int b = find(parent, network.edgeTo()[e]);
+            if (a != b) {
+                parent[a] = b;
+            }
+        }
+        int[] size = new int[n];
+        int largest = -1;
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (++size[root] > (largest < 0 ? 0 : size[largest])) {
+                largest = root;
+            }
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = find(parent, i) == largest ? 0 : -1;
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+}
@@ -0,0 +1,36 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+/**
+ * Shared great-circle helpers. Walking speed matches the 80 m/min used in the Cypher queries.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_METERS = 6371000.0;
+    public static final double WALKING_SPEED_METERS_PER_MINUTE = 80.0;
+    public static final double METERS_PER_DEGREE_LAT = 111320.0;
+
+    private GeoMath() {
+    }
+
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1Rad) * Math.cos(lat2Rad)
+                * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_METERS * c;
+    }
+
+    public static double walkingMinutes(double meters) {
+        return meters / WALKING_SPEED_METERS_PER_MINUTE;
+    }
+
+    public static double metersPerDegreeLon(double lat) {
+        return METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat));
+    }
+}
@@ -0,0 +1,79 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive longs, avoids boxing in the hot loop of the Dijkstra searches.
+ * Entries are usually built with {@link #encode(float, int)}.
+ */
+final class LongHeap {
+    private long[] data;
+    private int size;
+
+    LongHeap(int capacity) {
+        data = new long[capacity];
+    }
+
+    /**
+     * Non-negative floats keep their order when compared as raw bits, so cost and node fit in one long
+     */
+    static long encode(float cost, int node) {
+        return ((long) Float.floatToIntBits(cost) << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    static int node(long entry) {
+        return (int) entry;
+    }
+
+    static float cost(long entry) {
+        return Float.intBitsToFloat((int) (entry >>> 32));
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    long peek() {
+        return data[0];
+    }
+
+    void push(long value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (data[parent] <= value) {
+                break;
+            }
+            data[i] = data[parent];
+            i = parent;
+        }
+        data[i] = value;
+    }
+
+    long pop() {
+        long top = data[0];
+        long last = data[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && data[child + 1] < data[child]) {
+                child++;
+            }
+            if (last <= data[child]) {
+                break;
+            }
+            data[i] = data[child];
+            i = child;
+        }
+        data[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,221 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the walkable ways of an OSM XML extract in two streaming passes: the first collects the node
+ * references of walkable ways, the second only keeps the coordinates of those nodes.
+ */
+@Slf4j
+public final class OsmWalkwayReader {
+
+    private static final Set<String> WALKABLE_HIGHWAYS = Set.of(
+            "footway", "pedestrian", "path", "steps", "living_street", "residential", "service",
+            "unclassified", "tertiary", "tertiary_link", "secondary", "secondary_link", "primary",
+            "primary_link", "track", "cycleway", "bridleway", "corridor", "road");
+    private static final Set<String> FORBIDDEN = Set.of("no", "private");
+
+    private OsmWalkwayReader() {
+    }
+
+    public static WalkwayNetwork read(Path file) throws IOException {
+        long start = System.currentTimeMillis();
+        RefList wayRefs = new RefList();
+        RefList wayEnds = new RefList();
+        parse(file, new WayCollector(wayRefs, wayEnds));
+
+        long[] nodeIds = Arrays.copyOf(wayRefs.values, wayRefs.size);
+        Arrays.sort(nodeIds);
+        int unique = 0;
+        for (int i = 0; i < nodeIds.length; i++) {
+            if (i == 0 || nodeIds[i] != nodeIds[i - 1]) {
+                nodeIds[unique++] = nodeIds[i];
+            }
+        }
+        nodeIds = Arrays.copyOf(nodeIds, unique);
+
+        double[] lat = new double[unique];
+        double[] lon = new double[unique];
+        Arrays.fill(lat, Double.NaN);
+        parse(file, new NodeCollector(nodeIds, lat, lon));
+
+        RefList from = new RefList();
+        RefList to = new RefList();
+        int wayStart = 0;
+        for (int w = 0; w < wayEnds.size; w++) {
+            int wayEnd = (int) wayEnds.values[w];
+            for (int i = wayStart + 1; i < wayEnd; i++) {
+                int a = Arrays.binarySearch(nodeIds, wayRefs.values[i - 1]);
+                int b = Arrays.binarySearch(nodeIds, wayRefs.values[i]);
+                if (a != b && !Double.isNaN(lat[a]) && !Double.isNaN(lat[b])) {
+                    from.add(a);
+                    to.add(b);
+                }
+            }
+            wayStart = wayEnd;
+        }
+
+        int[] edgeFrom = new int[from.size];
+        int[] edgeTo = new int[to.size];
+        float[] meters = new float[from.size];
+        for (int e = 0; e < from.size; e++) {
+            edgeFrom[e] = (int) from.values[e];
+            edgeTo[e] = (int) to.values[e];
+            meters[e] = (float) GeoMath.haversine(lat[edgeFrom[e]], lon[edgeFrom[e]], lat[edgeTo[e]], lon[edgeTo[e]]);
+        }
+        log.info("Read {} walkable ways with {} nodes and {} segments from {} in {} ms",
+                wayEnds.size, unique, edgeFrom.length, file, System.currentTimeMillis() - start);
+        return new WalkwayNetwork(lat, lon, edgeFrom, edgeTo, meters);
+    }
+
+    private static void parse(Path file, ElementHandler handler) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        handler.start(reader);
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        handler.end(reader.getLocalName());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not parse OSM file " + file, e);
+        }
+    }
+
+    /**
+     * Walkable segments of an OSM extract, nodes are indexed densely from zero
+     */
+    public record WalkwayNetwork(double[] lat, double[] lon, int[] edgeFrom, int[] edgeTo, float[] meters) {
+    }
+
+    private interface ElementHandler {
+        void start(XMLStreamReader reader);
+
+        default void end(String name) {
+        }
+    }
+
+    private static final class WayCollector implements ElementHandler {
+        private final RefList wayRefs;
+        private final RefList wayEnds;
+        private final Map<String, String> tags = new HashMap<>();
+        private boolean inWay;
+        private int wayStart;
+
+        WayCollector(RefList wayRefs, RefList wayEnds) {
+            this.wayRefs = wayRefs;
+            this.wayEnds = wayEnds;
+        }
+
+        @Override
+        public void start(XMLStreamReader reader) {
+            switch (reader.getLocalName()) {
+                case "way" -> {
+                    inWay = true;
+                    wayStart = wayRefs.size;
+                    tags.clear();
+                }
+                case "nd" -> {
+                    if (inWay) {
+                        wayRefs.add(Long.parseLong(reader.getAttributeValue(null, "ref")));
+                    }
+                }
+                case "tag" -> {
+                    if (inWay) {
+                        tags.put(reader.getAttributeValue(null, "k"), reader.getAttributeValue(null, "v"));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void end(String name) {
+            if (!"way".equals(name)) {
+                return;
+            }
+            inWay = false;
+            if (isWalkable()) {
+                wayEnds.add(wayRefs.size);
+            } else {
+                wayRefs.size = wayStart;
+            }
+        }
+
+        private boolean isWalkable() {
+            String highway = tags.get("highway");
+            if (highway == null || !WALKABLE_HIGHWAYS.contains(highway)) {
+                return false;
+            }
+            String foot = tags.get("foot");
+            if (foot != null) {
+                return !FORBIDDEN.contains(foot);
+            }
+            String access = tags.get("access");
+            return access == null || !FORBIDDEN.contains(access);
+        }
+    }
+
+    private static final class NodeCollector implements ElementHandler {
+        private final long[] nodeIds;
+        private final double[] lat;
+        private final double[] lon;
+
+        NodeCollector(long[] nodeIds, double[] lat, double[] lon) {
+            this.nodeIds = nodeIds;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        @Override
+        public void start(XMLStreamReader reader) {
+            if (!"node".equals(reader.getLocalName())) {
+                return;
+            }
+            int index = Arrays.binarySearch(nodeIds, Long.parseLong(reader.getAttributeValue(null, "id")));
+            if (index >= 0) {
+                lat[index] = Double.parseDouble(reader.getAttributeValue(null, "lat"));
+                lon[index] = Double.parseDouble(reader.getAttributeValue(null, "lon"));
+            }
+        }
+    }
+
+    /**
+     * Growable primitive long list
+     */
+    private static final class RefList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contracted pedestrian network. Only the upward edges of the contraction hierarchy are kept (towards nodes
+ * of higher rank, shortcuts included), which is all an undirected CH query needs. Weights are metres.
+ */
+public final class PedestrianGraph {
+
+    private static final int MAGIC = 0x57474348;
+    private static final int VERSION = 1;
+    private static final double CELL_SIZE_DEGREES = 0.002;
+
+    private final long sourceStamp;
+    private final double[] lat;
+    private final double[] lon;
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] meters;
+    private final Map<Long, int[]> grid;
+
+    PedestrianGraph(long sourceStamp, double[] lat, double[] lon, int[] offsets, int[] targets, float[] meters) {
+        this.sourceStamp = sourceStamp;
+        this.lat = lat;
+        this.lon = lon;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.meters = meters;
+        this.grid = buildGrid();
+    }
+
+    public int nodeCount() {
+        return lat.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Identifies the OSM file the hierarchy was built from, see {@link PedestrianGraphService}
+     */
+    public long sourceStamp() {
+        return sourceStamp;
+    }
+
+    int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    int target(int edge) {
+        return targets[edge];
+    }
+
+    float meters(int edge) {
+        return meters[edge];
+    }
+
+    /**
+     * Nearest network node within the radius, or {@code null}
+     */
+    public Snap snap(double latitude, double longitude, double radiusMeters) {
+        double dLat = radiusMeters / GeoMath.METERS_PER_DEGREE_LAT;
+        double dLon = radiusMeters / Math.max(1.0, GeoMath.metersPerDegreeLon(latitude));
+        int best = -1;
+        double bestMeters = radiusMeters;
+        for (long x = cell(longitude - dLon); x <= cell(longitude + dLon); x++) {
+            for (long y = cell(latitude - dLat); y <= cell(latitude + dLat); y++) {
+                int[] nodes = grid.get(cellKey(x, y));
+                if (nodes == null) {
+                    continue;
+                }
+                for (int node : nodes) {
+                    double distance = GeoMath.haversine(latitude, longitude, lat[node], lon[node]);
+                    if (distance <= bestMeters) {
+                        best = node;
+                        bestMeters = distance;
+                    }
+                }
+            }
+        }
+        return best < 0 ? null : new Snap(best, bestMeters);
+    }
+
+    /**
+     * Writes the graph through a temporary file so a crash never leaves a truncated hierarchy behind
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(sourceStamp).putInt(lat.length).putInt(targets.length);
+            header.clear();
+            writeFully(channel, header);
+
+            ByteBuffer body = ByteBuffer.allocate(bodySize(lat.length, targets.length)).order(ByteOrder.LITTLE_ENDIAN);
+            body.asDoubleBuffer().put(lat).put(lon);
+            body.position(body.position() + 16 * lat.length);
+            body.asIntBuffer().put(offsets).put(targets);
+            body.position(body.position() + 4 * (offsets.length + targets.length));
+            body.asFloatBuffer().put(meters);
+            body.clear();
+            writeFully(channel, body);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static PedestrianGraph read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a pedestrian hierarchy file: " + file);
+            }
+            long stamp = buffer.getLong();
+            int nodes = buffer.getInt();
+            int edges = buffer.getInt();
+            buffer.position(32);
+            if (buffer.remaining() != bodySize(nodes, edges)) {
+                throw new IOException("Truncated pedestrian hierarchy file: " + file);
+            }
+
+            double[] lat = new double[nodes];
+            double[] lon = new double[nodes];
+            int[] offsets = new int[nodes + 1];
+            int[] targets = new int[edges];
+            float[] meters = new float[edges];
+            buffer.asDoubleBuffer().get(lat).get(lon);
+            buffer.position(buffer.position() + 16 * nodes);
+            buffer.asIntBuffer().get(offsets).get(targets);
+            buffer.position(buffer.position() + 4 * (offsets.length + edges));
+            buffer.asFloatBuffer().get(meters);
+            return new PedestrianGraph(stamp, lat, lon, offsets, targets, meters);
+        }
+    }
+
+    private static int bodySize(int nodes, int edges) {
+        return 16 * nodes + 4 * (nodes + 1) + 8 * edges;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private Map<Long, int[]> buildGrid() {
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < lat.length; i++) {
+            cells.computeIfAbsent(cellKey(cell(lon[i]), cell(lat[i])), k -> new ArrayList<>()).add(i);
+        }
+        Map<Long, int[]> result = new HashMap<>(cells.size() * 2);
+        cells.forEach((key, nodes) -> result.put(key, nodes.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+
+    public record Snap(int node, double meters) {
+    }
+}
@@ -0,0 +1,148 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import at.ac.tuwien.mogda.willgraph.config.PedestrianConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Walking distances over the OSM footway network. The contraction hierarchy is built once from the configured
+ * extract and persisted; later starts map the stored file as long as the extract did not change.
+ * Without a network, while the hierarchy is still being built, or for points off the network, the straight-line
+ * distance is returned.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PedestrianGraphService {
+
+    private final PedestrianConfig pedestrianConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile PedestrianRouter router;
+
+    /**
+     * Preprocessing a large extract takes a while, so it starts in the background right after startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        start();
+    }
+
+    /**
+     * Never blocks on the build, callers fall back to straight-line distances until it is ready
+     *
+     * @return the router, or {@code null} when no pedestrian network is configured or it is still being built
+     */
+    public PedestrianRouter router() {
+        start();
+        return router;
+    }
+
+    public boolean isAvailable() {
+        return router() != null;
+    }
+
+    public double walkingMeters(double fromLat, double fromLon, double toLat, double toLon) {
+        double straight = GeoMath.haversine(fromLat, fromLon, toLat, toLon);
+        PedestrianRouter current = router();
+        if (current == null) {
+            return straight;
+        }
+        PedestrianGraph.Snap from = current.graph().snap(fromLat, fromLon, pedestrianConfig.getSnapRadius());
+        PedestrianGraph.Snap to = current.graph().snap(toLat, toLon, pedestrianConfig.getSnapRadius());
+        if (from == null || to == null) {
+            return straight;
+        }
+        double network = from.meters() + current.distance(from.node(), to.node()) + to.meters();
+        return Double.isFinite(network) ? Math.max(straight, network) : straight;
+    }
+
+    /**
+     * One-to-many variant of {@link #walkingMeters(double, double, double, double)}
+     */
+    public double[] walkingMeters(double fromLat, double fromLon, double[] toLat, double[] toLon) {
+        double[] result = new double[toLat.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = GeoMath.haversine(fromLat, fromLon, toLat[i], toLon[i]);
+        }
+        PedestrianRouter current = router();
+        if (current == null) {
+            return result;
+        }
+        PedestrianGraph.Snap from = current.graph().snap(fromLat, fromLon, pedestrianConfig.getSnapRadius());
+        if (from == null) {
+            return result;
+        }
+
+        PedestrianGraph.Snap[] snaps = new PedestrianGraph.Snap[toLat.length];
+        int[] targets = new int[toLat.length];
+        for (int i = 0; i < snaps.length; i++) {
+            snaps[i] = current.graph().snap(toLat[i], toLon[i], pedestrianConfig.getSnapRadius());
+            targets[i] = snaps[i] == null ? from.node() : snaps[i].node();
+        }
+        double[] network = current.distances(from.node(), targets);
+        for (int i = 0; i < result.length; i++) {
+            if (snaps[i] != null && Double.isFinite(network[i])) {
+                result[i] = Math.max(result[i], from.meters() + network[i] + snaps[i].meters());
+            }
+        }
+        return result;
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("pedestrian-hierarchy").daemon().start(() -> {
+                router = load();
+                if (router != null) {
+                    eventPublisher.publishEvent(new PedestrianNetworkLoadedEvent(router.graph().nodeCount()));
+                }
+            });
+        }
+    }
+
+    private PedestrianRouter load() {
+        Path hierarchyFile = Path.of(pedestrianConfig.getHierarchyFile());
+        Path osmFile = pedestrianConfig.getOsmFile() == null || pedestrianConfig.getOsmFile().isBlank()
+                ? null : Path.of(pedestrianConfig.getOsmFile());
+        try {
+            Long stamp = osmFile != null && Files.isRegularFile(osmFile) ? stamp(osmFile) : null;
+            if (Files.isRegularFile(hierarchyFile)) {
+                PedestrianGraph stored = PedestrianGraph.read(hierarchyFile);
+                if (stamp == null || stored.sourceStamp() == stamp) {
+                    log.info("Loaded pedestrian hierarchy with {} nodes from {}", stored.nodeCount(), hierarchyFile);
+                    return router(stored);
+                }
+                log.info("OSM extract {} changed, rebuilding pedestrian hierarchy", osmFile);
+            }
+            if (stamp == null) {
+                log.info("No pedestrian network configured, walking distances are straight-line");
+                return null;
+            }
+            PedestrianGraph built = ContractionHierarchyBuilder.build(OsmWalkwayReader.read(osmFile), stamp);
+            built.write(hierarchyFile);
+            return router(built);
+        } catch (IOException e) {
+            log.error("Could not load pedestrian network, walking distances are straight-line", e);
+            return null;
+        }
+    }
+
+    private PedestrianRouter router(PedestrianGraph graph) {
+        int workspaces = pedestrianConfig.getRouterWorkspaces() > 0
+                ? pedestrianConfig.getRouterWorkspaces() : Runtime.getRuntime().availableProcessors();
+        return new PedestrianRouter(graph, workspaces);
+    }
+
+    private static long stamp(Path file) throws IOException {
+        return Files.size(file) * 31 + Files.getLastModifiedTime(file).toMillis();
+    }
+}
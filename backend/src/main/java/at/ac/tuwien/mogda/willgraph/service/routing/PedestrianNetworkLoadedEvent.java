@@ -0,0 +1,8 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+/**
+ * Published once the pedestrian network is ready, so links created with straight-line distances while it was
+ * still loading can be refined
+ */
+public record PedestrianNetworkLoadedEvent(int nodeCount) {
+}
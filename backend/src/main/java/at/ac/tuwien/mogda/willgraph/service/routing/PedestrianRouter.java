@@ -0,0 +1,189 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shortest walking distances on a {@link PedestrianGraph}. Both query directions only follow upward edges;
+ * the shortest path is the minimum over nodes reached from both sides. Search state lives in pooled
+ * workspaces that are reset through their touched list, so a query only costs the size of its search space.
+ * The pool is bounded because a workspace holds two arrays over the whole graph; with virtual threads a
+ * per-thread workspace would be allocated again for every request.
+ */
+public final class PedestrianRouter {
+
+    private final PedestrianGraph graph;
+    private final BlockingQueue<Workspace> workspaces;
+    private final int maxWorkspaces;
+    private final AtomicInteger createdWorkspaces = new AtomicInteger();
+
+    /**
+     * @param maxWorkspaces queries running at the same time, further ones wait for a workspace
+     */
+    public PedestrianRouter(PedestrianGraph graph, int maxWorkspaces) {
+        this.graph = graph;
+        this.maxWorkspaces = maxWorkspaces;
+        this.workspaces = new ArrayBlockingQueue<>(maxWorkspaces);
+    }
+
+    public PedestrianGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Network distance in metres between two nodes, {@link Double#POSITIVE_INFINITY} if they are not connected
+     */
+    public double distance(int source, int target) {
+        if (source == target) {
+            return 0.0;
+        }
+        Workspace workspace = borrow();
+        try {
+            workspace.forward.searchAll(graph, source);
+            return workspace.backward.meet(graph, target, workspace.forward);
+        } finally {
+            workspace.forward.reset();
+            workspaces.offer(workspace);
+        }
+    }
+
+    /**
+     * Network distances from one node to many, unreachable targets are {@link Double#POSITIVE_INFINITY}
+     */
+    public double[] distances(int source, int[] targets) {
+        double[] result = new double[targets.length];
+        Workspace workspace = borrow();
+        try {
+            workspace.forward.searchAll(graph, source);
+            for (int i = 0; i < targets.length; i++) {
+                result[i] = targets[i] == source ? 0.0 : workspace.backward.meet(graph, targets[i], workspace.forward);
+            }
+        } finally {
+            workspace.forward.reset();
+            workspaces.offer(workspace);
+        }
+        return result;
+    }
+
+    /**
+     * A pooled workspace, a new one while fewer than {@code maxWorkspaces} exist, otherwise the next one returned
+     */
+    private Workspace borrow() {
+        Workspace workspace = workspaces.poll();
+        if (workspace != null) {
+            return workspace;
+        }
+        if (createdWorkspaces.incrementAndGet() <= maxWorkspaces) {
+            return new Workspace(graph.nodeCount());
+        }
+        createdWorkspaces.decrementAndGet();
+        try {
+            return workspaces.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pedestrian routing workspace", e);
+        }
+    }
+
+    private static final class Workspace {
+        private final Search forward;
+        private final Search backward;
+
+        Workspace(int nodeCount) {
+            forward = new Search(nodeCount);
+            backward = new Search(nodeCount);
+        }
+    }
+
+    private static final class Search {
+        private final float[] dist;
+        private int[] touched = new int[256];
+        private int touchedCount;
+        private final LongHeap heap = new LongHeap(256);
+
+        Search(int nodeCount) {
+            dist = new float[nodeCount];
+            Arrays.fill(dist, Float.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Settles the complete upward search space of the source
+         */
+        void searchAll(PedestrianGraph graph, int source) {
+            start(source);
+            while (!heap.isEmpty()) {
+                long entry = heap.pop();
+                int node = LongHeap.node(entry);
+                float cost = LongHeap.cost(entry);
+                if (cost <= dist[node]) {
+                    relax(graph, node, cost);
+                }
+            }
+        }
+
+        /**
+         * Upward search from the target that stops once no label can improve the best meeting point
+         */
+        double meet(PedestrianGraph graph, int target, Search other) {
+            double best = Double.POSITIVE_INFINITY;
+            try {
+                start(target);
+                while (!heap.isEmpty()) {
+                    long entry = heap.pop();
+                    int node = LongHeap.node(entry);
+                    float cost = LongHeap.cost(entry);
+                    if (cost >= best) {
+                        break;
+                    }
+                    if (cost > dist[node]) {
+                        continue;
+                    }
+                    float opposite = other.dist[node];
+                    if (opposite != Float.POSITIVE_INFINITY) {
+                        best = Math.min(best, (double) cost + opposite);
+                    }
+                    relax(graph, node, cost);
+                }
+                return best;
+            } finally {
+                reset();
+            }
+        }
+
+        private void start(int source) {
+            heap.clear();
+            touch(source, 0f);
+            heap.push(LongHeap.encode(0f, source));
+        }
+
+        private void relax(PedestrianGraph graph, int node, float cost) {
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int next = graph.target(edge);
+                float candidate = cost + graph.meters(edge);
+                if (candidate < dist[next]) {
+                    touch(next, candidate);
+                    heap.push(LongHeap.encode(candidate, next));
+                }
+            }
+        }
+
+        private void touch(int node, float meters) {
+            if (dist[node] == Float.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = node;
+            }
+            dist[node] = meters;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Float.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory copy of the transit network in compressed sparse row layout.
+ * Nodes are station hubs (or single stops before consolidation), edges are {@code CONNECTED_TO} legs and
+ * {@code WALK} transfers, stored in both directions because the Cypher path queries treat them as undirected as well.
+ * Every edge remembers the platforms it leaves from and arrives at, so changing platforms within a hub can be
+ * charged with the hub's transfer penalty.
+ */
+public final class TransitGraph {
+
+    public static final byte EDGE_TRANSIT = 0;
+    public static final byte EDGE_WALK = 1;
+
+    private static final double CELL_SIZE_DEGREES = 0.005;
+
+    private final String[] ids;
+    private final String[] names;
+    private final double[] lat;
+    private final double[] lon;
+    private final float[] transferMinutes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] fromPlatforms;
+    private final int[] toPlatforms;
+    private final float[] minutes;
+    private final float[] walkMeters;
+    private final byte[] kinds;
+    private final Map<String, Integer> indexById;
+    private final Map<Long, int[]> grid;
+
+    TransitGraph(String[] ids, String[] names, double[] lat, double[] lon, float[] transferMinutes,
+                 int[] offsets, int[] targets, int[] fromPlatforms, int[] toPlatforms,
+                 float[] minutes, float[] walkMeters, byte[] kinds) {
+        this.ids = ids;
+        this.names = names;
+        this.lat = lat;
+        this.lon = lon;
+        this.transferMinutes = transferMinutes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.fromPlatforms = fromPlatforms;
+        this.toPlatforms = toPlatforms;
+        this.minutes = minutes;
+        this.walkMeters = walkMeters;
+        this.kinds = kinds;
+        this.indexById = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            indexById.put(ids[i], i);
+        }
+        this.grid = buildGrid();
+    }
+
+    public static TransitGraph empty() {
+        return new TransitGraph(new String[0], new String[0], new double[0], new double[0], new float[0],
+                new int[]{0}, new int[0], new int[0], new int[0], new float[0], new float[0], new byte[0]);
+    }
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public String id(int node) {
+        return ids[node];
+    }
+
+    public String name(int node) {
+        return names[node];
+    }
+
+    public double lat(int node) {
+        return lat[node];
+    }
+
+    public double lon(int node) {
+        return lon[node];
+    }
+
+    /**
+     * Minutes needed to change between two platforms of the node's hub, zero for single stops
+     */
+    public float transferMinutes(int node) {
+        return transferMinutes[node];
+    }
+
+    public Integer indexOf(String id) {
+        return indexById.get(id);
+    }
+
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public int fromPlatform(int edge) {
+        return fromPlatforms[edge];
+    }
+
+    public int toPlatform(int edge) {
+        return toPlatforms[edge];
+    }
+
+    public float minutes(int edge) {
+        return minutes[edge];
+    }
+
+    public float walkMeters(int edge) {
+        return walkMeters[edge];
+    }
+
+    public byte kind(int edge) {
+        return kinds[edge];
+    }
+
+    /**
+     * Calls the consumer for every station within {@code radiusMeters} of the point
+     */
+    public void forEachNearby(double latitude, double longitude, double radiusMeters, NearbyConsumer consumer) {
+        double dLat = radiusMeters / GeoMath.METERS_PER_DEGREE_LAT;
+        double dLon = radiusMeters / Math.max(1.0, GeoMath.metersPerDegreeLon(latitude));
+        long minX = cell(longitude - dLon);
+        long maxX = cell(longitude + dLon);
+        long minY = cell(latitude - dLat);
+        long maxY = cell(latitude + dLat);
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                int[] nodes = grid.get(cellKey(x, y));
+                if (nodes == null) {
+                    continue;
+                }
+                for (int node : nodes) {
+                    double distance = GeoMath.haversine(latitude, longitude, lat[node], lon[node]);
+                    if (distance <= radiusMeters) {
+                        consumer.accept(node, distance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stations within the radius, nearest first, at most {@code limit}
+     */
+    public List<NearbyStation> nearest(double latitude, double longitude, double radiusMeters, int limit) {
+        List<NearbyStation> result = new ArrayList<>();
+        forEachNearby(latitude, longitude, radiusMeters, (node, meters) -> result.add(new NearbyStation(node, meters)));
+        result.sort((a, b) -> Double.compare(a.meters(), b.meters()));
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    private Map<Long, int[]> buildGrid() {
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            cells.computeIfAbsent(cellKey(cell(lon[i]), cell(lat[i])), k -> new ArrayList<>()).add(i);
+        }
+        Map<Long, int[]> result = new HashMap<>(cells.size() * 2);
+        cells.forEach((key, nodes) -> result.put(key, nodes.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+
+    @FunctionalInterface
+    public interface NearbyConsumer {
+        void accept(int node, double meters);
+    }
+
+    public record NearbyStation(int node, double meters) {
+    }
+}
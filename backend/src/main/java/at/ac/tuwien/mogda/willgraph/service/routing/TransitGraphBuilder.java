@@ -0,0 +1,121 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects stations and edges and packs them into a {@link TransitGraph}.
+ * Stops registered as platforms of a hub are merged into the hub node; edges between two platforms of the
+ * same hub disappear and parallel edges between two hubs collapse to the fastest one.
+ */
+public class TransitGraphBuilder {
+
+    private final List<String> ids = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<double[]> locations = new ArrayList<>();
+    private final List<Float> transferMinutes = new ArrayList<>();
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final Map<String, int[]> platformById = new HashMap<>();
+    private final List<Edge> edges = new ArrayList<>();
+
+    public TransitGraphBuilder addStation(String id, String name, double lat, double lon) {
+        addNode(id, name, lat, lon, 0.0);
+        return addPlatform(id, id);
+    }
+
+    /**
+     * Registers a stop as a platform of a hub, creating the hub node on first use
+     *
+     * @param transferMinutes time to change between two platforms of the hub
+     */
+    public TransitGraphBuilder addHubPlatform(String platformId, String hubId, String hubName,
+                                              double hubLat, double hubLon, double transferMinutes) {
+        addNode(hubId, hubName, hubLat, hubLon, transferMinutes);
+        return addPlatform(platformId, hubId);
+    }
+
+    /**
+     * Adds an undirected edge between two stops; edges referencing unknown stops are ignored
+     */
+    public TransitGraphBuilder addEdge(String fromId, String toId, double minutes, double walkMeters, byte kind) {
+        int[] from = platformById.get(fromId);
+        int[] to = platformById.get(toId);
+        if (from == null || to == null || from[0] == to[0]) {
+            return this;
+        }
+        edges.add(new Edge(from[0], to[0], from[1], to[1], (float) minutes, (float) walkMeters, kind));
+        edges.add(new Edge(to[0], from[0], to[1], from[1], (float) minutes, (float) walkMeters, kind));
+        return this;
+    }
+
+    public TransitGraph build() {
+        int n = ids.size();
+        edges.sort(Comparator.comparingInt(Edge::from)
+                .thenComparingInt(Edge::to)
+                .thenComparingInt(Edge::kind)
+                .thenComparingDouble(Edge::minutes));
+        List<Edge> unique = new ArrayList<>(edges.size());
+        for (Edge edge : edges) {
+            Edge last = unique.isEmpty() ? null : unique.getLast();
+            if (last == null || last.from() != edge.from() || last.to() != edge.to() || last.kind() != edge.kind()) {
+                unique.add(edge);
+            }
+        }
+
+        int[] offsets = new int[n + 1];
+        for (Edge edge : unique) {
+            offsets[edge.from() + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[unique.size()];
+        int[] fromPlatforms = new int[unique.size()];
+        int[] toPlatforms = new int[unique.size()];
+        float[] minutes = new float[unique.size()];
+        float[] walkMeters = new float[unique.size()];
+        byte[] kinds = new byte[unique.size()];
+        for (int slot = 0; slot < unique.size(); slot++) {
+            Edge edge = unique.get(slot);
+            targets[slot] = edge.to();
+            fromPlatforms[slot] = edge.fromPlatform();
+            toPlatforms[slot] = edge.toPlatform();
+            minutes[slot] = edge.minutes();
+            walkMeters[slot] = edge.walkMeters();
+            kinds[slot] = edge.kind();
+        }
+
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        float[] transfer = new float[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = locations.get(i)[0];
+            lon[i] = locations.get(i)[1];
+            transfer[i] = transferMinutes.get(i);
+        }
+        return new TransitGraph(ids.toArray(new String[0]), names.toArray(new String[0]), lat, lon, transfer,
+                offsets, targets, fromPlatforms, toPlatforms, minutes, walkMeters, kinds);
+    }
+
+    private void addNode(String id, String name, double lat, double lon, double transfer) {
+        if (indexById.containsKey(id)) {
+            return;
+        }
+        indexById.put(id, ids.size());
+        ids.add(id);
+        names.add(name);
+        locations.add(new double[]{lat, lon});
+        transferMinutes.add((float) transfer);
+    }
+
+    private TransitGraphBuilder addPlatform(String platformId, String nodeId) {
+        platformById.putIfAbsent(platformId, new int[]{indexById.get(nodeId), platformById.size()});
+        return this;
+    }
+
+    private record Edge(int from, int to, int fromPlatform, int toPlatform, float minutes, float walkMeters, byte kind) {
+    }
+}
@@ -0,0 +1,96 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Holds the in-memory {@link TransitGraph}. The graph is loaded from Neo4j on first use and
+ * reloaded after the transport data changed.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransitGraphService {
+
+    /**
+     * Used when a CONNECTED_TO leg has no travel time
+     */
+    private static final double DEFAULT_LEG_MINUTES = 2.0;
+
+    private final Neo4jClient neo4jClient;
+    private volatile TransitGraph graph;
+
+    public TransitGraph graph() {
+        TransitGraph current = graph;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (graph == null) {
+                graph = load();
+            }
+            return graph;
+        }
+    }
+
+    public synchronized void reload() {
+        graph = load();
+    }
+
+    private TransitGraph load() {
+        long start = System.currentTimeMillis();
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+
+        neo4jClient.query("MATCH (t:Transport) WHERE t.location IS NOT NULL " +
+                        "OPTIONAL MATCH (t)-[:PLATFORM_OF]->(h:StationHub) " +
+                        "RETURN t.id AS id, t.name AS name, t.location.latitude AS lat, t.location.longitude AS lon, " +
+                        "       h.id AS hubId, h.name AS hubName, h.location.latitude AS hubLat, h.location.longitude AS hubLon, " +
+                        "       h.transferPenaltyMinutes AS transferMinutes")
+                .fetch()
+                .all()
+                .forEach(row -> addStop(builder, row));
+
+        neo4jClient.query("MATCH (a:Transport)-[r:CONNECTED_TO|WALK]->(b:Transport) " +
+                        "RETURN a.id AS fromId, b.id AS toId, type(r) AS kind, " +
+                        "       r.travelTimeInMinutes AS minutes, r.distance AS distance")
+                .fetch()
+                .all()
+                .forEach(row -> addEdge(builder, row));
+
+        TransitGraph loaded = builder.build();
+        log.info("Loaded transit graph with {} stations and {} directed edges in {} ms",
+                loaded.nodeCount(), loaded.edgeCount(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    /**
+     * Stops consolidated by {@link at.ac.tuwien.mogda.willgraph.service.StationHubService} become one hub node
+     */
+    private void addStop(TransitGraphBuilder builder, Map<String, Object> row) {
+        String id = (String) row.get("id");
+        if (row.get("hubId") == null) {
+            builder.addStation(id, (String) row.get("name"),
+                    ((Number) row.get("lat")).doubleValue(), ((Number) row.get("lon")).doubleValue());
+            return;
+        }
+        double transfer = row.get("transferMinutes") instanceof Number n ? n.doubleValue() : 0.0;
+        builder.addHubPlatform(id, (String) row.get("hubId"), (String) row.get("hubName"),
+                ((Number) row.get("hubLat")).doubleValue(), ((Number) row.get("hubLon")).doubleValue(), transfer);
+    }
+
+    private void addEdge(TransitGraphBuilder builder, Map<String, Object> row) {
+        String fromId = (String) row.get("fromId");
+        String toId = (String) row.get("toId");
+        if ("WALK".equals(row.get("kind"))) {
+            double meters = row.get("distance") instanceof Number n ? n.doubleValue() : 0.0;
+            builder.addEdge(fromId, toId, GeoMath.walkingMinutes(meters), meters, TransitGraph.EDGE_WALK);
+        } else {
+            double minutes = row.get("minutes") instanceof Number n ? n.doubleValue() : DEFAULT_LEG_MINUTES;
+            builder.addEdge(fromId, toId, minutes, 0.0, TransitGraph.EDGE_TRANSIT);
+        }
+    }
+}
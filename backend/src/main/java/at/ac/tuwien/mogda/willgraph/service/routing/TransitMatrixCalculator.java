@@ -0,0 +1,120 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.CoordinateDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixCellDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportMatrixRowDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Computes origin-destination travel times on the in-memory {@link TransitGraph}.
+ * Every origin costs one full Dijkstra which settles all destinations at once; origins run in parallel.
+ */
+@Component
+@Slf4j
+public class TransitMatrixCalculator {
+
+    private final TransitGraphService transitGraphService;
+    private final RoutingConfig routingConfig;
+    private final ExecutorService executor;
+
+    public TransitMatrixCalculator(TransitGraphService transitGraphService, RoutingConfig routingConfig) {
+        this.transitGraphService = transitGraphService;
+        this.routingConfig = routingConfig;
+        int threads = routingConfig.getMatrixThreads() > 0
+                ? routingConfig.getMatrixThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("transit-matrix-", 0).daemon().factory());
+    }
+
+    /**
+     * Hands every finished row to the consumer on the calling thread, in completion order
+     */
+    public void compute(List<CoordinateDto> origins, List<CoordinateDto> destinations,
+                        double requestedWalkDistance, double maxMinutes, Consumer<TransportMatrixRowDto> rowConsumer) {
+        double maxWalkDistance = Math.min(requestedWalkDistance, routingConfig.getMaxWalkDistance());
+        long start = System.currentTimeMillis();
+        TransitGraph graph = transitGraphService.graph();
+        List<List<TransitGraph.NearbyStation>> destinationStations = new ArrayList<>(destinations.size());
+        for (CoordinateDto destination : destinations) {
+            destinationStations.add(graph.nearest(destination.getLat(), destination.getLng(), maxWalkDistance, Integer.MAX_VALUE));
+        }
+
+        CompletionService<TransportMatrixRowDto> completion = new ExecutorCompletionService<>(executor);
+        List<Future<TransportMatrixRowDto>> futures = new ArrayList<>(origins.size());
+        for (int i = 0; i < origins.size(); i++) {
+            int originIndex = i;
+            futures.add(completion.submit(() -> computeRow(graph, originIndex, origins.get(originIndex), destinations,
+                    destinationStations, maxWalkDistance, maxMinutes)));
+        }
+
+        try {
+            for (int i = 0; i < origins.size(); i++) {
+                rowConsumer.accept(completion.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Transport matrix computation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Transport matrix computation failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        log.info("Computed {}x{} transport matrix in {} ms", origins.size(), destinations.size(), System.currentTimeMillis() - start);
+    }
+
+    private TransportMatrixRowDto computeRow(TransitGraph graph, int originIndex, CoordinateDto origin,
+                                             List<CoordinateDto> destinations,
+                                             List<List<TransitGraph.NearbyStation>> destinationStations,
+                                             double maxWalkDistance, double maxMinutes) {
+        List<TransitRouter.Source> sources = new ArrayList<>();
+        graph.forEachNearby(origin.getLat(), origin.getLng(), maxWalkDistance,
+                (node, meters) -> sources.add(new TransitRouter.Source(node, GeoMath.walkingMinutes(meters), meters)));
+        TransitRouter.SearchResult result = TransitRouter.search(graph, sources, maxMinutes);
+
+        List<TransportMatrixCellDto> cells = new ArrayList<>(destinations.size());
+        for (int d = 0; d < destinations.size(); d++) {
+            CoordinateDto destination = destinations.get(d);
+            TransportMatrixCellDto best = null;
+            double bestMinutes = Double.POSITIVE_INFINITY;
+
+            // Walking the whole way counts when it stays within the walking limit
+            double direct = GeoMath.haversine(origin.getLat(), origin.getLng(), destination.getLat(), destination.getLng());
+            if (direct <= maxWalkDistance && GeoMath.walkingMinutes(direct) <= maxMinutes) {
+                bestMinutes = GeoMath.walkingMinutes(direct);
+                best = new TransportMatrixCellDto(bestMinutes, 0, direct);
+            }
+
+            for (TransitGraph.NearbyStation station : destinationStations.get(d)) {
+                if (!result.reached(station.node())) {
+                    continue;
+                }
+                double total = result.minutes()[station.node()] + GeoMath.walkingMinutes(station.meters());
+                if (total <= maxMinutes && total < bestMinutes) {
+                    bestMinutes = total;
+                    best = new TransportMatrixCellDto(total, result.hops()[station.node()],
+                            result.walkMeters()[station.node()] + station.meters());
+                }
+            }
+            cells.add(best);
+        }
+        return new TransportMatrixRowDto(originIndex, cells);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
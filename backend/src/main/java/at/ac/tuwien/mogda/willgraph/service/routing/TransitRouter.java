@@ -0,0 +1,83 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multi-source Dijkstra over a {@link TransitGraph} using travel time as the cost.
+ * Hops, walking metres and the arrival platform are carried along the time-optimal labels; leaving a hub from a
+ * different platform than the one a ride arrived at costs the hub's transfer penalty.
+ */
+public final class TransitRouter {
+
+    private TransitRouter() {
+    }
+
+    /**
+     * @param sources       start stations with the time and walking distance already spent reaching them
+     * @param budgetMinutes labels above the budget are not settled; use {@link Double#POSITIVE_INFINITY} for a full search
+     */
+    public static SearchResult search(TransitGraph graph, List<Source> sources, double budgetMinutes) {
+        int n = graph.nodeCount();
+        float[] minutes = new float[n];
+        int[] hops = new int[n];
+        float[] walkMeters = new float[n];
+        int[] predecessor = new int[n];
+        int[] arrivalPlatform = new int[n];
+        Arrays.fill(minutes, Float.POSITIVE_INFINITY);
+        Arrays.fill(predecessor, -1);
+        Arrays.fill(arrivalPlatform, -1);
+
+        LongHeap heap = new LongHeap(Math.max(16, sources.size() * 4));
+        for (Source source : sources) {
+            if (source.minutes() <= budgetMinutes && source.minutes() < minutes[source.node()]) {
+                minutes[source.node()] = (float) source.minutes();
+                walkMeters[source.node()] = (float) source.walkMeters();
+                hops[source.node()] = 0;
+                heap.push(LongHeap.encode(minutes[source.node()], source.node()));
+            }
+        }
+
+        boolean[] settled = new boolean[n];
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            long entry = heap.pop();
+            int node = LongHeap.node(entry);
+            if (settled[node]) {
+                continue;
+            }
+            settled[node] = true;
+            settledCount++;
+            float base = minutes[node];
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int target = graph.target(edge);
+                if (settled[target]) {
+                    continue;
+                }
+                float candidate = base + graph.minutes(edge);
+                if (arrivalPlatform[node] >= 0 && graph.fromPlatform(edge) != arrivalPlatform[node]) {
+                    candidate += graph.transferMinutes(node);
+                }
+                if (candidate <= budgetMinutes && candidate < minutes[target]) {
+                    minutes[target] = candidate;
+                    arrivalPlatform[target] = graph.kind(edge) == TransitGraph.EDGE_TRANSIT ? graph.toPlatform(edge) : -1;
+                    hops[target] = hops[node] + 1;
+                    walkMeters[target] = walkMeters[node] + graph.walkMeters(edge);
+                    predecessor[target] = node;
+                    heap.push(LongHeap.encode(candidate, target));
+                }
+            }
+        }
+        return new SearchResult(minutes, hops, walkMeters, predecessor, settledCount);
+    }
+
+    public record Source(int node, double minutes, double walkMeters) {
+    }
+
+    public record SearchResult(float[] minutes, int[] hops, float[] walkMeters, int[] predecessor, int settledCount) {
+
+        public boolean reached(int node) {
+            return minutes[node] != Float.POSITIVE_INFINITY;
+        }
+    }
+}
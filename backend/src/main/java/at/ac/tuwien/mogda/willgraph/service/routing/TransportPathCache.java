@@ -0,0 +1,146 @@
+package at.ac.tuwien.mogda.willgraph.service.routing;
+
+import at.ac.tuwien.mogda.willgraph.cache.LruCache;
+import at.ac.tuwien.mogda.willgraph.cache.LruCacheMetrics;
+import at.ac.tuwien.mogda.willgraph.config.RoutingConfig;
+import at.ac.tuwien.mogda.willgraph.controller.dto.StationDistanceDto;
+import at.ac.tuwien.mogda.willgraph.controller.dto.TransportPathDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caches station-to-station transport routes. Origin and destination are snapped to their nearest stations
+ * of the {@link TransitGraph}; requests snapping to the same station sets share one route and only the
+ * walking legs to the first and from the last station are recomputed. The cache is cleared whenever the
+ * transit graph is reloaded.
+ */
+@Component
+@Slf4j
+public class TransportPathCache {
+
+    private static final int SNAP_SIZE = 3;
+
+    private final TransitGraphService transitGraphService;
+    private final LruCache<PathKey, Optional<TransportPathDto>> cache;
+    private TransitGraph cachedFor;
+
+    public TransportPathCache(TransitGraphService transitGraphService, RoutingConfig routingConfig, MeterRegistry meterRegistry) {
+        this.transitGraphService = transitGraphService;
+        this.cache = new LruCache<>(routingConfig.getPathCacheSize(), Duration.ofMinutes(routingConfig.getPathCacheTtlMinutes()));
+        LruCacheMetrics.bind(meterRegistry, "transport-path", cache);
+    }
+
+    /**
+     * @param loader computes the route for this exact request on a miss
+     */
+    public <E extends Exception> Optional<TransportPathDto> find(double fromLat, double fromLon, double toLat, double toLon,
+                                                                 double maxWalkDistance, PathLoader<E> loader) throws E {
+        PathKey key = key(fromLat, fromLon, toLat, toLon, maxWalkDistance);
+        if (key == null) {
+            return loader.load();
+        }
+        long loadVersion = cache.version();
+        Optional<TransportPathDto> route = cache.get(key);
+        if (route == null) {
+            route = loader.load();
+            cache.putIfUnchanged(key, route, loadVersion);
+        }
+        return route.map(r -> withWalkingLegs(r, fromLat, fromLon, toLat, toLon));
+    }
+
+    /**
+     * Reactive variant of {@link #find}: on a miss the route is the result of {@code loader}, cached once it
+     * completes. Snapping may load the transit graph, so the lookup runs on a bounded elastic thread.
+     */
+    public Mono<TransportPathDto> findAsync(double fromLat, double fromLon, double toLat, double toLon, double maxWalkDistance,
+                                            Mono<TransportPathDto> loader) {
+        return Mono.defer(() -> {
+                    PathKey key = key(fromLat, fromLon, toLat, toLon, maxWalkDistance);
+                    if (key == null) {
+                        return loader.map(Optional::of);
+                    }
+                    long loadVersion = cache.version();
+                    Optional<TransportPathDto> cached = cache.get(key);
+                    if (cached != null) {
+                        return Mono.just(cached.map(route -> withWalkingLegs(route, fromLat, fromLon, toLat, toLon)));
+                    }
+                    return loader.map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .doOnNext(route -> cache.putIfUnchanged(key, route, loadVersion))
+                            .map(route -> route.map(r -> withWalkingLegs(r, fromLat, fromLon, toLat, toLon)));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Null when either end snaps to no station: such requests do not share a route, so they are not cached
+     */
+    private PathKey key(double fromLat, double fromLon, double toLat, double toLon, double maxWalkDistance) {
+        TransitGraph graph = currentGraph();
+        List<String> from = snap(graph, fromLat, fromLon, maxWalkDistance);
+        List<String> to = snap(graph, toLat, toLon, maxWalkDistance);
+        if (from.isEmpty() || to.isEmpty()) {
+            return null;
+        }
+        return new PathKey(from, to, Math.round(maxWalkDistance));
+    }
+
+    private synchronized TransitGraph currentGraph() {
+        TransitGraph graph = transitGraphService.graph();
+        if (graph != cachedFor) {
+            if (cachedFor != null) {
+                log.info("Transit graph reloaded, dropping {} cached transport paths", cache.size());
+            }
+            cache.clear();
+            cachedFor = graph;
+        }
+        return graph;
+    }
+
+    private static List<String> snap(TransitGraph graph, double lat, double lon, double radius) {
+        return graph.nearest(lat, lon, radius, SNAP_SIZE).stream()
+                .map(station -> graph.id(station.node()))
+                .sorted()
+                .toList();
+    }
+
+    private static TransportPathDto withWalkingLegs(TransportPathDto route, double fromLat, double fromLon, double toLat, double toLon) {
+        List<StationDistanceDto> stations = route.getStations();
+        if (stations == null || stations.isEmpty()) {
+            return route;
+        }
+        return TransportPathDto.builder()
+                .numberOfStops(route.getNumberOfStops())
+                .walkToStationMeters(walk(stations.getFirst().getLocation(), fromLat, fromLon, route.getWalkToStationMeters()))
+                .walkFromStationMeters(walk(stations.getLast().getLocation(), toLat, toLon, route.getWalkFromStationMeters()))
+                .stations(stations)
+                .build();
+    }
+
+    private static double walk(GeographicPoint2d station, double lat, double lon, double fallback) {
+        return station == null ? fallback : GeoMath.haversine(lat, lon, station.getLatitude(), station.getLongitude());
+    }
+
+    /**
+     * Computes a route on a cache miss, may throw {@code E} (e.g. when the request is not admitted)
+     */
+    @FunctionalInterface
+    public interface PathLoader<E extends Exception> {
+        Optional<TransportPathDto> load() throws E;
+    }
+
+    /**
+     * Snapped station ids, sorted so the key does not depend on distance order
+     */
+    private record PathKey(List<String> from, List<String> to, long maxWalkDistance) {
+    }
+}
@@ -0,0 +1,125 @@
+package at.ac.tuwien.mogda.willgraph.service.scheduled;
+
+import at.ac.tuwien.mogda.willgraph.config.ListingScanConfig;
+import at.ac.tuwien.mogda.willgraph.entity.ListingEntity;
+import at.ac.tuwien.mogda.willgraph.metrics.StageEvent;
+import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
+import at.ac.tuwien.mogda.willgraph.service.RegionStatisticsService;
+import at.ac.tuwien.mogda.willgraph.service.SavedSearchService;
+import at.ac.tuwien.mogda.willgraph.service.TileService;
+import at.ac.tuwien.mogda.willgraph.service.tile.TileLayer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.types.GeographicPoint2d;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Picks up listings written to Neo4j outside the application, i.e. by the scrapers, and feeds them to the saved
+ * search alerts and region statistics like the ListingImporter does. Listings are read in (timestampFound, id)
+ * order after a watermark kept on a SystemState node, so each one is seen once across restarts. Without a
+ * watermark the scan starts after the newest listing, which the importer has already matched. Listings without
+ * timestampFound are not picked up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ListingScanScheduler {
+
+    private static final String PIPELINE = "listing-scan";
+
+    private final ListingScanConfig config;
+    private final ListingRepository listingRepository;
+    private final SavedSearchService savedSearchService;
+    private final RegionStatisticsService regionStatisticsService;
+    private final TileService tileService;
+    private final Neo4jClient neo4jClient;
+
+    /**
+     * Set once the CommandLineRunners are done, so the scan never sees a running import
+     */
+    private volatile boolean ready;
+
+    private record Watermark(String timestampFound, String listingId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        neo4jClient.query("CREATE INDEX listing_timestamp_found_index IF NOT EXISTS FOR (l:Listing) ON (l.timestampFound)").run();
+        ready = true;
+    }
+
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void scanNewListings() {
+        if (!ready || !config.getEnabled()) {
+            return;
+        }
+        try {
+            Optional<Watermark> watermark = watermark();
+            if (watermark.isEmpty()) {
+                // An empty database scans from the start, so the first scraped listings are not skipped
+                Watermark start = listingRepository.findLastFound()
+                        .map(last -> new Watermark(last.getTimestampFound(), last.getId()))
+                        .orElse(new Watermark("", ""));
+                save(start);
+                log.info("Scanning for new listings after '{}'", start.timestampFound());
+                return;
+            }
+            scanAfter(watermark.get());
+        } catch (RuntimeException e) {
+            log.error("Error scanning for new listings: {}", e.getMessage(), e);
+        }
+    }
+
+    private void scanAfter(Watermark watermark) {
+        StageEvent stage = StageEvent.begin(PIPELINE, "match-new-listings");
+        int found = 0;
+        List<ListingEntity> batch;
+        do {
+            batch = listingRepository.findFoundAfter(watermark.timestampFound(), watermark.listingId(), config.getBatchSize());
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (ListingEntity listing : batch) {
+                regionStatisticsService.listingAdded(listing);
+                savedSearchService.listingAdded(listing);
+                GeographicPoint2d location = listing.getAddress() != null ? listing.getAddress().getLocation() : null;
+                if (location != null) {
+                    tileService.invalidatePoint(TileLayer.LISTING, location.getLatitude(), location.getLongitude());
+                }
+            }
+            regionStatisticsService.flush();
+            savedSearchService.flush();
+            ListingEntity last = batch.getLast();
+            watermark = new Watermark(last.getTimestampFound(), last.getId());
+            save(watermark);
+            found += batch.size();
+        } while (batch.size() == config.getBatchSize());
+        stage.finish(found);
+        if (found > 0) {
+            log.info("Matched {} new listings, now scanning after {}", found, watermark.timestampFound());
+        }
+    }
+
+    private Optional<Watermark> watermark() {
+        return neo4jClient.query("MATCH (s:SystemState {type: 'listing_scan'}) " +
+                        "RETURN s.timestampFound AS timestampFound, s.listingId AS listingId")
+                .fetch()
+                .one()
+                .map(row -> new Watermark((String) row.get("timestampFound"), (String) row.get("listingId")));
+    }
+
+    private void save(Watermark watermark) {
+        neo4jClient.query("MERGE (s:SystemState {type: 'listing_scan'}) " +
+                        "SET s.timestampFound = $timestampFound, s.listingId = $listingId, s.timestamp = timestamp()")
+                .bindAll(Map.of("timestampFound", watermark.timestampFound(), "listingId", watermark.listingId()))
+                .run();
+    }
+}
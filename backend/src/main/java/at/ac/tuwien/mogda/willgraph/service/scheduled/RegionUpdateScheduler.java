@@ -2,8 +2,10 @@ package at.ac.tuwien.mogda.willgraph.service.scheduled;
 
 import at.ac.tuwien.mogda.willgraph.entity.AddressEntity;
 import at.ac.tuwien.mogda.willgraph.entity.RegionEntity;
+import at.ac.tuwien.mogda.willgraph.metrics.StageEvent;
 import at.ac.tuwien.mogda.willgraph.repository.AddressRepository;
 import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
+import at.ac.tuwien.mogda.willgraph.repository.TransportRepository;
 import at.ac.tuwien.mogda.willgraph.service.ProximityLinkingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,27 +16,35 @@ import org.locationtech.jts.geom.Point;
 import org.springframework.data.neo4j.types.GeographicPoint2d;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RegionUpdateScheduler {
+  private static final String PIPELINE = "region-update";
+
   private final AddressRepository addressRepository;
   private final RegionRepository regionRepository;
   private final ProximityLinkingService proximityLinkingService;
+  private final TransportRepository transportRepository;
   private final GeometryFactory geometryFactory = new GeometryFactory();
 
+  /**
+   * Station count the walk edges were last generated for, -1 before the first run
+   */
+  private volatile long linkedStations = -1;
+
   /**
    * Runs at startup and every 5 minutes to update region assignments for addresses.
    * Uses JTS polygon containment for accurate region mapping.
-   * Also generates proximity links and walk edges for transport connections.
+   * Also generates proximity links and walk edges for transport connections. Not one transaction: each address
+   * is saved on its own, and the linking steps batch their own transactions.
    */
   @Scheduled(fixedRate = 300000, initialDelay = 0) // 300000ms = 5 minutes
-  @Transactional
   public void updateAddressRegions() {
     log.info("Starting scheduled region update for addresses...");
 
+    StageEvent loadStage = StageEvent.begin(PIPELINE, "load");
     List<RegionEntity> regions = regionRepository.findAll();
     if (regions.isEmpty()) {
       log.warn("No regions found. Skipping region update.");
@@ -45,6 +55,8 @@ public class RegionUpdateScheduler {
 
     // Find only addresses without region assignment to reduce memory usage
     List<AddressEntity> addresses = addressRepository.findAllByRegionIsNull();
+    loadStage.finish(addresses.size());
+    StageEvent assignStage = StageEvent.begin(PIPELINE, "assign-regions");
     int updated = 0;
     int skipped = 0;
     int failed = 0;
@@ -82,6 +94,7 @@ public class RegionUpdateScheduler {
       }
     }
 
+    assignStage.finish(updated);
     log.info("Region update completed. Total: {}, Updated: {}, Skipped (no location): {}, Failed: {}",
         addresses.size(), updated, skipped, failed);
 
@@ -100,6 +113,11 @@ public class RegionUpdateScheduler {
     return null;
   }
 
+  /**
+   * Links new addresses and, when the stations changed since the last run, new walk edges. Existing links keep
+   * their (possibly footway-refined) distances; the refinement and the hub links are only redone when something
+   * was created.
+   */
   private void generateProximityLinks() {
     try {
       log.info("Checking if transport import is complete...");
@@ -108,13 +126,37 @@ public class RegionUpdateScheduler {
         return;
       }
 
-      log.info("Generating proximity links for addresses...");
-      addressRepository.generateAllProximityLinks();
+      StageEvent linkStage = StageEvent.begin(PIPELINE, "proximity-links");
+      long linkedAddresses = addressRepository.generateAllProximityLinks();
+      linkStage.finish(linkedAddresses);
+
+      long walkEdgesCreated = 0;
+      long stations = transportRepository.countTransports();
+      if (stations != linkedStations) {
+        StageEvent walkStage = StageEvent.begin(PIPELINE, "walk-edges");
+        long before = transportRepository.countWalkEdges();
+        proximityLinkingService.generateWalkEdgesSafely();
+        walkEdgesCreated = transportRepository.countWalkEdges() - before;
+        linkedStations = stations;
+        walkStage.finish(walkEdgesCreated);
+      }
 
-      log.info("Creating spatial index on transport data...");
-      proximityLinkingService.generateWalkEdgesSafely();
+      if (linkedAddresses == 0 && walkEdgesCreated == 0) {
+        log.debug("No new addresses or walk edges, links are up to date.");
+        return;
+      }
+      StageEvent refineStage = StageEvent.begin(PIPELINE, "refine-walking");
+      proximityLinkingService.refineWalkingDistances();
+      refineStage.finish();
+
+      // Scoring and transport paths route on the hub graph, which has to follow the walk edges
+      if (walkEdgesCreated > 0) {
+        StageEvent hubStage = StageEvent.begin(PIPELINE, "station-hubs");
+        proximityLinkingService.refreshHubs();
+        hubStage.finish();
+      }
 
-      log.info("Proximity links generated successfully.");
+      log.info("Linked {} new addresses and created {} walk edges.", linkedAddresses, walkEdgesCreated);
     } catch (Exception e) {
       log.error("Error generating proximity links: {}", e.getMessage(), e);
     }
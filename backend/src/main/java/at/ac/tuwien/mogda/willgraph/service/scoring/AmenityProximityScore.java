@@ -0,0 +1,25 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Up to 100 points per prioritized amenity type, falling linearly with the distance to the nearest one and reaching 0 at 1 km
+ */
+@Component
+public class AmenityProximityScore implements ScoringFunction {
+
+    private static final double INTERCEPT = 100.0;
+    private static final double SLOPE = 0.1;
+
+    @Override
+    public String name() {
+        return "amenity";
+    }
+
+    @Override
+    public void accumulate(CandidateBatch batch, ScoreKernel kernel, double[] scores) {
+        for (CandidateBatch.Column column : batch.columns(CandidateBatch.AMENITY_DISTANCE)) {
+            kernel.addRamp(column.values(), INTERCEPT, SLOPE, column.weight(), scores);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structure-of-arrays view of the candidates of one search: every feature is stored as columns holding one value
+ * per candidate, each column measured against one prioritized item and carrying that item's weight. Missing
+ * values (no amenity nearby, no transit path) are {@link Double#POSITIVE_INFINITY}.
+ */
+public final class CandidateBatch {
+
+    /**
+     * Distance in metres to the nearest amenity of a prioritized type
+     */
+    public static final String AMENITY_DISTANCE = "amenityDistance";
+    /**
+     * Straight-line distance in metres to a custom POI
+     */
+    public static final String POI_DISTANCE = "poiDistance";
+    /**
+     * Station hub hops to a custom POI that is too far to walk
+     */
+    public static final String POI_TRANSIT_HOPS = "poiTransitHops";
+
+    public record Column(double weight, double[] values) {
+    }
+
+    private final int size;
+    private final Map<String, List<Column>> columns = new HashMap<>();
+
+    public CandidateBatch(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(String feature, double weight, double[] values) {
+        if (values.length != size) {
+            throw new IllegalArgumentException("Column " + feature + " has " + values.length + " values for " + size + " candidates");
+        }
+        columns.computeIfAbsent(feature, k -> new ArrayList<>()).add(new Column(weight, values));
+    }
+
+    public List<Column> columns(String feature) {
+        return columns.getOrDefault(feature, List.of());
+    }
+}
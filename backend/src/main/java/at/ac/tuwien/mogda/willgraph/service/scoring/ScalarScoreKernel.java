@@ -0,0 +1,41 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import java.util.Arrays;
+
+/**
+ * Plain loops, used when the Vector API is not available.
+ */
+public final class ScalarScoreKernel implements ScoreKernel {
+
+    @Override
+    public void addRamp(double[] values, double intercept, double slope, double weight, double[] scores) {
+        for (int i = 0; i < values.length; i++) {
+            scores[i] = addRamp(values[i], intercept, slope, weight, scores[i]);
+        }
+    }
+
+    @Override
+    public void normalize(double[] scores, double min, double max) {
+        double range = max - min;
+        if (!(range > 0.0)) {
+            Arrays.fill(scores, 1.0);
+            return;
+        }
+        double scale = 1.0 / range;
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = (scores[i] - min) * scale;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    /**
+     * Same rounding as the vector lanes, so both kernels rank ties identically
+     */
+    static double addRamp(double value, double intercept, double slope, double weight, double score) {
+        return Math.fma(weight, Math.max(0.0, Math.fma(value, -slope, intercept)), score);
+    }
+}
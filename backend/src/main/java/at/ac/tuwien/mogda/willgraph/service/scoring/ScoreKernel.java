@@ -0,0 +1,19 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+/**
+ * Column-wise arithmetic of the scoring components, evaluated over a whole candidate batch at once.
+ */
+public interface ScoreKernel {
+
+    /**
+     * {@code scores[i] += weight * max(0, intercept - slope * values[i])}; infinite values contribute nothing
+     */
+    void addRamp(double[] values, double intercept, double slope, double weight, double[] scores);
+
+    /**
+     * Scales {@code scores} from {@code [min, max]} to {@code [0, 1]} in place, every score becomes 1 when the range is empty
+     */
+    void normalize(double[] scores, double min, double max);
+
+    String name();
+}
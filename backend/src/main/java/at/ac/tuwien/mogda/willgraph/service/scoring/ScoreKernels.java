@@ -0,0 +1,33 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the fastest available {@link ScoreKernel}, like {@link at.ac.tuwien.mogda.willgraph.service.geo.HaversineKernels}.
+ */
+@Slf4j
+public final class ScoreKernels {
+
+    private static final ScoreKernel BEST = select();
+
+    private ScoreKernels() {
+    }
+
+    public static ScoreKernel best() {
+        return BEST;
+    }
+
+    private static ScoreKernel select() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                ScoreKernel kernel = new VectorScoreKernel();
+                log.info("Using {} score kernel", kernel.name());
+                return kernel;
+            } catch (LinkageError e) {
+                log.warn("Vector API present but not usable, falling back to scalar score kernel", e);
+            }
+        }
+        log.info("jdk.incubator.vector not available, using scalar score kernel");
+        return new ScalarScoreKernel();
+    }
+}
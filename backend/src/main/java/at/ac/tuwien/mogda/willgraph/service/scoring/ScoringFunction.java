@@ -0,0 +1,20 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+/**
+ * One component of the listing score. Implementations are Spring beans collected by the {@link ScoringPipeline};
+ * each adds its weighted score for a whole {@link CandidateBatch} in one call, so a new component needs a feature
+ * column in the batch rather than another scoring subquery per candidate row.
+ * <p>
+ * Every search endpoint ranks through the pipeline. The progressive and anytime searches score batches whose POI
+ * columns are not loaded yet or hold best-case values, so a component must score missing (infinite) values as
+ * nothing and must not grow with any feature value.
+ */
+public interface ScoringFunction {
+
+    String name();
+
+    /**
+     * Adds this component's score of every candidate to {@code scores}, which is indexed like the batch
+     */
+    void accumulate(CandidateBatch batch, ScoreKernel kernel, double[] scores);
+}
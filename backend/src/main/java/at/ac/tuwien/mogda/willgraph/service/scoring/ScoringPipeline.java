@@ -0,0 +1,43 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Evaluates every registered {@link ScoringFunction} column-wise over a candidate batch with the fastest
+ * available {@link ScoreKernel}.
+ */
+@Component
+@Slf4j
+public class ScoringPipeline {
+
+    private final List<ScoringFunction> functions;
+    private final ScoreKernel kernel = ScoreKernels.best();
+
+    public ScoringPipeline(List<ScoringFunction> functions) {
+        this.functions = List.copyOf(functions);
+        log.info("Scoring components: {}", this.functions.stream().map(ScoringFunction::name).toList());
+    }
+
+    /**
+     * Raw score of every candidate, the sum of all components
+     */
+    public double[] score(CandidateBatch batch) {
+        double[] scores = new double[batch.size()];
+        for (ScoringFunction function : functions) {
+            function.accumulate(batch, kernel, scores);
+        }
+        return scores;
+    }
+
+    /**
+     * Scales scores sorted in descending order to [0, 1]. The range is read off the ends, so this is a single pass
+     */
+    public void normalizeRanked(double[] ranked) {
+        if (ranked.length > 0) {
+            kernel.normalize(ranked, ranked[ranked.length - 1], ranked[0]);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 50 points per custom POI reachable by transit, minus 5 per station hub hop
+ */
+@Component
+public class TransitHopsScore implements ScoringFunction {
+
+    private static final double INTERCEPT = 50.0;
+    private static final double SLOPE = 5.0;
+
+    @Override
+    public String name() {
+        return "transit";
+    }
+
+    @Override
+    public void accumulate(CandidateBatch batch, ScoreKernel kernel, double[] scores) {
+        for (CandidateBatch.Column column : batch.columns(CandidateBatch.POI_TRANSIT_HOPS)) {
+            kernel.addRamp(column.values(), INTERCEPT, SLOPE, column.weight(), scores);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * SIMD version of {@link ScalarScoreKernel} on the incubating Vector API. Only loaded through
+ * {@link ScoreKernels} when {@code jdk.incubator.vector} is part of the boot layer.
+ */
+public final class VectorScoreKernel implements ScoreKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void addRamp(double[] values, double intercept, double slope, double weight, double[] scores) {
+        DoubleVector weights = DoubleVector.broadcast(SPECIES, weight);
+        int i = 0;
+        int upper = SPECIES.loopBound(values.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i)
+                    .fma(-slope, intercept)
+                    .max(0.0)
+                    .fma(weights, DoubleVector.fromArray(SPECIES, scores, i))
+                    .intoArray(scores, i);
+        }
+        for (; i < values.length; i++) {
+            scores[i] = ScalarScoreKernel.addRamp(values[i], intercept, slope, weight, scores[i]);
+        }
+    }
+
+    @Override
+    public void normalize(double[] scores, double min, double max) {
+        double range = max - min;
+        if (!(range > 0.0)) {
+            Arrays.fill(scores, 1.0);
+            return;
+        }
+        double scale = 1.0 / range;
+        int i = 0;
+        int upper = SPECIES.loopBound(scores.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, scores, i)
+                    .sub(min)
+                    .mul(scale)
+                    .intoArray(scores, i);
+        }
+        for (; i < scores.length; i++) {
+            scores[i] = (scores[i] - min) * scale;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x64";
+    }
+}
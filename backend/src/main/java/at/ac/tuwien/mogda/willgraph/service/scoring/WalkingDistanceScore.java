@@ -0,0 +1,25 @@
+package at.ac.tuwien.mogda.willgraph.service.scoring;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Up to 100 points per custom POI within walking distance, reaching 0 at 1.5 km
+ */
+@Component
+public class WalkingDistanceScore implements ScoringFunction {
+
+    private static final double INTERCEPT = 100.0;
+    private static final double SLOPE = 1.0 / 15.0;
+
+    @Override
+    public String name() {
+        return "walk";
+    }
+
+    @Override
+    public void accumulate(CandidateBatch batch, ScoreKernel kernel, double[] scores) {
+        for (CandidateBatch.Column column : batch.columns(CandidateBatch.POI_DISTANCE)) {
+            kernel.addRamp(column.values(), INTERCEPT, SLOPE, column.weight(), scores);
+        }
+    }
+}
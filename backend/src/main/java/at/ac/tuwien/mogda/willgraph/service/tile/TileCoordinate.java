@@ -0,0 +1,58 @@
+package at.ac.tuwien.mogda.willgraph.service.tile;
+
+/**
+ * Slippy-map tile address (z/x/y, XYZ scheme) plus Web Mercator helpers.
+ */
+public record TileCoordinate(int z, int x, int y) {
+
+    private static final double MAX_LATITUDE = 85.0511287798066;
+
+    public TileCoordinate {
+        if (z < 0 || z > 30) {
+            throw new IllegalArgumentException("Zoom out of range: " + z);
+        }
+        int tiles = 1 << z;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tile " + z + "/" + x + "/" + y + " does not exist");
+        }
+    }
+
+    /**
+     * Fractional tile column of a longitude at the given zoom.
+     */
+    public static double lonToTileX(double lon, int z) {
+        return (lon + 180.0) / 360.0 * (1 << z);
+    }
+
+    /**
+     * Fractional tile row of a latitude at the given zoom.
+     */
+    public static double latToTileY(double lat, int z) {
+        double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat));
+        double rad = Math.toRadians(clamped);
+        return (1.0 - Math.log(Math.tan(rad) + 1.0 / Math.cos(rad)) / Math.PI) / 2.0 * (1 << z);
+    }
+
+    public static double tileXToLon(double x, int z) {
+        return x / (1 << z) * 360.0 - 180.0;
+    }
+
+    public static double tileYToLat(double y, int z) {
+        double n = Math.PI - 2.0 * Math.PI * y / (1 << z);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    /**
+     * Bounding box of this tile in degrees, grown by {@code bufferFraction} of a tile on each side.
+     *
+     * @return {minLon, minLat, maxLon, maxLat}
+     */
+    public double[] bounds(double bufferFraction) {
+        return new double[]{
+                tileXToLon(x - bufferFraction, z),
+                tileYToLat(y + 1 + bufferFraction, z),
+                tileXToLon(x + 1 + bufferFraction, z),
+                tileYToLat(y - bufferFraction, z)
+        };
+    }
+}
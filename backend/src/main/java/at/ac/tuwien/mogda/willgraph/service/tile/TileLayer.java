@@ -0,0 +1,29 @@
+package at.ac.tuwien.mogda.willgraph.service.tile;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Layers that can be requested from the vector tile endpoint.
+ */
+public enum TileLayer {
+    TRANSPORT("transport"),
+    POI("poi"),
+    LISTING("listing");
+
+    private final String layerName;
+
+    TileLayer(String layerName) {
+        this.layerName = layerName;
+    }
+
+    public String layerName() {
+        return layerName;
+    }
+
+    public static Optional<TileLayer> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(layer -> layer.layerName.equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
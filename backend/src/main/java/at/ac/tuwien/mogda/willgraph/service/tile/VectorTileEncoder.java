@@ -0,0 +1,210 @@
+package at.ac.tuwien.mogda.willgraph.service.tile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (spec v2.1) encoder for point features.
+ * Writes the protobuf wire format directly, so no generated classes or protobuf runtime are needed.
+ */
+public class VectorTileEncoder {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_64BIT = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private static final int TILE_LAYERS = 3;
+
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int LAYER_VERSION = 15;
+
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_DOUBLE = 3;
+    private static final int VALUE_SINT = 6;
+    private static final int VALUE_BOOL = 7;
+
+    private static final int GEOM_TYPE_POINT = 1;
+    private static final int CMD_MOVE_TO = 1;
+
+    private final int extent;
+    private final Map<String, Layer> layers = new LinkedHashMap<>();
+
+    public VectorTileEncoder(int extent) {
+        this.extent = extent;
+    }
+
+    /**
+     * Adds a point feature. Coordinates are in tile space (0..extent, y pointing down).
+     * Attributes with {@code null} values are skipped, a {@code null} id omits the feature id.
+     */
+    public void addPoint(String layerName, Long id, int x, int y, Map<String, ?> attributes) {
+        Layer layer = layers.computeIfAbsent(layerName, Layer::new);
+        List<Integer> tags = new ArrayList<>();
+        attributes.forEach((key, value) -> {
+            if (value != null) {
+                tags.add(layer.keyIndex(key));
+                tags.add(layer.valueIndex(value));
+            }
+        });
+        layer.features.add(new Feature(id, tags, x, y));
+    }
+
+    public boolean isEmpty() {
+        return layers.values().stream().allMatch(layer -> layer.features.isEmpty());
+    }
+
+    public byte[] encode() {
+        ProtoWriter tile = new ProtoWriter();
+        for (Layer layer : layers.values()) {
+            tile.writeMessage(TILE_LAYERS, encodeLayer(layer));
+        }
+        return tile.toByteArray();
+    }
+
+    private byte[] encodeLayer(Layer layer) {
+        ProtoWriter out = new ProtoWriter();
+        out.writeUInt(LAYER_VERSION, 2);
+        out.writeString(LAYER_NAME, layer.name);
+        for (Feature feature : layer.features) {
+            out.writeMessage(LAYER_FEATURES, encodeFeature(feature));
+        }
+        for (String key : layer.keys.keySet()) {
+            out.writeString(LAYER_KEYS, key);
+        }
+        for (Object value : layer.values.keySet()) {
+            out.writeMessage(LAYER_VALUES, encodeValue(value));
+        }
+        out.writeUInt(LAYER_EXTENT, extent);
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeFeature(Feature feature) {
+        ProtoWriter out = new ProtoWriter();
+        if (feature.id != null) {
+            out.writeUInt(FEATURE_ID, feature.id);
+        }
+        out.writePackedUInts(FEATURE_TAGS, feature.tags.stream().mapToLong(Integer::longValue).toArray());
+        out.writeUInt(FEATURE_TYPE, GEOM_TYPE_POINT);
+        out.writePackedUInts(FEATURE_GEOMETRY, new long[]{
+                command(CMD_MOVE_TO, 1),
+                zigZag(feature.x),
+                zigZag(feature.y)
+        });
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeValue(Object value) {
+        ProtoWriter out = new ProtoWriter();
+        switch (value) {
+            case Boolean b -> out.writeUInt(VALUE_BOOL, b ? 1 : 0);
+            case Integer i -> out.writeUInt(VALUE_SINT, zigZag(i));
+            case Long l -> out.writeUInt(VALUE_SINT, zigZag(l));
+            case Number n -> out.writeDouble(VALUE_DOUBLE, n.doubleValue());
+            default -> out.writeString(VALUE_STRING, value.toString());
+        }
+        return out.toByteArray();
+    }
+
+    private static long command(int id, int count) {
+        return (id & 0x7) | ((long) count << 3);
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static final class Layer {
+        private final String name;
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+        private final List<Feature> features = new ArrayList<>();
+
+        private Layer(String name) {
+            this.name = name;
+        }
+
+        private int keyIndex(String key) {
+            return keys.computeIfAbsent(key, k -> keys.size());
+        }
+
+        private int valueIndex(Object value) {
+            // Integers and longs with equal numeric value are encoded identically, normalise them
+            Object normalized = value instanceof Integer i ? Long.valueOf(i) : value;
+            return values.computeIfAbsent(normalized, v -> values.size());
+        }
+    }
+
+    private record Feature(Long id, List<Integer> tags, int x, int y) {
+    }
+
+    /**
+     * Tiny protobuf writer covering the field types used by the MVT schema.
+     */
+    private static final class ProtoWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void writeUInt(int field, long value) {
+            writeTag(field, WIRE_VARINT);
+            writeVarint(value);
+        }
+
+        void writeDouble(int field, double value) {
+            writeTag(field, WIRE_64BIT);
+            long bits = Double.doubleToLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)) & 0xFF);
+            }
+        }
+
+        void writeString(int field, String value) {
+            writeMessage(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeMessage(int field, byte[] bytes) {
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeVarint(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        void writePackedUInts(int field, long[] values) {
+            if (values.length == 0) {
+                return;
+            }
+            ProtoWriter packed = new ProtoWriter();
+            for (long value : values) {
+                packed.writeVarint(value);
+            }
+            writeMessage(field, packed.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeTag(int field, int wireType) {
+            writeVarint(((long) field << 3) | wireType);
+        }
+
+        private void writeVarint(long value) {
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package at.ac.tuwien.mogda.willgraph.metrics;
+
+import at.ac.tuwien.mogda.willgraph.repository.AddressRepository;
+import at.ac.tuwien.mogda.willgraph.repository.AmenityRepository;
+import at.ac.tuwien.mogda.willgraph.repository.AmenityTypeRepository;
+import at.ac.tuwien.mogda.willgraph.repository.ListingRepository;
+import at.ac.tuwien.mogda.willgraph.repository.PoIRepository;
+import at.ac.tuwien.mogda.willgraph.repository.RegionRepository;
+import at.ac.tuwien.mogda.willgraph.repository.SavedSearchRepository;
+import at.ac.tuwien.mogda.willgraph.repository.TransportRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.springframework.data.neo4j.repository.query.Query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every {@code @Query} of the repositories under {@code PROFILE} against an in-process Neo4j
+ * loaded with query-budgets/dataset.cypher and compares db hits, rows and plan operators with the budgets in
+ * query-budgets/budgets.json, so an edit that turns an index seek into a label scan fails the build. Queries
+ * run in a transaction that is rolled back, so write queries are budgeted as well. A query without a budget
+ * fails the build unless it is listed in {@code UNBUDGETED}.
+ * <p>
+ * After an intended plan change, record new budgets with
+ * {@code ./gradlew test --tests '*QueryBudgetTest' -PrecordQueryBudgets} and copy build/query-budgets.json over
+ * the budget file; parameters and forbidden operators are kept.
+ */
+class QueryBudgetTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(AddressRepository.class, AmenityRepository.class,
+            AmenityTypeRepository.class, ListingRepository.class, PoIRepository.class, RegionRepository.class,
+            SavedSearchRepository.class, TransportRepository.class);
+
+    /**
+     * {@code @Query} methods that cannot be profiled, each with the reason
+     */
+    private static final Set<String> UNBUDGETED = Set.of(
+            // Index DDL, schema commands have no plan
+            "TransportRepository.createSpatialIndex"
+    );
+
+    /**
+     * Factor applied to measured db hits and rows when budgets are recorded
+     */
+    private static final double RECORD_HEADROOM = 1.5;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static final Map<String, Budget> RECORDED = new LinkedHashMap<>();
+
+    private static Neo4j neo4j;
+    private static Driver driver;
+
+    @BeforeAll
+    static void startNeo4j() throws IOException {
+        neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        driver = GraphDatabase.driver(neo4j.boltURI(), AuthTokens.none());
+        try (Session session = driver.session()) {
+            for (String statement : resource("query-budgets/dataset.cypher").split(";\\s*\\n")) {
+                if (!statement.isBlank()) {
+                    session.run(statement).consume();
+                }
+            }
+            session.run("CALL db.awaitIndexes(300)").consume();
+            // Plans depend on the index statistics, which are otherwise sampled in the background
+            session.run("CALL db.prepareForReplanning(300)").consume();
+        }
+    }
+
+    @AfterAll
+    static void stopNeo4j() throws IOException {
+        if (Boolean.getBoolean("queryBudgets.record")) {
+            Path out = Path.of("build", "query-budgets.json");
+            Files.createDirectories(out.getParent());
+            OBJECT_MAPPER.writeValue(out.toFile(), RECORDED);
+        }
+        if (driver != null) {
+            driver.close();
+        }
+        if (neo4j != null) {
+            neo4j.close();
+        }
+    }
+
+    @Test
+    void everyRepositoryQueryHasABudget() throws IOException {
+        Set<String> missing = new TreeSet<>(repositoryQueries().keySet());
+        missing.removeAll(budgets().keySet());
+        missing.removeAll(UNBUDGETED);
+        assertTrue(missing.isEmpty(), "@Query methods without an entry in query-budgets/budgets.json: " + missing);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesStayWithinBudget() throws IOException {
+        Map<String, String> queries = repositoryQueries();
+        Map<String, Budget> budgets = budgets();
+        return budgets.entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+            Budget budget = entry.getValue();
+            String cypher = queries.get(entry.getKey());
+            assertNotNull(cypher, "No @Query method " + entry.getKey());
+            Measurement measurement = profile(cypher, budget.parameters());
+            RECORDED.put(entry.getKey(), budget.recorded(measurement));
+            List<String> violations = budget.check(measurement);
+            assertTrue(violations.isEmpty(), entry.getKey() + " exceeds its budget: " + violations);
+        }));
+    }
+
+    private static Measurement profile(String cypher, Map<String, Object> parameters) {
+        try (Session session = driver.session(); Transaction tx = session.beginTransaction()) {
+            ProfiledPlan plan = tx.run("PROFILE " + cypher, parameters != null ? parameters : Map.of()).consume().profile();
+            tx.rollback();
+            List<SlowQueryRecorder.OperatorSummary> operators = ProfiledPlans.operators(plan);
+            Set<String> names = new TreeSet<>();
+            operators.forEach(operator -> names.add(operator.operator()));
+            return new Measurement(ProfiledPlans.dbHits(operators), plan.records(), names);
+        }
+    }
+
+    /**
+     * Cypher of every {@code @Query} method, keyed like the metrics: {@code ListingRepository.searchListingFeatures}
+     */
+    private static Map<String, String> repositoryQueries() {
+        Map<String, String> queries = new HashMap<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                if (query != null) {
+                    queries.put(repository.getSimpleName() + "." + method.getName(), query.value());
+                }
+            }
+        }
+        return queries;
+    }
+
+    private static Map<String, Budget> budgets() throws IOException {
+        return OBJECT_MAPPER.readValue(resource("query-budgets/budgets.json"),
+                new TypeReference<LinkedHashMap<String, Budget>>() {
+                });
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = QueryBudgetTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull(in, "Missing test resource " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Budget of one query; {@code operators} are the plan operators recorded on the dataset, any other operator
+     * in the plan is a violation
+     */
+    record Budget(Map<String, Object> parameters, Long maxDbHits, Long maxRows, Set<String> operators,
+                  Set<String> forbiddenOperators) {
+
+        List<String> check(Measurement measurement) {
+            List<String> violations = new ArrayList<>();
+            if (maxDbHits == null || measurement.dbHits() > maxDbHits) {
+                violations.add("db hits " + measurement.dbHits() + " > " + maxDbHits);
+            }
+            if (maxRows == null || measurement.rows() > maxRows) {
+                violations.add("rows " + measurement.rows() + " > " + maxRows);
+            }
+            measurement.operators().stream()
+                    .filter(operator -> operators == null || !operators.contains(operator))
+                    .forEach(operator -> violations.add("unbudgeted operator " + operator));
+            if (forbiddenOperators != null) {
+                measurement.operators().stream()
+                        .filter(forbiddenOperators::contains)
+                        .forEach(operator -> violations.add("forbidden operator " + operator));
+            }
+            return violations;
+        }
+
+        Budget recorded(Measurement measurement) {
+            return new Budget(parameters,
+                    (long) Math.ceil(measurement.dbHits() * RECORD_HEADROOM),
+                    (long) Math.ceil(Math.max(1, measurement.rows()) * RECORD_HEADROOM),
+                    measurement.operators(), forbiddenOperators);
+        }
+    }
+
+    record Measurement(long dbHits, long rows, Set<String> operators) {
+    }
+}
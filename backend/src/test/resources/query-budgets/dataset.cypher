@@ -0,0 +1,118 @@
+// Fixed dataset for QueryBudgetTest: a 6 x 6 km grid around the Vienna city centre with the schema of the
+// importers, import_transport_to_neo4j.py and the StationHubService. Statements are separated by semicolons.
+
+CREATE CONSTRAINT transport_id_unique IF NOT EXISTS FOR (t:Transport) REQUIRE t.id IS UNIQUE;
+CREATE INDEX transport_location_index IF NOT EXISTS FOR (t:Transport) ON (t.location);
+CREATE POINT INDEX transport_loc_idx IF NOT EXISTS FOR (t:Transport) ON (t.location);
+CREATE CONSTRAINT station_hub_id_unique IF NOT EXISTS FOR (h:StationHub) REQUIRE h.id IS UNIQUE;
+CREATE POINT INDEX station_hub_loc_idx IF NOT EXISTS FOR (h:StationHub) ON (h.location);
+CREATE INDEX address_id_index IF NOT EXISTS FOR (a:Address) ON (a.id);
+CREATE INDEX listing_id_index IF NOT EXISTS FOR (l:Listing) ON (l.id);
+CREATE INDEX listing_timestamp_found_index IF NOT EXISTS FOR (l:Listing) ON (l.timestampFound);
+CREATE INDEX region_iso_index IF NOT EXISTS FOR (r:Region) ON (r.iso);
+CREATE INDEX poi_location_index IF NOT EXISTS FOR (p:PointOfInterest) ON (p.location);
+
+// 23 districts
+UNWIND range(1, 23) AS d
+CREATE (:Region {id: 'region-' + d, iso: toString(90100 + d), name: 'Wien ' + d + '. Bezirk'});
+
+// 10 x 10 stops, two platforms per station
+UNWIND range(0, 9) AS i
+UNWIND range(0, 9) AS j
+CREATE (:Transport {
+    id: 'stop-' + i + '-' + j,
+    name: 'Station ' + i + '-' + (j / 2),
+    type: CASE WHEN j % 2 = 0 THEN 'U-Bahn' ELSE 'Tram' END,
+    line: CASE WHEN j % 2 = 0 THEN 'U' + (i % 6 + 1) ELSE toString(i + 40) END,
+    location: point({latitude: 48.180 + i * 0.006, longitude: 16.330 + j * 0.008}),
+    version: 1
+});
+
+MATCH (s1:Transport), (s2:Transport)
+WHERE s1.id < s2.id AND point.distance(s1.location, s2.location) < 1000
+CREATE (s1)-[:CONNECTED_TO {travelTimeInMinutes: 2.0, frequency: 6}]->(s2);
+
+MATCH (t:Transport)
+WITH t.name AS name, collect(t) AS platforms
+CREATE (h:StationHub {id: 'hub-' + name, name: name, location: platforms[0].location})
+WITH h, platforms
+UNWIND platforms AS platform
+CREATE (platform)-[:PLATFORM_OF]->(h);
+
+MATCH (h1:StationHub), (h2:StationHub)
+WHERE h1.id < h2.id AND point.distance(h1.location, h2.location) < 1000
+CREATE (h1)-[:HUB_LINK {
+    travelTimeInMinutes: 2.0,
+    segmentType: 'CONNECTED_TO',
+    distanceInMeters: point.distance(h1.location, h2.location)
+}]->(h2);
+
+// 20 x 20 addresses with one listing each; every second address is already linked to its stations
+UNWIND range(0, 19) AS i
+UNWIND range(0, 19) AS j
+WITH i * 20 + j AS k, i, j
+MATCH (r:Region {iso: toString(90101 + (i * 20 + j) % 23)})
+CREATE (a:Address {
+    id: 'address-' + k,
+    osmId: 1000000 + k,
+    fullAddressString: 'Teststrasse ' + k + ', 10' + ((k % 23) + 1) + '0 Wien',
+    street: 'Teststrasse',
+    houseNumber: toString(k),
+    city: 'Wien',
+    countryCode: 'AT',
+    location: point({latitude: 48.175 + i * 0.003, longitude: 16.325 + j * 0.004})
+})-[:IN_REGION]->(r)
+CREATE (l:Listing {
+    id: 'listing-' + k,
+    url: 'https://example.org/listing/' + k,
+    title: 'Wohnung ' + k,
+    price: 500.0 + (k * 37) % 1500,
+    livingArea: 30.0 + (k * 13) % 120,
+    totalArea: 35.0 + (k * 13) % 120,
+    pricePerM2: (500.0 + (k * 37) % 1500) / (30.0 + (k * 13) % 120),
+    roomCount: 1 + k % 5,
+    source: CASE WHEN k % 2 = 0 THEN 'willhaben' ELSE 'immoscout' END,
+    timestampFound: '2025-01-01T00:00:00Z'
+})-[:LOCATED_AT]->(a);
+
+MATCH (a:Address), (t:Transport)
+WHERE toInteger(substring(a.id, 8)) % 2 = 0 AND point.distance(a.location, t.location) < 800
+CREATE (a)-[:CLOSE_TO_STATION {
+    distanceInMeters: point.distance(a.location, t.location),
+    walkingDurationInMinutes: point.distance(a.location, t.location) / 80.0
+}]->(t);
+
+// 300 points of interest of five amenity types
+UNWIND ['cafe', 'supermarket', 'pharmacy', 'school', 'park'] AS name
+CREATE (:Amenity {name: name});
+
+UNWIND range(0, 299) AS k
+MATCH (t:Amenity {name: ['cafe', 'supermarket', 'pharmacy', 'school', 'park'][k % 5]})
+CREATE (p:PointOfInterest {
+    id: 'poi-' + k,
+    osmId: 2000000 + k,
+    name: t.name + ' ' + k,
+    location: point({latitude: 48.176 + (k / 15) * 0.003, longitude: 16.327 + (k % 15) * 0.005})
+})-[:IS_TYPE]->(t);
+
+// 20 saved searches, each matched with 10 listings
+UNWIND range(0, 19) AS k
+CREATE (s:SavedSearch {
+    id: 'saved-search-' + k,
+    owner: 'user-' + (k % 5),
+    name: 'Suche ' + k,
+    region: toString(90101 + k),
+    minPrice: 500.0,
+    maxPrice: 1500.0,
+    minArea: 30.0,
+    maxArea: 120.0,
+    filter: '{}',
+    createdAt: '2025-01-01T00:00:00Z'
+})
+WITH s, k
+UNWIND range(0, 9) AS m
+MATCH (l:Listing {id: 'listing-' + (k * 20 + m)})
+CREATE (s)-[:MATCHED {matchedAt: '2025-01-0' + (m % 9 + 1) + 'T00:00:00Z'}]->(l);
+
+MERGE (s:SystemState {type: 'transport_import'})
+SET s.status = 'COMPLETED', s.timestamp = 0;
@@ -0,0 +1,66 @@
+package at.ac.tuwien.mogda.willgraph.tools.replay;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and outcomes of the replayed requests of one endpoint, next to the latencies recorded in production
+ */
+class EndpointStats {
+
+    private long[] replayedNanos = new long[64];
+    private double[] recordedMs = new double[64];
+    private int count;
+    private int errors;
+    private int statusMismatches;
+
+    synchronized void add(RecordedRequest request, long nanos, int status) {
+        if (count == replayedNanos.length) {
+            replayedNanos = Arrays.copyOf(replayedNanos, count * 2);
+            recordedMs = Arrays.copyOf(recordedMs, count * 2);
+        }
+        replayedNanos[count] = nanos;
+        recordedMs[count] = request.ms();
+        count++;
+        if (status < 0 || status >= 500) {
+            errors++;
+        }
+        if (status != request.status()) {
+            statusMismatches++;
+        }
+    }
+
+    synchronized Summary summarize(double wallSeconds) {
+        long[] nanos = Arrays.copyOf(replayedNanos, count);
+        double[] recorded = Arrays.copyOf(recordedMs, count);
+        Arrays.sort(nanos);
+        Arrays.sort(recorded);
+        return new Summary(count, count / wallSeconds, count == 0 ? 0 : (double) errors / count, statusMismatches,
+                percentile(nanos, 0.50), percentile(nanos, 0.95), percentile(nanos, 0.99),
+                count == 0 ? 0 : nanos[count - 1] / 1e6,
+                percentile(recorded, 0.50), percentile(recorded, 0.95), percentile(recorded, 0.99));
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        return sortedNanos.length == 0 ? 0 : sortedNanos[index(sortedNanos.length, quantile)] / 1e6;
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[index(sorted.length, quantile)];
+    }
+
+    /**
+     * Nearest-rank percentile
+     */
+    private static int index(int length, double quantile) {
+        return Math.max(0, (int) Math.ceil(quantile * length) - 1);
+    }
+
+    /**
+     * Latencies in milliseconds; errors are 5xx responses and failed connections, mismatches are responses with
+     * a different status than recorded
+     */
+    record Summary(int requests, double throughput, double errorRate, int statusMismatches,
+                   double p50, double p95, double p99, double max,
+                   double recordedP50, double recordedP95, double recordedP99) {
+    }
+}
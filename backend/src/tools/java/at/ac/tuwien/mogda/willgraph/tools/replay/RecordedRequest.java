@@ -0,0 +1,28 @@
+package at.ac.tuwien.mogda.willgraph.tools.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One line of logs/traffic.jsonl as written by the TrafficCaptureFilter
+ */
+record RecordedRequest(long ts, String method, String endpoint, String uri, String contentType, String body,
+                       boolean truncated, int status, double ms, String client) {
+
+    static RecordedRequest of(JsonNode line) {
+        return new RecordedRequest(
+                line.path("ts").asLong(),
+                line.path("method").asText("GET"),
+                line.path("endpoint").asText(),
+                line.path("uri").asText(),
+                line.hasNonNull("contentType") ? line.get("contentType").asText() : null,
+                line.hasNonNull("body") ? line.get("body").asText() : null,
+                line.path("truncated").asBoolean(false),
+                line.path("status").asInt(),
+                line.path("ms").asDouble(),
+                line.hasNonNull("client") ? line.get("client").asText() : null);
+    }
+
+    String key() {
+        return method + " " + endpoint;
+    }
+}
@@ -0,0 +1,201 @@
+package at.ac.tuwien.mogda.willgraph.tools.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays requests recorded by the TrafficCaptureFilter against a running backend and reports latency
+ * percentiles, throughput and error rates per endpoint, next to the latencies measured when they were recorded.
+ * <p>
+ * Run with {@code ./gradlew replayTraffic -PreplayArgs='--file logs/traffic.jsonl --speedup 4'}. Options:
+ * <ul>
+ *     <li>{@code --file path}: recorded traffic, plain or rolled {@code .jsonl.gz} (default logs/traffic.jsonl)</li>
+ *     <li>{@code --target url}: backend to replay against (default http://localhost:8080)</li>
+ *     <li>{@code --speedup n}: replay the recorded inter-arrival times n times faster; 0 sends back to back
+ *     (default 1)</li>
+ *     <li>{@code --concurrency n}: maximum requests in flight; once reached, sending falls behind the recorded
+ *     schedule and the lag is reported (default 16)</li>
+ *     <li>{@code --endpoint pattern}: only replay one recorded handler pattern</li>
+ *     <li>{@code --report path}: also write the summary as JSON, e.g. to compare runs before and after tuning</li>
+ *     <li>{@code --client-header name}: header carrying the recorded client pseudonym, must match
+ *     {@code app.admission.client-header} of the target (default X-Client-Id)</li>
+ * </ul>
+ * Requests whose body exceeded the capture limit are recorded without it and are skipped, and counted separately.
+ * <p>
+ * All replayed requests come from this host, so the target only budgets them per recorded client if this host is
+ * one of its {@code app.admission.trusted-proxies}; otherwise they share one client budget and are answered with
+ * 429 well before the recorded rate. Captures without client pseudonyms are replayed without the header.
+ */
+public class TrafficReplay {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path file = Path.of(options.getOrDefault("file", "logs/traffic.jsonl"));
+        String target = options.getOrDefault("target", "http://localhost:8080").replaceAll("/$", "");
+        double speedup = Double.parseDouble(options.getOrDefault("speedup", "1"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        String only = options.get("endpoint");
+        String clientHeader = options.getOrDefault("client-header", "X-Client-Id");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<RecordedRequest> recorded = read(file, objectMapper, only);
+        // Bodies above the capture limit were not recorded; replaying them without one only produces 400s
+        List<RecordedRequest> requests = recorded.stream().filter(request -> !request.truncated()).toList();
+        int truncated = recorded.size() - requests.size();
+        if (requests.isEmpty()) {
+            System.out.printf("No replayable requests in %s (%d with truncated body)%n", file, truncated);
+            return;
+        }
+        System.out.printf("Replaying %d requests from %s against %s (speedup %s, concurrency %d)%n",
+                requests.size(), file, target, speedup == 0 ? "unpaced" : speedup + "x", concurrency);
+        if (truncated > 0) {
+            System.out.printf("Skipping %d requests whose body was truncated at capture%n", truncated);
+        }
+
+        Map<String, EndpointStats> stats = new TreeMap<>();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong maxLagNanos = new AtomicLong();
+        long recordedStart = requests.getFirst().ts();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (RecordedRequest request : requests) {
+                long due = speedup == 0 ? 0 : (long) ((request.ts() - recordedStart) * 1_000_000 / speedup);
+                long wait = due - (System.nanoTime() - start);
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                inFlight.acquire();
+                maxLagNanos.accumulateAndGet(System.nanoTime() - start - due, Math::max);
+                EndpointStats endpoint = stats.computeIfAbsent(request.key(), k -> new EndpointStats());
+                executor.execute(() -> {
+                    try {
+                        send(client, target, clientHeader, request, endpoint);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, EndpointStats.Summary> summaries = new LinkedHashMap<>();
+        stats.forEach((key, endpoint) -> summaries.put(key, endpoint.summarize(wallSeconds)));
+        print(summaries, wallSeconds, requests.size(), speedup == 0 ? 0 : maxLagNanos.get() / 1e6);
+
+        if (options.containsKey("report")) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("file", file.toString());
+            report.put("target", target);
+            report.put("speedup", speedup);
+            report.put("concurrency", concurrency);
+            report.put("wallSeconds", wallSeconds);
+            report.put("throughput", requests.size() / wallSeconds);
+            report.put("skippedTruncated", truncated);
+            report.put("maxScheduleLagMs", speedup == 0 ? 0 : maxLagNanos.get() / 1e6);
+            report.put("endpoints", summaries);
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(Path.of(options.get("report")).toFile(), report);
+        }
+    }
+
+    private static void send(HttpClient client, String target, String clientHeader, RecordedRequest request,
+                             EndpointStats endpoint) {
+        HttpRequest.BodyPublisher body = request.body() != null
+                ? HttpRequest.BodyPublishers.ofString(request.body(), StandardCharsets.UTF_8)
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target + request.uri()))
+                .timeout(TIMEOUT)
+                .method(request.method(), body);
+        if (request.contentType() != null) {
+            builder.header("Content-Type", request.contentType());
+        }
+        if (request.client() != null) {
+            builder.header(clientHeader, request.client());
+        }
+        long start = System.nanoTime();
+        int status;
+        try {
+            // The body is drained so the latency covers the full response, like the recorded duration
+            status = client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        endpoint.add(request, System.nanoTime() - start, status);
+    }
+
+    private static List<RecordedRequest> read(Path file, ObjectMapper objectMapper, String only) throws IOException {
+        List<RecordedRequest> requests = new ArrayList<>();
+        try (Reader reader = file.toString().endsWith(".gz")
+                ? new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8)
+                : Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedReader lines = new BufferedReader(reader)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                RecordedRequest request = RecordedRequest.of(objectMapper.readTree(line));
+                if (only == null || only.equals(request.endpoint())) {
+                    requests.add(request);
+                }
+            }
+        }
+        // The async appender may write lines slightly out of order
+        requests.sort(Comparator.comparingLong(RecordedRequest::ts));
+        return requests;
+    }
+
+    private static void print(Map<String, EndpointStats.Summary> summaries, double wallSeconds, int total,
+                              double maxLagMs) {
+        System.out.printf("%nFinished in %.1f s, %.1f req/s, max schedule lag %.0f ms%n%n", wallSeconds,
+                total / wallSeconds, maxLagMs);
+        System.out.printf("%-40s %8s %8s %7s %6s %9s %9s %9s %9s   %9s %9s %9s%n", "endpoint", "requests",
+                "req/s", "errors", "status", "p50 ms", "p95 ms", "p99 ms", "max ms", "rec p50", "rec p95", "rec p99");
+        summaries.forEach((key, s) -> System.out.printf(
+                "%-40s %8d %8.1f %6.1f%% %6d %9.1f %9.1f %9.1f %9.1f   %9.1f %9.1f %9.1f%n",
+                key, s.requests(), s.throughput(), s.errorRate() * 100, s.statusMismatches(),
+                s.p50(), s.p95(), s.p99(), s.max(), s.recordedP50(), s.recordedP95(), s.recordedP99()));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
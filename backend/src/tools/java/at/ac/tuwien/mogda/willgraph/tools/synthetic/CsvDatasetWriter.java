@@ -0,0 +1,134 @@
+package at.ac.tuwien.mogda.willgraph.tools.synthetic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the dataset in the formats the importers read:
+ * <ul>
+ *     <li>{@code willhaben_output.csv}, {@code immoscout_output.csv}: scraper exports read by the ListingImporter</li>
+ *     <li>{@code regions/gemeinden_synthetic_geo.json}: the sampled Gemeinden for the RegionImporter</li>
+ *     <li>{@code transport/transport_nodes.csv}, {@code transport/transport_edges.csv}: GTFS processor output
+ *     for import_transport_to_neo4j.py</li>
+ *     <li>{@code amenities_overpass.json}: an Overpass response with all POIs</li>
+ * </ul>
+ */
+class CsvDatasetWriter {
+
+    private static final String[] WILLHABEN_HEADER = {"url", "title", "location", "raw_size", "raw_rooms", "price_raw",
+            "size_m2", "rooms", "price_eur", "osm_id", "lat", "lon", "scraped_at", "source"};
+    private static final String[] IMMOSCOUT_HEADER = {"url", "title", "location", "raw_size", "raw_rooms", "price_raw",
+            "size_m2", "rooms", "price_eur", "osm_id", "lat", "lon", "scraped_at", "source", "mega_listing"};
+    private static final DateTimeFormatter SCRAPED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    void write(SyntheticCity city, List<JsonNode> regionFeatures, Path directory) throws IOException {
+        Files.createDirectories(directory.resolve("regions"));
+        Files.createDirectories(directory.resolve("transport"));
+        writeListings(city, "willhaben", WILLHABEN_HEADER, directory.resolve("willhaben_output.csv"));
+        writeListings(city, "immoscout", IMMOSCOUT_HEADER, directory.resolve("immoscout_output.csv"));
+        writeRegions(regionFeatures, directory.resolve("regions/gemeinden_synthetic_geo.json"));
+        writeTransport(city, directory.resolve("transport"));
+        writePois(city, directory.resolve("amenities_overpass.json"));
+    }
+
+    private void writeListings(SyntheticCity city, String source, String[] header, Path file) throws IOException {
+        boolean willhaben = "willhaben".equals(source);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(header).build())) {
+            for (SyntheticCity.Listing listing : city.listings()) {
+                if (!source.equals(listing.source())) {
+                    continue;
+                }
+                SyntheticCity.Address address = listing.address();
+                String location = address.postcode() + " " + address.city() + ", " + address.street();
+                String rawSize = willhaben
+                        ? Long.toString(Math.round(listing.livingArea()))
+                        : String.format(Locale.GERMANY, "%.1f m²", listing.livingArea());
+                String rawRooms = willhaben ? Integer.toString(listing.rooms()) : listing.rooms() + " Zimmer";
+                String rawPrice = willhaben
+                        ? String.format(Locale.GERMANY, "€ %,.0f", listing.price())
+                        : String.format(Locale.GERMANY, "%,.2f €", listing.price());
+                printer.print(listing.url());
+                printer.print(listing.title());
+                printer.print(location);
+                printer.print(rawSize);
+                printer.print(rawRooms);
+                printer.print(rawPrice);
+                printer.print(listing.livingArea());
+                printer.print((double) listing.rooms());
+                printer.print(listing.price());
+                printer.print(address.osmId());
+                printer.print(String.format(Locale.ROOT, "%.7f", address.lat()));
+                printer.print(String.format(Locale.ROOT, "%.7f", address.lon()));
+                printer.print(SCRAPED_AT.format(listing.scrapedAt()));
+                printer.print(source);
+                if (!willhaben) {
+                    printer.print("False");
+                }
+                printer.println();
+            }
+        }
+    }
+
+    private void writeRegions(List<JsonNode> features, Path file) throws IOException {
+        ObjectNode collection = objectMapper.createObjectNode();
+        collection.put("type", "FeatureCollection");
+        collection.putArray("features").addAll(features);
+        objectMapper.writeValue(file.toFile(), collection);
+    }
+
+    private void writeTransport(SyntheticCity city, Path directory) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("transport_nodes.csv"), StandardCharsets.UTF_8);
+             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                     .setHeader("stop_id", "stop_name", "stop_lat", "stop_lon").build())) {
+            for (SyntheticCity.Stop stop : city.stops()) {
+                printer.printRecord(stop.id(), stop.name(), stop.lat(), stop.lon());
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("transport_edges.csv"), StandardCharsets.UTF_8);
+             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                     .setHeader("source_id", "target_id", "weight_minutes", "frequency").build())) {
+            for (SyntheticCity.Link link : city.links()) {
+                printer.printRecord(link.from(), link.to(), link.minutes(), link.frequency());
+            }
+        }
+    }
+
+    private void writePois(SyntheticCity city, Path file) throws IOException {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("version", 0.6);
+        ArrayNode elements = response.putArray("elements");
+        for (SyntheticCity.Poi poi : city.pois()) {
+            ObjectNode element = elements.addObject();
+            element.put("type", "node");
+            element.put("id", poi.osmId());
+            element.put("lat", poi.lat());
+            element.put("lon", poi.lon());
+            ObjectNode tags = element.putObject("tags");
+            tags.put("amenity", poi.amenity());
+            tags.put("name", poi.name());
+            if (poi.street() != null) {
+                tags.put("addr:street", poi.street());
+                tags.put("addr:housenumber", poi.houseNumber());
+                tags.put("addr:postcode", poi.postcode());
+                tags.put("addr:city", poi.city());
+            }
+        }
+        objectMapper.writeValue(file.toFile(), response);
+    }
+}
@@ -0,0 +1,164 @@
+package at.ac.tuwien.mogda.willgraph.tools.synthetic;
+
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Writes the dataset straight into Neo4j with batched {@code UNWIND} statements, skipping the CSV importers,
+ * which at 100x take far longer than the load itself.
+ * <p>
+ * Nodes and relationships mirror what the importers and import_transport_to_neo4j.py create. Region nodes are
+ * not written: the sampled regions are real Gemeinden, which the RegionImporter loads on startup. The
+ * {@code CLOSE_TO_STATION} links are likewise left to the RegionUpdateScheduler of the running app, which picks
+ * up the unlinked addresses once the {@code transport_import} SystemState is present.
+ */
+class Neo4jBulkLoader implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final Driver driver;
+
+    Neo4jBulkLoader(String uri, String user, String password) {
+        this.driver = GraphDatabase.driver(uri, AuthTokens.basic(user, password));
+        driver.verifyConnectivity();
+    }
+
+    void load(SyntheticCity city) {
+        try (Session session = driver.session()) {
+            session.run("CREATE CONSTRAINT transport_id_unique IF NOT EXISTS FOR (t:Transport) REQUIRE t.id IS UNIQUE");
+            session.run("CREATE INDEX transport_location_index IF NOT EXISTS FOR (t:Transport) ON (t.location)");
+            session.run("CREATE INDEX address_id_index IF NOT EXISTS FOR (a:Address) ON (a.id)");
+            session.run("CREATE INDEX listing_id_index IF NOT EXISTS FOR (l:Listing) ON (l.id)");
+            session.run("CREATE INDEX region_iso_index IF NOT EXISTS FOR (r:Region) ON (r.iso)");
+            session.run("CREATE INDEX poi_location_index IF NOT EXISTS FOR (p:PointOfInterest) ON (p.location)");
+
+            batched(session, city.stops(), stop -> Map.of(
+                    "id", stop.id(), "name", stop.name(), "lat", stop.lat(), "lon", stop.lon()), """
+                    UNWIND $rows AS row
+                    MERGE (t:Transport {id: row.id})
+                    SET t.name = row.name,
+                        t.location = point({latitude: row.lat, longitude: row.lon}),
+                        t.type = 'Station',
+                        t.version = 1
+                    """);
+            batched(session, city.links(), link -> Map.of(
+                    "from", link.from(), "to", link.to(), "minutes", link.minutes(), "frequency", link.frequency()), """
+                    UNWIND $rows AS row
+                    MATCH (source:Transport {id: row.from})
+                    MATCH (target:Transport {id: row.to})
+                    MERGE (source)-[r:CONNECTED_TO]->(target)
+                    SET r.travelTimeInMinutes = row.minutes, r.frequency = row.frequency
+                    """);
+            batched(session, city.walks(), walk -> Map.of(
+                    "from", walk.from(), "to", walk.to(), "meters", walk.meters()), """
+                    UNWIND $rows AS row
+                    MATCH (s1:Transport {id: row.from})
+                    MATCH (s2:Transport {id: row.to})
+                    CREATE (s1)-[:WALK {distance: row.meters}]->(s2)
+                    """);
+
+            batched(session, city.addresses(), Neo4jBulkLoader::addressRow, """
+                    UNWIND $rows AS row
+                    MERGE (a:Address {id: row.id})
+                    SET a.osmId = row.osmId,
+                        a.fullAddressString = row.fullAddress,
+                        a.street = row.street,
+                        a.houseNumber = row.houseNumber,
+                        a.postalCode = row.postcode,
+                        a.city = row.city,
+                        a.countryCode = 'AT',
+                        a.location = point({latitude: row.lat, longitude: row.lon})
+                    WITH a, row
+                    OPTIONAL MATCH (r:Region {iso: row.regionIso})
+                    FOREACH (region IN CASE WHEN r IS NULL THEN [] ELSE [r] END | MERGE (a)-[:IN_REGION]->(region))
+                    """);
+            batched(session, city.listings(), Neo4jBulkLoader::listingRow, """
+                    UNWIND $rows AS row
+                    MATCH (a:Address {id: row.addressId})
+                    MERGE (l:Listing {id: row.id})
+                    SET l.url = row.url,
+                        l.title = row.title,
+                        l.price = row.price,
+                        l.livingArea = row.livingArea,
+                        l.roomCount = row.rooms,
+                        l.source = row.source,
+                        l.timestampFound = row.timestampFound
+                    MERGE (l)-[:LOCATED_AT]->(a)
+                    """);
+
+            Set<String> amenities = new LinkedHashSet<>();
+            city.pois().forEach(poi -> amenities.add(poi.amenity()));
+            session.run("UNWIND $names AS name MERGE (:Amenity {name: name})", Map.of("names", List.copyOf(amenities)));
+            batched(session, city.pois(), poi -> Map.of(
+                    "id", poi.id(), "osmId", poi.osmId(), "name", poi.name(), "amenity", poi.amenity(),
+                    "lat", poi.lat(), "lon", poi.lon()), """
+                    UNWIND $rows AS row
+                    MATCH (t:Amenity {name: row.amenity})
+                    MERGE (p:PointOfInterest {id: row.id})
+                    SET p.osmId = row.osmId,
+                        p.name = row.name,
+                        p.location = point({latitude: row.lat, longitude: row.lon})
+                    MERGE (p)-[:IS_TYPE]->(t)
+                    """);
+
+            session.run("""
+                    MERGE (s:SystemState {type: 'transport_import'})
+                    SET s.status = 'COMPLETED', s.timestamp = timestamp()
+                    """);
+        }
+    }
+
+    private static Map<String, Object> addressRow(SyntheticCity.Address address) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", address.id());
+        row.put("osmId", address.osmId());
+        row.put("fullAddress", address.fullAddress());
+        row.put("street", address.street());
+        row.put("houseNumber", address.houseNumber());
+        row.put("postcode", address.postcode());
+        row.put("city", address.city());
+        row.put("lat", address.lat());
+        row.put("lon", address.lon());
+        row.put("regionIso", address.regionIso());
+        return row;
+    }
+
+    private static Map<String, Object> listingRow(SyntheticCity.Listing listing) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", listing.id());
+        row.put("addressId", listing.address().id());
+        row.put("url", listing.url());
+        row.put("title", listing.title());
+        row.put("price", listing.price());
+        row.put("livingArea", listing.livingArea());
+        row.put("rooms", listing.rooms());
+        row.put("source", listing.source());
+        row.put("timestampFound", listing.scrapedAt().toString());
+        return row;
+    }
+
+    private static <T> void batched(Session session, List<T> items, Function<T, Map<String, Object>> toRow, String cypher) {
+        for (int i = 0; i < items.size(); i += BATCH_SIZE) {
+            List<Map<String, Object>> rows = new ArrayList<>(BATCH_SIZE);
+            for (T item : items.subList(i, Math.min(items.size(), i + BATCH_SIZE))) {
+                rows.add(toRow.apply(item));
+            }
+            session.executeWriteWithoutResult(tx -> tx.run(cypher, Map.of("rows", rows)).consume());
+        }
+    }
+
+    @Override
+    public void close() {
+        driver.close();
+    }
+}
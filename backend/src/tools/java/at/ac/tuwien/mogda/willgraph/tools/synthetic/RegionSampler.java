@@ -0,0 +1,167 @@
+package at.ac.tuwien.mogda.willgraph.tools.synthetic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Location;
+import org.n52.jackson.datatype.jts.JtsModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Draws points that follow the Gemeinde outlines inside a bounding box. Regions are picked with a weight of
+ * sqrt(area), so small urban districts get denser than large rural ones, and half of the points cluster
+ * around the region's centre. Outlines that merely aggregate smaller ones (e.g. "Wien" around its districts)
+ * are skipped.
+ */
+class RegionSampler {
+
+    private static final String GEMEINDEN = "regions/gemeinden_999_geo.json";
+
+    private final List<SampledRegion> regions = new ArrayList<>();
+    private final List<JsonNode> features = new ArrayList<>();
+    private final double[] cumulativeWeight;
+    private final Envelope bbox;
+
+    RegionSampler(Envelope bbox) throws IOException {
+        this.bbox = bbox;
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JtsModule());
+        List<JsonNode> candidates = new ArrayList<>();
+        List<Geometry> geometries = new ArrayList<>();
+        try (InputStream in = RegionSampler.class.getClassLoader().getResourceAsStream(GEMEINDEN)) {
+            if (in == null) {
+                throw new IOException("Missing classpath resource " + GEMEINDEN);
+            }
+            for (JsonNode feature : mapper.readTree(in).get("features")) {
+                Geometry geometry = mapper.treeToValue(feature.get("geometry"), Geometry.class);
+                if (geometry.getEnvelopeInternal().intersects(bbox)) {
+                    candidates.add(feature);
+                    geometries.add(geometry);
+                }
+            }
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            if (aggregatesOthers(i, geometries)) {
+                continue;
+            }
+            JsonNode properties = candidates.get(i).get("properties");
+            regions.add(new SampledRegion(properties.get("iso").asText(), properties.get("name").asText(),
+                    geometries.get(i), new IndexedPointInAreaLocator(geometries.get(i))));
+            features.add(candidates.get(i));
+        }
+        if (regions.isEmpty()) {
+            throw new IllegalArgumentException("No region intersects " + bbox);
+        }
+        cumulativeWeight = new double[regions.size()];
+        double total = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            total += Math.sqrt(regions.get(i).geometry().getArea());
+            cumulativeWeight[i] = total;
+        }
+    }
+
+    List<SampledRegion> regions() {
+        return regions;
+    }
+
+    /**
+     * The GeoJSON features of the sampled regions, for the region file of the dataset
+     */
+    List<JsonNode> features() {
+        return features;
+    }
+
+    SampledPoint sample(SplittableRandom random) {
+        while (true) {
+            double pick = random.nextDouble() * cumulativeWeight[cumulativeWeight.length - 1];
+            int index = 0;
+            while (cumulativeWeight[index] < pick) {
+                index++;
+            }
+            SampledRegion region = regions.get(index);
+            SampledPoint point = samplePoint(region, random);
+            if (point != null) {
+                return point;
+            }
+        }
+    }
+
+    /**
+     * Uniform point within the bounding box that falls inside any region, used for transit lines
+     */
+    SampledPoint sampleAnywhere(SplittableRandom random) {
+        while (true) {
+            double lon = bbox.getMinX() + random.nextDouble() * bbox.getWidth();
+            double lat = bbox.getMinY() + random.nextDouble() * bbox.getHeight();
+            SampledRegion region = locate(lat, lon);
+            if (region != null) {
+                return new SampledPoint(region, lat, lon);
+            }
+        }
+    }
+
+    SampledRegion locate(double lat, double lon) {
+        if (!bbox.contains(lon, lat)) {
+            return null;
+        }
+        Coordinate coordinate = new Coordinate(lon, lat);
+        for (SampledRegion region : regions) {
+            if (region.geometry().getEnvelopeInternal().contains(coordinate)
+                    && region.locator().locate(coordinate) != Location.EXTERIOR) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    private SampledPoint samplePoint(SampledRegion region, SplittableRandom random) {
+        Envelope envelope = region.geometry().getEnvelopeInternal().intersection(bbox);
+        if (envelope.isNull()) {
+            return null;
+        }
+        Coordinate centre = region.geometry().getInteriorPoint().getCoordinate();
+        double sigma = Math.sqrt(region.geometry().getArea()) / 4;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            double lon;
+            double lat;
+            if (random.nextBoolean()) {
+                lon = centre.x + random.nextGaussian() * sigma;
+                lat = centre.y + random.nextGaussian() * sigma;
+            } else {
+                lon = envelope.getMinX() + random.nextDouble() * envelope.getWidth();
+                lat = envelope.getMinY() + random.nextDouble() * envelope.getHeight();
+            }
+            Coordinate coordinate = new Coordinate(lon, lat);
+            if (bbox.contains(coordinate) && region.locator().locate(coordinate) != Location.EXTERIOR) {
+                return new SampledPoint(region, lat, lon);
+            }
+        }
+        return null;
+    }
+
+    private static boolean aggregatesOthers(int index, List<Geometry> geometries) {
+        Geometry outer = geometries.get(index);
+        for (int j = 0; j < geometries.size(); j++) {
+            Geometry inner = geometries.get(j);
+            if (j != index && inner.getArea() < outer.getArea() * 0.9
+                    && outer.getEnvelopeInternal().contains(inner.getEnvelopeInternal())
+                    && outer.contains(inner.getInteriorPoint())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    record SampledRegion(String iso, String name, Geometry geometry, IndexedPointInAreaLocator locator) {
+    }
+
+    record SampledPoint(SampledRegion region, double lat, double lon) {
+    }
+}
@@ -0,0 +1,50 @@
+package at.ac.tuwien.mogda.willgraph.tools.synthetic;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Generated dataset, shared by the CSV writer and the bulk loader
+ */
+record SyntheticCity(List<RegionSampler.SampledRegion> regions,
+                     List<Address> addresses,
+                     List<Listing> listings,
+                     List<Poi> pois,
+                     List<Stop> stops,
+                     List<Link> links,
+                     List<Walk> walks) {
+
+    record Address(String id, long osmId, String street, String houseNumber, String postcode, String city,
+                   double lat, double lon, String regionIso) {
+
+        String fullAddress() {
+            return street + " " + houseNumber + ", " + postcode + " " + city;
+        }
+    }
+
+    record Listing(String id, String source, String url, String title, double price, double livingArea, int rooms,
+                   Address address, LocalDateTime scrapedAt) {
+    }
+
+    /**
+     * Street and house number are null for POIs without address tags
+     */
+    record Poi(String id, long osmId, String amenity, String name, double lat, double lon,
+               String street, String houseNumber, String postcode, String city) {
+    }
+
+    record Stop(String id, String name, double lat, double lon) {
+    }
+
+    /**
+     * Directed {@code CONNECTED_TO} leg as written by the GTFS processor
+     */
+    record Link(String from, String to, double minutes, int frequency) {
+    }
+
+    /**
+     * {@code WALK} transfer between stops within 500 m that no line connects
+     */
+    record Walk(String from, String to, double meters) {
+    }
+}
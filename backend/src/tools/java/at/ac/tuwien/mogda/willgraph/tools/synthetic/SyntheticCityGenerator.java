@@ -0,0 +1,293 @@
+package at.ac.tuwien.mogda.willgraph.tools.synthetic;
+
+import at.ac.tuwien.mogda.willgraph.service.routing.GeoMath;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates addresses, listings, POIs and a transit network on top of the {@link RegionSampler}.
+ * Listings, addresses and POIs grow linearly with the scale; the transit network grows with its square root,
+ * as a city's lines grow much slower than its housing stock, which keeps the {@code WALK} edges bounded.
+ */
+class SyntheticCityGenerator {
+
+    static final int BASE_ADDRESSES = 1500;
+    static final int BASE_LISTINGS = 2000;
+    static final int BASE_LINES = 40;
+
+    /**
+     * Amenity types fetched by the OverpassApiService with their count at scale 1
+     */
+    static final Map<String, Integer> BASE_POIS = new LinkedHashMap<>();
+
+    static {
+        BASE_POIS.put("restaurant", 400);
+        BASE_POIS.put("cafe", 300);
+        BASE_POIS.put("fast_food", 200);
+        BASE_POIS.put("bar", 150);
+        BASE_POIS.put("pub", 80);
+        BASE_POIS.put("supermarket", 150);
+        BASE_POIS.put("bakery", 120);
+        BASE_POIS.put("butcher", 30);
+        BASE_POIS.put("pharmacy", 100);
+        BASE_POIS.put("doctors", 120);
+        BASE_POIS.put("dentist", 60);
+        BASE_POIS.put("gym", 40);
+        BASE_POIS.put("fitness_center", 30);
+        BASE_POIS.put("swimming_pool", 10);
+        BASE_POIS.put("library", 25);
+        BASE_POIS.put("university", 10);
+        BASE_POIS.put("cinema", 15);
+        BASE_POIS.put("theatre", 20);
+        BASE_POIS.put("nightclub", 20);
+        BASE_POIS.put("laundry", 20);
+        BASE_POIS.put("dry_cleaning", 15);
+        BASE_POIS.put("bicycle_rental", 60);
+        BASE_POIS.put("car_rental", 20);
+        BASE_POIS.put("parking", 150);
+        BASE_POIS.put("fuel", 40);
+    }
+
+    private static final String[] STREETS = {
+            "Hauptstraße", "Bahnhofstraße", "Schulgasse", "Kirchengasse", "Lindengasse", "Gartengasse", "Mühlgasse",
+            "Feldgasse", "Wiener Straße", "Ringstraße", "Rosengasse", "Bergsteiggasse", "Brunnengasse", "Wiesengasse",
+            "Parkstraße", "Quellenstraße", "Donaustraße", "Praterstraße", "Marktgasse", "Am Platz"
+    };
+    private static final LocalDateTime SCRAPED_AT = LocalDateTime.of(2026, 1, 16, 12, 0);
+    private static final double STOP_MERGE_METERS = 80;
+    private static final double WALK_METERS = 500;
+    private static final double TRAM_METERS_PER_MINUTE = 333;
+
+    private final RegionSampler sampler;
+    private final SplittableRandom random;
+
+    SyntheticCityGenerator(RegionSampler sampler, long seed) {
+        this.sampler = sampler;
+        this.random = new SplittableRandom(seed);
+    }
+
+    SyntheticCity generate(int scale, Integer lines) {
+        List<SyntheticCity.Address> addresses = addresses(BASE_ADDRESSES * scale);
+        List<SyntheticCity.Listing> listings = listings(BASE_LISTINGS * scale, addresses);
+        List<SyntheticCity.Poi> pois = pois(scale);
+        List<SyntheticCity.Stop> stops = new ArrayList<>();
+        List<SyntheticCity.Link> links = new ArrayList<>();
+        transit(lines != null ? lines : (int) Math.round(BASE_LINES * Math.sqrt(scale)), stops, links);
+        List<SyntheticCity.Walk> walks = walks(stops, links);
+        return new SyntheticCity(sampler.regions(), addresses, listings, pois, stops, links, walks);
+    }
+
+    private List<SyntheticCity.Address> addresses(int count) {
+        List<SyntheticCity.Address> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RegionSampler.SampledPoint point = sampler.sample(random);
+            String iso = point.region().iso();
+            addresses.add(new SyntheticCity.Address(uuid(), 9_000_000_000L + i, street(),
+                    Integer.toString(1 + random.nextInt(200)), postcode(iso), city(point.region().name()),
+                    point.lat(), point.lon(), iso));
+        }
+        return addresses;
+    }
+
+    /**
+     * Several listings share an address, like flats in one building, so the importer's deduplication is exercised
+     */
+    private List<SyntheticCity.Listing> listings(int count, List<SyntheticCity.Address> addresses) {
+        double centreLat = sampler.regions().stream()
+                .mapToDouble(region -> region.geometry().getCentroid().getY()).average().orElse(0);
+        double centreLon = sampler.regions().stream()
+                .mapToDouble(region -> region.geometry().getCentroid().getX()).average().orElse(0);
+        List<SyntheticCity.Listing> listings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SyntheticCity.Address address = addresses.get(random.nextInt(addresses.size()));
+            double size = Math.round(Math.exp(Math.log(65) + 0.45 * random.nextGaussian()) * 10) / 10.0;
+            int rooms = (int) Math.max(1, Math.min(6, Math.round(size / 28)));
+            double km = GeoMath.haversine(address.lat(), address.lon(), centreLat, centreLon) / 1000;
+            double perSqm = (12 + 12 * Math.exp(-km / 4)) * Math.exp(0.15 * random.nextGaussian());
+            double price = Math.round(size * perSqm * 100) / 100.0;
+            boolean willhaben = random.nextInt(10) < 4;
+            String id = uuid();
+            String url = willhaben
+                    ? "https://www.willhaben.at/iad/immobilien/d/mietwohnungen/synthetic/" + id
+                    : "https://www.immobilienscout24.at/expose/" + id.replace("-", "");
+            listings.add(new SyntheticCity.Listing(id, willhaben ? "willhaben" : "immoscout", url,
+                    rooms + " Zimmer Wohnung in " + address.city() + ", " + address.street(),
+                    price, size, rooms, address, SCRAPED_AT.minusMinutes(random.nextInt(30 * 24 * 60))));
+        }
+        return listings;
+    }
+
+    private List<SyntheticCity.Poi> pois(int scale) {
+        List<SyntheticCity.Poi> pois = new ArrayList<>();
+        long osmId = 8_000_000_000L;
+        for (Map.Entry<String, Integer> amenity : BASE_POIS.entrySet()) {
+            for (int i = 0; i < amenity.getValue() * scale; i++) {
+                RegionSampler.SampledPoint point = sampler.sample(random);
+                boolean tagged = random.nextInt(10) < 4;
+                pois.add(new SyntheticCity.Poi(uuid(), osmId++, amenity.getKey(), label(amenity.getKey()) + " " + (i + 1),
+                        point.lat(), point.lon(),
+                        tagged ? street() : null,
+                        tagged ? Integer.toString(1 + random.nextInt(200)) : null,
+                        tagged ? postcode(point.region().iso()) : null,
+                        tagged ? city(point.region().name()) : null));
+            }
+        }
+        return pois;
+    }
+
+    /**
+     * Each line starts at a random point and walks in a slowly turning direction with a stop every 300-700 m;
+     * stops of different lines closer than 80 m are shared, which creates the transfer points
+     */
+    private void transit(int lineCount, List<SyntheticCity.Stop> stops, List<SyntheticCity.Link> links) {
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        Set<String> linked = new HashSet<>();
+        for (int line = 1; line <= lineCount; line++) {
+            RegionSampler.SampledPoint start = sampler.sampleAnywhere(random);
+            double lat = start.lat();
+            double lon = start.lon();
+            double heading = random.nextDouble() * 2 * Math.PI;
+            int frequency = 50 + random.nextInt(250);
+            int stopCount = 15 + random.nextInt(21);
+            int previous = stop(stops, grid, lat, lon, line);
+            for (int s = 1; s < stopCount; s++) {
+                heading += Math.toRadians(random.nextDouble() * 40 - 20);
+                double step = 300 + random.nextDouble() * 400;
+                double nextLat = lat + step * Math.cos(heading) / GeoMath.METERS_PER_DEGREE_LAT;
+                double nextLon = lon + step * Math.sin(heading) / GeoMath.metersPerDegreeLon(lat);
+                if (sampler.locate(nextLat, nextLon) == null) {
+                    break;
+                }
+                lat = nextLat;
+                lon = nextLon;
+                int current = stop(stops, grid, lat, lon, line);
+                if (current != previous) {
+                    SyntheticCity.Stop from = stops.get(previous);
+                    SyntheticCity.Stop to = stops.get(current);
+                    double minutes = 0.5 + GeoMath.haversine(from.lat(), from.lon(), to.lat(), to.lon()) / TRAM_METERS_PER_MINUTE;
+                    minutes = Math.round(minutes * 100) / 100.0;
+                    if (linked.add(from.id() + ">" + to.id())) {
+                        links.add(new SyntheticCity.Link(from.id(), to.id(), minutes, frequency));
+                    }
+                    if (linked.add(to.id() + ">" + from.id())) {
+                        links.add(new SyntheticCity.Link(to.id(), from.id(), minutes, frequency));
+                    }
+                }
+                previous = current;
+            }
+        }
+    }
+
+    private int stop(List<SyntheticCity.Stop> stops, Map<Long, List<Integer>> grid, double lat, double lon, int line) {
+        Integer existing = nearest(stops, grid, lat, lon, STOP_MERGE_METERS);
+        if (existing != null) {
+            return existing;
+        }
+        int index = stops.size();
+        stops.add(new SyntheticCity.Stop("syn:stop:" + index, street().replace("gasse", "").replace("straße", "")
+                + " (Linie " + line + ")", lat, lon));
+        grid.computeIfAbsent(cell(lat, lon), k -> new ArrayList<>()).add(index);
+        return index;
+    }
+
+    private List<SyntheticCity.Walk> walks(List<SyntheticCity.Stop> stops, List<SyntheticCity.Link> links) {
+        Set<String> connected = new HashSet<>();
+        links.forEach(link -> connected.add(link.from() + ">" + link.to()));
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        for (int i = 0; i < stops.size(); i++) {
+            grid.computeIfAbsent(cell(stops.get(i).lat(), stops.get(i).lon()), k -> new ArrayList<>()).add(i);
+        }
+        List<SyntheticCity.Walk> walks = new ArrayList<>();
+        for (int i = 0; i < stops.size(); i++) {
+            SyntheticCity.Stop from = stops.get(i);
+            for (int j : neighbours(grid, from.lat(), from.lon())) {
+                SyntheticCity.Stop to = stops.get(j);
+                if (j <= i || connected.contains(from.id() + ">" + to.id())) {
+                    continue;
+                }
+                double meters = GeoMath.haversine(from.lat(), from.lon(), to.lat(), to.lon());
+                if (meters <= WALK_METERS) {
+                    walks.add(new SyntheticCity.Walk(from.id(), to.id(), Math.round(meters * 10) / 10.0));
+                }
+            }
+        }
+        return walks;
+    }
+
+    private Integer nearest(List<SyntheticCity.Stop> stops, Map<Long, List<Integer>> grid, double lat, double lon, double radius) {
+        Integer best = null;
+        double bestMeters = radius;
+        for (int index : neighbours(grid, lat, lon)) {
+            SyntheticCity.Stop stop = stops.get(index);
+            double meters = GeoMath.haversine(lat, lon, stop.lat(), stop.lon());
+            if (meters <= bestMeters) {
+                best = index;
+                bestMeters = meters;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Candidates in the 3x3 block of 500 m cells around the point
+     */
+    private static List<Integer> neighbours(Map<Long, List<Integer>> grid, double lat, double lon) {
+        long centre = cell(lat, lon);
+        long x = centre >> 32;
+        long y = (int) centre;
+        List<Integer> result = new ArrayList<>();
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                List<Integer> nodes = grid.get(((x + dx) << 32) | ((y + dy) & 0xFFFFFFFFL));
+                if (nodes != null) {
+                    result.addAll(nodes);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long cell(double lat, double lon) {
+        // Measured at 60° so a cell is at least 500 m wide anywhere south of it
+        long x = (long) Math.floor(lon * GeoMath.metersPerDegreeLon(60) / WALK_METERS);
+        long y = (long) Math.floor(lat * GeoMath.METERS_PER_DEGREE_LAT / WALK_METERS);
+        return (x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private String uuid() {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private String street() {
+        return STREETS[random.nextInt(STREETS.length)];
+    }
+
+    /**
+     * Vienna's Gemeinde codes map to postcodes (90101 to 1010, 92301 to 1230); elsewhere the code is reused
+     */
+    private static String postcode(String iso) {
+        if (iso.length() == 5 && iso.startsWith("9")) {
+            return "1" + iso.substring(1, 3) + "0";
+        }
+        return iso.substring(0, Math.min(4, iso.length()));
+    }
+
+    private static String city(String regionName) {
+        return regionName.startsWith("Wien") ? "Wien" : regionName;
+    }
+
+    private static String label(String amenity) {
+        String text = amenity.replace('_', ' ');
+        return text.substring(0, 1).toUpperCase(Locale.ROOT) + text.substring(1);
+    }
+}
@@ -0,0 +1,80 @@
+package at.ac.tuwien.mogda.willgraph.tools.synthetic;
+
+import org.locationtech.jts.geom.Envelope;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates a reproducible synthetic dataset at 1x, 10x or 100x the size of the scraped Vienna data, to load-test
+ * the importers, region assignment, linking and search beyond what the scrapers deliver.
+ * <p>
+ * Run with {@code ./gradlew generateDataset -PdatasetArgs='--scale 10 --out build/synthetic/10x'}. Options:
+ * <ul>
+ *     <li>{@code --scale 1|10|100}: multiplier of addresses, listings and POIs (default 1); transit lines grow
+ *     with its square root, like a city's network does with its area</li>
+ *     <li>{@code --seed n}: random seed, the same seed and options produce the same files (default 42)</li>
+ *     <li>{@code --bbox minLat,minLon,maxLat,maxLon}: area to fill with real Gemeinden (default Vienna)</li>
+ *     <li>{@code --lines n}: overrides the number of transit lines</li>
+ *     <li>{@code --mode csv|bulk|both}: write importer input files to {@code --out}, load straight into Neo4j,
+ *     or both (default csv)</li>
+ *     <li>{@code --bolt}, {@code --user}, {@code --password}: Neo4j connection for bulk mode</li>
+ * </ul>
+ */
+public class SyntheticDatasetGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int scale = Integer.parseInt(options.getOrDefault("scale", "1"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String mode = options.getOrDefault("mode", "csv");
+        Integer lines = options.containsKey("lines") ? Integer.parseInt(options.get("lines")) : null;
+        if (!Map.of("csv", 0, "bulk", 0, "both", 0).containsKey(mode)) {
+            throw new IllegalArgumentException("--mode must be csv, bulk or both");
+        }
+
+        String[] bbox = options.getOrDefault("bbox", "48.1,16.2,48.35,16.6").split(",");
+        if (bbox.length != 4) {
+            throw new IllegalArgumentException("--bbox must be minLat,minLon,maxLat,maxLon");
+        }
+        Envelope envelope = new Envelope(Double.parseDouble(bbox[1]), Double.parseDouble(bbox[3]),
+                Double.parseDouble(bbox[0]), Double.parseDouble(bbox[2]));
+
+        long start = System.nanoTime();
+        RegionSampler sampler = new RegionSampler(envelope);
+        SyntheticCity city = new SyntheticCityGenerator(sampler, seed).generate(scale, lines);
+        System.out.printf("Generated %dx (seed %d) in %d ms: %d regions, %d addresses, %d listings, %d POIs, "
+                        + "%d stops, %d CONNECTED_TO, %d WALK%n",
+                scale, seed, (System.nanoTime() - start) / 1_000_000, city.regions().size(), city.addresses().size(),
+                city.listings().size(), city.pois().size(), city.stops().size(), city.links().size(),
+                city.walks().size());
+
+        if (!"bulk".equals(mode)) {
+            Path out = Path.of(options.getOrDefault("out", "build/synthetic/" + scale + "x"));
+            start = System.nanoTime();
+            new CsvDatasetWriter().write(city, sampler.features(), out);
+            System.out.printf("Wrote %s in %d ms%n", out.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+        }
+        if (!"csv".equals(mode)) {
+            String bolt = options.getOrDefault("bolt", "bolt://localhost:7687");
+            start = System.nanoTime();
+            try (Neo4jBulkLoader loader = new Neo4jBulkLoader(bolt,
+                    options.getOrDefault("user", "neo4j"), options.getOrDefault("password", "testpassword"))) {
+                loader.load(city);
+            }
+            System.out.printf("Loaded into %s in %d ms%n", bolt, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -1,6 +1,6 @@
 import axios from "axios";
 import type {PoiDistanceDto} from "src/types/Poi";
-import {TransportPathDto} from "src/types/TransportPath";
+import type {CoordinateDto, DistanceMatrixDto, TransportMatrixDto, TransportPathDto} from "src/types/TransportPath";
 
 const poiService = {
   /**
@@ -46,6 +46,43 @@ const poiService = {
       console.error("Error fetching transport path for POI:", error);
       return null;
     }
+  },
+
+  /**
+   * Pairwise walking distances, leave out destinations to get the matrix between all origins
+   */
+  async getDistanceMatrix(origins: CoordinateDto[], destinations?: CoordinateDto[]): Promise<DistanceMatrixDto | null> {
+    try {
+      const response = await axios.post<DistanceMatrixDto>("http://localhost:8080/api/poi/distance-matrix", {
+        fromLat: origins.map((p) => p.lat),
+        fromLon: origins.map((p) => p.lng),
+        toLat: destinations?.map((p) => p.lat),
+        toLon: destinations?.map((p) => p.lng),
+      });
+      return response.data;
+    } catch (error) {
+      console.error("Error fetching distance matrix:", error);
+      return null;
+    }
+  },
+
+  /**
+   * Travel times from every origin to every destination in a single request.
+   * Rows arrive in completion order, use row.origin as the index.
+   */
+  async getTransportMatrix(origins: CoordinateDto[], destinations: CoordinateDto[], maxWalkDistance: number = 1000, maxMinutes: number = 120): Promise<TransportMatrixDto | null> {
+    try {
+      const response = await axios.post<TransportMatrixDto>("http://localhost:8080/api/poi/transport-matrix", {
+        origins,
+        destinations,
+        maxWalkDistance,
+        maxMinutes,
+      });
+      return response.data;
+    } catch (error) {
+      console.error("Error fetching transport matrix:", error);
+      return null;
+    }
   }
 };
 
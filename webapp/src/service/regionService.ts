@@ -6,19 +6,21 @@ import type { ListingSearchFilterDto, RealEstateWithScoreDto, RegionDto } from "
 const regionService = {
 	/**
 	 * Search regions by query string.
-	 * Makes GET request to http://localhost:8080/api/regions?q={query}&limit={limit}
+	 * Makes GET request to http://localhost:8080/api/regions?q={query}&limit={limit}&zoom={zoom}
 	 * @param q Search query (optional)
 	 * @param limit Maximum number of results (default 10)
+	 * @param zoom Map zoom the outlines are simplified for (optional, full outlines without)
 	 * @returns Array of RegionDto objects
 	 */
-	async searchRegions(q?: string, limit: number = 10): Promise<RegionDto[]> {
-		console.log("searchRegions called with query:", q, "limit:", limit);
+	async searchRegions(q?: string, limit: number = 10, zoom?: number): Promise<RegionDto[]> {
+		console.log("searchRegions called with query:", q, "limit:", limit, "zoom:", zoom);
 
 		try {
 			const response = await axios.get<RegionDto[]>("http://localhost:8080/api/regions", {
 				params: {
 					q,
 					limit,
+					zoom: zoom != null ? Math.round(zoom) : undefined,
 				},
 			});
 
@@ -28,6 +28,8 @@ export const useGeoStore = defineStore("geoStore", {
 		}>,
 		regionEstatesMap: new Map<string, RealEstateWithScoreDto[]>(),
 		selectedEstate: null as RealEstateDto | null,
+		// Current map zoom, selects the detail of region outlines
+		mapZoom: 14,
 		// POI state
 		poiList: [] as Point[],
 		poiDistances: [] as PoiWithDistance[],
@@ -14,3 +14,33 @@ export interface TransportPathDto {
   walkFromStationMeters: number;
   stations: StationDistanceDto[];
 }
+
+export interface CoordinateDto {
+  lat: number;
+  lng: number;
+}
+
+export interface TransportMatrixCellDto {
+  travelMinutes: number;
+  hops: number;
+  walkingMeters: number;
+}
+
+export interface TransportMatrixRowDto {
+  origin: number;
+  // null when the destination is not reachable within maxMinutes
+  cells: (TransportMatrixCellDto | null)[];
+}
+
+export interface TransportMatrixDto {
+  origins: number;
+  destinations: number;
+  rows: TransportMatrixRowDto[];
+}
+
+export interface DistanceMatrixDto {
+  rows: number;
+  columns: number;
+  distanceMeters: number[][];
+  walkingMinutes: number[][];
+}
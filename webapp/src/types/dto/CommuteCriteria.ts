@@ -0,0 +1,6 @@
+export interface CommuteCriteria {
+	lat: number;
+	lng: number;
+	maxMinutes: number;
+	maxWalkDistance?: number | null;
+}
@@ -1,10 +1,12 @@
 import type { ListingCriteria } from "./ListingCriteria";
 import type { TransportCriteria } from "./TransportCriteria";
+import type { CommuteCriteria } from "./CommuteCriteria";
 import type { PriorityItemDto } from "./PriorityItemDto";
 
 export interface ListingSearchFilterDto {
 	listing: ListingCriteria | null;
 	transport: TransportCriteria | null;
+	commute?: CommuteCriteria | null;
 	amenityPriorities: PriorityItemDto[] | null;
 	poiPriorities: PriorityItemDto[] | null;
 	bonusScoreRegion: number | null;
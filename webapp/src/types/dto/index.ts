@@ -1,5 +1,6 @@
 export * from "./ListingCriteria";
 export * from "./TransportCriteria";
+export * from "./CommuteCriteria";
 export * from "./PriorityItemDto";
 export * from "./ListingSearchFilterDto";
 export * from "./RealEstateWithScoreDto";